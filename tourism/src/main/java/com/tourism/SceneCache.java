@@ -0,0 +1,119 @@
+package com.tourism;
+
+import com.tourism.controllers.CachedView;
+import com.tourism.utils.FileDataManager;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ResourceBundle;
+
+/**
+ * The screens loaded so far, one scene per FXML path and locale, so switching back to
+ * a screen does not parse its FXML or run its controller's initialize again.
+ * <p>
+ * A view shown again gets {@link CachedView#activate}, told whether the data version
+ * moved since the view was last left. Preloading builds views ahead of time, one per
+ * FX pulse so the screen stays responsive; their controllers then start their own
+ * background loads. Use from the FX thread only.
+ */
+final class SceneCache {
+
+    static final String STYLESHEET =
+            Objects.requireNonNull(SceneCache.class.getResource("/css/styles.css")).toExternalForm();
+
+    private final Map<String, View> views = new HashMap<>();
+    private final Map<Locale, ResourceBundle> bundles = new HashMap<>();
+    private long generation; // bumped by clear(); pending preloads of an older one are dropped
+
+    ResourceBundle bundle(Locale locale) {
+        return bundles.computeIfAbsent(locale, l -> ResourceBundle.getBundle("i18n.messages", l));
+    }
+
+    /** The scene for the view, loaded on first use and activated on later ones. */
+    Scene get(String fxmlPath, Locale locale, double width, double height) throws IOException {
+        View view = views.get(key(fxmlPath, locale));
+        if (view == null) {
+            return load(fxmlPath, locale, width, height).scene;
+        }
+        if (view.controller instanceof CachedView) {
+            ((CachedView) view.controller).activate(FileDataManager.getDataVersion() != view.version);
+        }
+        return view.scene;
+    }
+
+    /** Notes that the scene is being replaced, so its next activation knows what changed since. */
+    void leave(Scene scene) {
+        for (View view : views.values()) {
+            if (view.scene == scene) {
+                view.version = FileDataManager.getDataVersion();
+                return;
+            }
+        }
+    }
+
+    /** Loads the views not cached yet, one per FX pulse. */
+    void preload(List<String> fxmlPaths, Locale locale, double width, double height) {
+        Deque<String> pending = new ArrayDeque<>(fxmlPaths);
+        long preloading = generation;
+        Platform.runLater(() -> preloadNext(pending, preloading, locale, width, height));
+    }
+
+    /** Forgets every view, e.g. on logout, since they show the previous session. */
+    void clear() {
+        views.clear();
+        generation++;
+    }
+
+    private void preloadNext(Deque<String> pending, long preloading, Locale locale, double width, double height) {
+        if (preloading != generation || pending.isEmpty()) {
+            return;
+        }
+        String fxmlPath = pending.poll();
+        if (!views.containsKey(key(fxmlPath, locale))) {
+            try {
+                load(fxmlPath, locale, width, height);
+                System.out.println("Preloaded " + fxmlPath);
+            } catch (IOException e) {
+                System.err.println("Error preloading " + fxmlPath + ": " + e.getMessage());
+            }
+        }
+        Platform.runLater(() -> preloadNext(pending, preloading, locale, width, height));
+    }
+
+    private View load(String fxmlPath, Locale locale, double width, double height) throws IOException {
+        long version = FileDataManager.getDataVersion(); // before the controller starts loading
+        FXMLLoader loader = new FXMLLoader(TourismApp.class.getResource(fxmlPath), bundle(locale));
+        Parent root = loader.load();
+        Scene scene = new Scene(root, width, height);
+        scene.getStylesheets().add(STYLESHEET);
+        View view = new View(scene, loader.getController(), version);
+        views.put(key(fxmlPath, locale), view);
+        return view;
+    }
+
+    private static String key(String fxmlPath, Locale locale) {
+        return fxmlPath + "|" + locale.toLanguageTag();
+    }
+
+    private static final class View {
+        final Scene scene;
+        final Object controller;
+        long version; // data version when the view was last left (or built)
+
+        View(Scene scene, Object controller, long version) {
+            this.scene = scene;
+            this.controller = controller;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.tourism;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs and times the steps of application start.
+ * <p>
+ * Steps that build the login screen run on the FX thread, one after another. The
+ * others run on background threads: data setup alongside the login screen, cache
+ * warm-up once the screen is visible. A background step can be chained after an
+ * earlier one; otherwise they run concurrently. Once every step has finished, a
+ * per-step timing breakdown is printed.
+ */
+final class Startup {
+
+    /** A step run on the calling thread. */
+    interface Step {
+        void run() throws Exception;
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(3, r -> {
+        Thread thread = new Thread(r, "startup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long started = System.nanoTime();
+    private final Map<String, Long> timings = new LinkedHashMap<>(); // step -> millis, in finishing order
+    private final List<CompletableFuture<Void>> background = new ArrayList<>();
+    private volatile long shownMillis = -1;
+
+    /** Runs the step on the calling thread; its exceptions propagate. */
+    void run(String name, Step step) throws Exception {
+        long start = System.nanoTime();
+        try {
+            step.run();
+        } finally {
+            record(name, start);
+        }
+    }
+
+    /** Runs one part of a background step on the calling thread, timed under its own name. */
+    void time(String name, Runnable part) {
+        long start = System.nanoTime();
+        try {
+            part.run();
+        } finally {
+            record(name, start);
+        }
+    }
+
+    /** Starts the step on a background thread. */
+    CompletableFuture<Void> inBackground(String name, Runnable step) {
+        return inBackground(name, CompletableFuture.completedFuture(null), step);
+    }
+
+    /** Starts the step on a background thread once {@code after} has finished, whether it failed or not. */
+    CompletableFuture<Void> inBackground(String name, CompletableFuture<?> after, Runnable step) {
+        CompletableFuture<Void> future = after.handleAsync((result, error) -> {
+            long start = System.nanoTime();
+            try {
+                step.run();
+            } catch (Exception e) {
+                System.err.println("Error in startup step " + name + ": " + e.getMessage());
+            } finally {
+                record(name, start);
+            }
+            return null;
+        }, EXECUTOR);
+        synchronized (background) {
+            background.add(future);
+        }
+        return future;
+    }
+
+    /** Notes that the first screen is visible; steps started after this are the deferred ones. */
+    void shown() {
+        shownMillis = millisSince(started);
+    }
+
+    /** Prints the breakdown once every background step started so far has finished. */
+    void report() {
+        CompletableFuture<?>[] steps;
+        synchronized (background) {
+            steps = background.toArray(new CompletableFuture<?>[0]);
+        }
+        CompletableFuture.allOf(steps).whenComplete((result, error) -> {
+            StringBuilder text = new StringBuilder("Startup finished in " + millisSince(started) + " ms");
+            if (shownMillis >= 0) {
+                text.append(" (login screen shown after ").append(shownMillis).append(" ms)");
+            }
+            synchronized (timings) {
+                timings.forEach((name, millis) ->
+                        text.append(System.lineSeparator()).append("  ").append(name).append(": ").append(millis).append(" ms"));
+            }
+            System.out.println(text);
+        });
+    }
+
+    private void record(String name, long start) {
+        synchronized (timings) {
+            timings.put(name, millisSince(start));
+        }
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -9,9 +9,11 @@ import javafx.stage.Stage;
 import com.tourism.utils.FileDataManager;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 public class TourismApp extends Application {
 
@@ -22,38 +24,50 @@ public class TourismApp extends Application {
 
     private static Locale currentLocale; // Static field to hold the current locale for the application
 
+    private static final String LOGIN_VIEW = "/fxml/login.fxml";
+    private static final SceneCache sceneCache = new SceneCache(); // screens already loaded, by FXML path and locale
+
     public static void switchScene(String s) {
     }
 
     @Override
-    public void start(Stage stage) throws IOException {
+    public void start(Stage stage) throws Exception {
         primaryStage = stage; // Store the primary stage reference
+        Startup startup = new Startup();
 
         // Set the initial locale (e.g., system default or a fixed default like English)
         if (currentLocale == null) {
             currentLocale = Locale.getDefault(); // Or Locale.ENGLISH for a fixed default
         }
 
+        // Data directory, restore recovery and default records are prepared in the background while the
+        // login screen is built, each timed on its own; a login submitted before that is done waits for it
+        CompletableFuture<Void> data = startup.inBackground("data setup", () -> FileDataManager.initialize(startup::time));
+
         // Initialize application (Your existing method)
-        initializeApplication();
+        startup.run("resource bundle", this::initializeApplication);
 
         // Load and show login screen with localization
-        showLoginScreenLocalized();
+        startup.run("login screen", this::showLoginScreenLocalized);
 
         // Configure primary stage (Your existing method, but title will be set from resource bundle)
-        configurePrimaryStage();
+        startup.run("stage", this::configurePrimaryStage);
 
         // Show the application
-        primaryStage.show();
-
-        // Log application startup
-        FileDataManager.logActivity("SYSTEM", "Application started successfully");
+        startup.run("show", primaryStage::show);
+        startup.shown();
+
+        // Not needed to show the login screen: stores are read in once the data is set up
+        FileDataManager.warmUpSteps().forEach((name, step) -> startup.inBackground("warm up " + name, data, step));
+        startup.inBackground("startup log", data, () ->
+                FileDataManager.logActivity("SYSTEM", "Application started successfully"));
+        startup.report();
     }
 
     private void initializeApplication() {
         try {
             // Use ResourceBundle for app title and version if desired, or keep as constants
-            ResourceBundle bundle = ResourceBundle.getBundle("i18n.messages", currentLocale);
+            ResourceBundle bundle = sceneCache.bundle(currentLocale);
             System.out.println("=== " + bundle.getString("app.brandTitle") + " " + bundle.getString("app.version") + " ==="); // Add app.version to your messages.properties
             System.out.println("Initializing application...");
 
@@ -66,15 +80,14 @@ public class TourismApp extends Application {
 
     private void showLoginScreenLocalized() throws IOException {
         try {
-            ResourceBundle bundle = ResourceBundle.getBundle("i18n.messages", currentLocale);
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/login.fxml"), bundle);
+            ResourceBundle bundle = sceneCache.bundle(currentLocale);
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(LOGIN_VIEW), bundle);
             Parent root = loader.load();
 
             Scene scene = new Scene(root, 800, 600);
 
             // Load CSS stylesheet
-            String css = Objects.requireNonNull(getClass().getResource("/css/styles.css")).toExternalForm();
-            scene.getStylesheets().add(css);
+            scene.getStylesheets().add(SceneCache.STYLESHEET);
 
             primaryStage.setScene(scene);
             // Set title from the resource bundle
@@ -103,8 +116,11 @@ public class TourismApp extends Application {
             primaryStage.setMinHeight(600);
             primaryStage.centerOnScreen();
 
+            // Close the window right away; the exit backup finishes on a non-daemon thread
             primaryStage.setOnCloseRequest(event -> {
-                handleApplicationExit();
+                Thread exit = new Thread(this::handleApplicationExit, "application-exit");
+                exit.setDaemon(false);
+                exit.start();
             });
 
             primaryStage.setResizable(true);
@@ -121,6 +137,10 @@ public class TourismApp extends Application {
             if (backupCreated) {
                 System.out.println("Backup created successfully before exit");
             }
+            if (FileDataManager.writeSnapshots()) {
+                System.out.println("Data snapshots written for next startup");
+            }
+            FileDataManager.shutdown();
             System.out.println("Application closed successfully");
         } catch (Exception e) {
             System.err.println("Error during application shutdown: " + e.getMessage());
@@ -152,16 +172,21 @@ public class TourismApp extends Application {
         }
     }
 
+    // Screens are kept once loaded; the login screen is always built fresh and ends the session's screens
     public static void switchScene(String fxmlPath, String title, double width, double height) {
         try {
-            ResourceBundle bundle = ResourceBundle.getBundle("i18n.messages", currentLocale);
-            FXMLLoader loader = new FXMLLoader(TourismApp.class.getResource(fxmlPath), bundle);
-            Parent root = loader.load();
-
-            Scene scene = new Scene(root, width, height);
-
-            String css = Objects.requireNonNull(TourismApp.class.getResource("/css/styles.css")).toExternalForm();
-            scene.getStylesheets().add(css);
+            ResourceBundle bundle = sceneCache.bundle(currentLocale);
+            Scene scene;
+            if (LOGIN_VIEW.equals(fxmlPath)) {
+                sceneCache.clear();
+                FXMLLoader loader = new FXMLLoader(TourismApp.class.getResource(fxmlPath), bundle);
+                Parent root = loader.load();
+                scene = new Scene(root, width, height);
+                scene.getStylesheets().add(SceneCache.STYLESHEET);
+            } else {
+                sceneCache.leave(primaryStage.getScene());
+                scene = sceneCache.get(fxmlPath, currentLocale, width, height);
+            }
 
             primaryStage.setScene(scene);
             // Use the provided title directly if it's already localized, or get from bundle
@@ -180,6 +205,11 @@ public class TourismApp extends Application {
         switchScene(fxmlPath, title, 1000, 700);
     }
 
+    /** Builds the given screens one per FX pulse after the current one is shown, so switching to them is instant. */
+    public static void preloadScenes(String... fxmlPaths) {
+        sceneCache.preload(List.of(fxmlPaths), currentLocale, 1000, 700);
+    }
+
     public static void main(String[] args) {
         try {
             // Initializing with a default locale before launch to ensure bundle is ready
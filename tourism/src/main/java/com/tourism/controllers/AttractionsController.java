@@ -4,7 +4,9 @@ import com.tourism.models.TourPackage;
 import com.tourism.services.TourPackageService;
 import javafx.fxml.FXML;
 import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class AttractionsController {
@@ -13,20 +15,26 @@ public class AttractionsController {
     private ListView<String> attractionsListView;
 
     private final TourPackageService packageService = new TourPackageService();
+    private BackgroundLoader loader;
 
     public void initialize() {
-        try {
-            List<TourPackage> packages = packageService.getAllPackages();
+        loader = new BackgroundLoader(attractionsListView);
+        attractionsListView.setPlaceholder(new ProgressIndicator());
+        loader.load("packages", packageService::getAllPackages, packages -> {
+            List<String> lines = new ArrayList<>();
             for (TourPackage pkg : packages) {
                 String display = pkg.getPackageName()
                         + " | Destination: " + pkg.getDestination()
                         + " | Price: $" + pkg.getPrice()
                         + " | Duration: " + pkg.getDurationDays() + " days";
-                attractionsListView.getItems().add(display);
+                lines.add(display);
             }
-        } catch (Exception e) {
+            attractionsListView.getItems().setAll(lines);
+            attractionsListView.setPlaceholder(null);
+        }, e -> {
+            attractionsListView.setPlaceholder(null);
             attractionsListView.getItems().add("Failed to load packages: " + e.getMessage());
             System.err.println("Error loading packages: " + e.getMessage());
-        }
+        });
     }
 }
@@ -0,0 +1,161 @@
+package com.tourism.controllers;
+
+import javafx.beans.value.ChangeListener;
+import javafx.concurrent.Task;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import javafx.stage.Window;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs a controller's data loading off the FX Application Thread.
+ * <p>
+ * Each load has a key (e.g. "bookings"). Starting a load cancels the one still
+ * running under the same key, so a slow earlier result never overwrites a newer one.
+ * All loads are cancelled once the owner node leaves the screen (scene switched or
+ * node removed), so nothing is applied to a view the user has already left. Results
+ * and errors are handed over on the FX thread.
+ * <p>
+ * Use from the FX thread only.
+ */
+public final class BackgroundLoader {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "ui-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Makes the task for one load; see {@link #load}. */
+    interface Tasks {
+        <T> Task<T> create(Callable<T> work);
+    }
+
+    private final Executor executor;
+    private final Tasks tasks;
+    private final Map<String, Task<?>> running = new HashMap<>();
+    private final Map<TableView<?>, Node> placeholders = new HashMap<>(); // original placeholder while loading
+    private boolean cancelled; // loads were cut short since wasCancelled() was last asked
+    private final ChangeListener<Window> windowListener = (obs, oldWindow, window) -> {
+        if (window == null) {
+            cancelAll();
+        }
+    };
+
+    /** @param owner any node of the view; may be null, then loads are only cancelled by key */
+    public BackgroundLoader(Node owner) {
+        this(owner, EXECUTOR, new Tasks() {
+            @Override
+            public <T> Task<T> create(Callable<T> work) {
+                return new Task<>() {
+                    @Override
+                    protected T call() throws Exception {
+                        return work.call();
+                    }
+                };
+            }
+        });
+    }
+
+    BackgroundLoader(Node owner, Executor executor, Tasks tasks) {
+        this.executor = executor;
+        this.tasks = tasks;
+        if (owner != null) {
+            owner.sceneProperty().addListener((obs, oldScene, scene) -> {
+                if (oldScene != null) {
+                    oldScene.windowProperty().removeListener(windowListener);
+                }
+                if (scene == null) {
+                    cancelAll();
+                } else {
+                    scene.windowProperty().addListener(windowListener);
+                }
+            });
+            Scene scene = owner.getScene();
+            if (scene != null) {
+                scene.windowProperty().addListener(windowListener);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code work} in the background and passes its result to {@code onLoaded}
+     * (or the error to {@code onFailed}) on the FX thread, unless it was superseded or
+     * cancelled first.
+     */
+    public <T> Task<T> load(String key, Callable<T> work, Consumer<T> onLoaded, Consumer<Throwable> onFailed) {
+        Task<?> previous = running.remove(key);
+        if (previous != null) {
+            previous.cancel(false); // no interrupt: it would close file channels the stores share
+        }
+        Task<T> task = tasks.create(work);
+        task.setOnSucceeded(event -> {
+            running.remove(key, task);
+            onLoaded.accept(task.getValue());
+        });
+        task.setOnFailed(event -> {
+            running.remove(key, task);
+            onFailed.accept(task.getException());
+        });
+        task.setOnCancelled(event -> running.remove(key, task));
+        running.put(key, task);
+        executor.execute(task);
+        return task;
+    }
+
+    /** Same as {@link #load}, with a spinner as the table's placeholder until the load ends. */
+    public <T> Task<T> load(String key, TableView<?> table, Callable<T> work, Consumer<T> onLoaded,
+                            Consumer<Throwable> onFailed) {
+        Task<T> task = load(key, work, onLoaded, onFailed);
+        if (table != null) {
+            if (!placeholders.containsKey(table)) {
+                placeholders.put(table, table.getPlaceholder());
+                ProgressIndicator spinner = new ProgressIndicator();
+                spinner.setMaxSize(48, 48);
+                table.setPlaceholder(spinner);
+            }
+            task.runningProperty().addListener((obs, wasRunning, isRunning) -> {
+                Task<?> current = running.get(key);
+                if (!isRunning && (current == null || current == task) && placeholders.containsKey(table)) {
+                    table.setPlaceholder(placeholders.remove(table)); // not superseded: loading is over
+                }
+            });
+        }
+        return task;
+    }
+
+    public boolean isLoading(String key) {
+        return running.containsKey(key);
+    }
+
+    /**
+     * Whether loads were cancelled before finishing since the last call, e.g. because the
+     * view was left; a view shown again then has to load anew. Resets the flag.
+     */
+    public boolean wasCancelled() {
+        boolean result = cancelled;
+        cancelled = false;
+        return result;
+    }
+
+    public void cancelAll() {
+        cancelled |= !running.isEmpty();
+        // On the FX thread cancel() runs the onCancelled handler at once, and it removes from running
+        List<Task<?>> cancelling = new ArrayList<>(running.values());
+        running.clear();
+        for (Task<?> task : cancelling) {
+            task.cancel(false);
+        }
+    }
+}
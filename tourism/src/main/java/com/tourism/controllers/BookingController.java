@@ -8,10 +8,11 @@ import com.tourism.services.BookingService;
 import com.tourism.services.TouristService;
 import com.tourism.services.TourPackageService;
 import com.tourism.services.GuideService;
+import com.tourism.utils.DomainEvent;
 import com.tourism.utils.FileDataManager;
+import com.tourism.utils.PageQuery;
 import com.tourism.utils.SessionManager;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -21,10 +22,11 @@ import java.net.URL;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
 
-public class BookingController implements Initializable {
+public class BookingController implements Initializable, CachedView {
 
     @FXML private ComboBox<Tourist> touristComboBox;
     @FXML private ComboBox<TourPackage> packageComboBox;
@@ -49,14 +51,24 @@ public class BookingController implements Initializable {
     @FXML private Label statusLabel;
     @FXML private Button backButton;
 
+    @FXML private ComboBox<String> statusFilterComboBox;
+
     @FXML private DatePicker fromDatePicker;
     @FXML private DatePicker toDatePicker;
 
+    // The table reads bookings a page at a time, so memory does not grow with the booking history
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 10;
+    private static final String ALL_STATUSES = "All statuses";
+
     private BookingService bookingService;
     private TouristService touristService;
     private TourPackageService packageService;
     private GuideService guideService;
-    private ObservableList<Booking> bookingsList;
+    private PagedList<Booking> bookingsList;
+    private PageQuery bookingQuery; // filter and sort of the pages shown
+    private BackgroundLoader loader;
+    private ViewEvents events;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -66,6 +78,8 @@ public class BookingController implements Initializable {
         touristService = new TouristService();
         packageService = new TourPackageService();
         guideService = new GuideService();
+        loader = new BackgroundLoader(bookingsTable); // Loads stop when the view is left
+        events = new ViewEvents(bookingsTable, DomainEvent.class, this::applyEvents); // while the view is showing
 
         // Initialize table
         setupTable();
@@ -81,6 +95,17 @@ public class BookingController implements Initializable {
         System.out.println("DEBUG: BookingController initialized.");
     }
 
+    // Shown again from the scene cache: reload only if records changed or the last load was cut short
+    @Override
+    public void activate(boolean dataChanged) {
+        boolean interrupted = loader.wasCancelled();
+        if (dataChanged || interrupted) {
+            loadComboBoxData();
+            loadBookings();
+        }
+        clearStatusMessage();
+    }
+
     private void setupTable() {
         System.out.println("DEBUG: Setting up table columns...");
         if (bookingIdColumn != null) {
@@ -106,10 +131,22 @@ public class BookingController implements Initializable {
             travelDateColumn.setCellValueFactory(new PropertyValueFactory<>("travelDate"));
         }
 
-        bookingsList = FXCollections.observableArrayList();
+        if (statusFilterComboBox != null) {
+            statusFilterComboBox.setItems(FXCollections.observableArrayList(
+                    ALL_STATUSES, "PENDING", "CONFIRMED", "CANCELLED", "COMPLETED"));
+            statusFilterComboBox.setValue(ALL_STATUSES);
+            statusFilterComboBox.setOnAction(event -> loadBookings());
+        }
+
+        bookingsList = new PagedList<>(bookingsTable, loader, "bookings", PAGE_SIZE, MAX_PAGES,
+                Booking::getBookingId, this::showLoadError);
         if (bookingsTable != null) {
             bookingsTable.setItems(bookingsList);
-            System.out.println("DEBUG: Bookings table items set to ObservableList.");
+            bookingsTable.setSortPolicy(table -> {
+                sortBookings(); // the storage layer sorts, not the table
+                return true;
+            });
+            System.out.println("DEBUG: Bookings table items set to paged list.");
         } else {
             System.err.println("ERROR: bookingsTable is null during setupTable! Check FXML fx:id.");
         }
@@ -137,6 +174,7 @@ public class BookingController implements Initializable {
 
         // Table selection handler
         if (bookingsTable != null) {
+            bookingsTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE); // Ctrl/Shift-click for bulk delete
             bookingsTable.getSelectionModel().selectedItemProperty().addListener(
                     (observable, oldValue, newValue) -> {
                         if (newValue != null) {
@@ -149,37 +187,35 @@ public class BookingController implements Initializable {
         System.out.println("DEBUG: Event handlers setup complete.");
     }
 
+    // Each list loads on its own background task and fills its ComboBox when it arrives
     private void loadComboBoxData() {
-        try {
-            System.out.println("DEBUG: Loading ComboBox data...");
-            // Load tourists
-            if (touristComboBox != null) {
-                List<Tourist> tourists = touristService.getAllTourists();
+        System.out.println("DEBUG: Loading ComboBox data...");
+        if (touristComboBox != null) {
+            loader.load("touristChoices", touristService::getAllTourists, tourists -> {
                 touristComboBox.setItems(FXCollections.observableArrayList(tourists));
                 System.out.println("DEBUG: Loaded " + tourists.size() + " tourists into ComboBox.");
-            }
-
-            // Load packages
-            if (packageComboBox != null) {
-                List<TourPackage> packages = packageService.getAllPackages();
+            }, this::showComboBoxError);
+        }
+        if (packageComboBox != null) {
+            loader.load("packageChoices", packageService::getAllPackages, packages -> {
                 packageComboBox.setItems(FXCollections.observableArrayList(packages));
                 System.out.println("DEBUG: Loaded " + packages.size() + " packages into ComboBox.");
-            }
-
-            // Load guides
-            if (guideComboBox != null) {
-                List<Guide> guides = guideService.getAllGuides();
+            }, this::showComboBoxError);
+        }
+        if (guideComboBox != null) {
+            loader.load("guideChoices", guideService::getAllGuides, guides -> {
                 guideComboBox.setItems(FXCollections.observableArrayList(guides));
                 System.out.println("DEBUG: Loaded " + guides.size() + " guides into ComboBox.");
-            }
-
-        } catch (Exception e) {
-            System.err.println("Error loading combo box data: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for more details
-            showStatus("Error loading data: " + e.getMessage(), false);
+            }, this::showComboBoxError);
         }
     }
 
+    private void showComboBoxError(Throwable e) {
+        System.err.println("Error loading combo box data: " + e.getMessage());
+        e.printStackTrace(); // Print stack trace for more details
+        showStatus("Error loading data: " + e.getMessage(), false);
+    }
+
     @FXML
     private void handleCreateBooking() {
         System.out.println("DEBUG: handleCreateBooking called.");
@@ -229,10 +265,9 @@ public class BookingController implements Initializable {
             if (success) {
                 showStatus("Booking created successfully!", true);
                 clearForm();
-                loadBookings(); // Reloads table data after creation
                 FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(),
                         "Created booking for tourist: " + selectedTourist.getFullName());
-                System.out.println("DEBUG: Booking created, table reloaded.");
+                System.out.println("DEBUG: Booking created.");
             } else {
                 showStatus("Failed to create booking. Please try again.", false);
                 System.out.println("DEBUG: Booking creation failed.");
@@ -248,23 +283,32 @@ public class BookingController implements Initializable {
     @FXML
     private void handleUpdateBooking() {
         System.out.println("DEBUG: handleUpdateBooking called.");
-        try {
-            Booking selectedBooking = bookingsTable.getSelectionModel().getSelectedItem();
-            if (selectedBooking == null) {
+        int selectedIndex = bookingsTable.getSelectionModel().getSelectedIndex();
+        if (selectedIndex < 0) {
+            showStatus("Please select a booking to update.", false);
+            return;
+        }
+        // The selected row's page may not be loaded (or was evicted); the list reads it if need be
+        bookingsList.rowsAt(List.of(selectedIndex), rows -> {
+            if (rows.isEmpty()) {
                 showStatus("Please select a booking to update.", false);
-                return;
+            } else {
+                updateBooking(rows.get(0));
             }
+        });
+    }
 
+    private void updateBooking(Booking selectedBooking) {
+        try {
             System.out.println("DEBUG: Updating booking: " + selectedBooking.getBookingId());
             // For now, just update the status to CONFIRMED
             boolean success = bookingService.confirmBooking(selectedBooking.getBookingId());
 
             if (success) {
                 showStatus("Booking updated successfully!", true);
-                loadBookings(); // Reloads table data after update
                 FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(),
                         "Updated booking: " + selectedBooking.getBookingId());
-                System.out.println("DEBUG: Booking updated, table reloaded.");
+                System.out.println("DEBUG: Booking updated.");
             } else {
                 showStatus("Failed to update booking.", false);
                 System.out.println("DEBUG: Booking update failed.");
@@ -280,9 +324,17 @@ public class BookingController implements Initializable {
     @FXML
     private void handleDeleteBooking() {
         System.out.println("DEBUG: handleDeleteBooking called.");
+        List<Integer> selectedIndexes = new ArrayList<>(bookingsTable.getSelectionModel().getSelectedIndices());
+        if (selectedIndexes.isEmpty()) {
+            showStatus("Please select a booking to delete.", false);
+            return;
+        }
+        bookingsList.rowsAt(selectedIndexes, this::deleteBookings); // reads rows whose page is not loaded
+    }
+
+    private void deleteBookings(List<Booking> selectedBookings) {
         try {
-            Booking selectedBooking = bookingsTable.getSelectionModel().getSelectedItem();
-            if (selectedBooking == null) {
+            if (selectedBookings.isEmpty()) {
                 showStatus("Please select a booking to delete.", false);
                 return;
             }
@@ -290,20 +342,25 @@ public class BookingController implements Initializable {
             // Confirm deletion
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("Confirm Deletion");
-            alert.setHeaderText("Delete Booking");
-            alert.setContentText("Are you sure you want to delete this booking?");
+            alert.setHeaderText(selectedBookings.size() == 1 ? "Delete Booking" : "Delete Bookings");
+            alert.setContentText(selectedBookings.size() == 1
+                    ? "Are you sure you want to delete this booking?"
+                    : "Are you sure you want to delete these " + selectedBookings.size() + " bookings?");
 
             if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-                System.out.println("DEBUG: Deleting booking: " + selectedBooking.getBookingId());
-                boolean success = FileDataManager.deleteBooking(selectedBooking.getBookingId());
+                List<String> bookingIds = new ArrayList<>();
+                for (Booking booking : selectedBookings) {
+                    bookingIds.add(booking.getBookingId());
+                }
+                System.out.println("DEBUG: Deleting bookings: " + bookingIds);
+                int deleted = bookingService.deleteBookings(bookingIds); // single write for the whole selection
 
-                if (success) {
-                    showStatus("Booking deleted successfully!", true);
-                    loadBookings(); // Reloads table data after deletion
+                if (deleted > 0) {
+                    showStatus(deleted == 1 ? "Booking deleted successfully!" : deleted + " bookings deleted successfully!", true);
                     clearForm();
                     FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(),
-                            "Deleted booking: " + selectedBooking.getBookingId());
-                    System.out.println("DEBUG: Booking deleted, table reloaded.");
+                            "Deleted bookings: " + String.join(", ", bookingIds));
+                    System.out.println("DEBUG: Bookings deleted, table refreshed.");
                 } else {
                     showStatus("Failed to delete booking.", false);
                     System.out.println("DEBUG: Booking deletion failed.");
@@ -327,27 +384,106 @@ public class BookingController implements Initializable {
         showStatus("Data refreshed.", true);
     }
 
+    // Changes from this screen or any other, once per pulse: booking changes re-read the count and
+    // the pages in view (a changed status may move a row in or out of the filter), and the choice
+    // lists follow their records
+    private void applyEvents(List<DomainEvent> events) {
+        boolean bookingsChanged = false;
+        boolean choicesChanged = false;
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.BookingCreated || event instanceof DomainEvent.BookingUpdated
+                    || event instanceof DomainEvent.BookingStatusChanged
+                    || event instanceof DomainEvent.BookingPaymentStatusChanged
+                    || event instanceof DomainEvent.BookingDeleted) {
+                bookingsChanged = true;
+            } else if (event instanceof DomainEvent.TouristSaved || event instanceof DomainEvent.TouristDeleted
+                    || event instanceof DomainEvent.PackageSaved || event instanceof DomainEvent.PackageDeleted
+                    || event instanceof DomainEvent.GuideSaved || event instanceof DomainEvent.GuideDeleted) {
+                choicesChanged = true;
+            } else if (event instanceof DomainEvent.BulkChange) {
+                DomainEvent.BulkChange change = (DomainEvent.BulkChange) event;
+                bookingsChanged |= change.affects(Booking.class);
+                choicesChanged |= change.affects(Tourist.class) || change.affects(TourPackage.class)
+                        || change.affects(Guide.class);
+            }
+        }
+        if (bookingsChanged) {
+            loadBookings();
+        }
+        if (choicesChanged) {
+            loadComboBoxData();
+        }
+    }
+
+    // A new filter starts again from the first page; otherwise the pages in view are re-read
     private void loadBookings() {
-        try {
-            System.out.println("DEBUG: Attempting to load bookings into table...");
-            List<Booking> bookings = bookingService.getAllBookings();
-            System.out.println("DEBUG: Bookings retrieved from service: " + (bookings != null ? bookings.size() : "null") + " items.");
-
-            if (bookingsList != null) {
-                bookingsList.clear(); // Clear existing items
-                if (bookings != null) {
-                    bookingsList.addAll(bookings); // Add new items
-                }
-                System.out.println("DEBUG: ObservableList updated. Current size: " + bookingsList.size());
-            } else {
-                System.err.println("ERROR: bookingsList is null! Cannot update table.");
+        System.out.println("DEBUG: Attempting to load bookings into table...");
+        if (bookingsList == null) {
+            System.err.println("ERROR: bookingsList is null! Cannot update table.");
+            return;
+        }
+        PageQuery query = currentBookingQuery();
+        if (query.equals(bookingQuery)) {
+            bookingsList.refresh();
+            return;
+        }
+        bookingQuery = query;
+        bookingsList.setSource(new PagedList.Source<>() {
+            @Override
+            public int count() {
+                return bookingService.getBookingsCount(query);
             }
 
-        } catch (Exception e) {
-            System.err.println("Error loading bookings for table: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for more details
-            showStatus("Error loading bookings for table: " + e.getMessage(), false);
+            @Override
+            public List<Booking> page(int offset, int limit, String sortBy, boolean descending) {
+                PageQuery sorted = new PageQuery(query.getFilterIndex(), query.getFilterValue(), sortBy, descending);
+                return bookingService.getBookingsPage(sorted, offset, limit);
+            }
+        });
+    }
+
+    // The status filter; the sort order goes to the paged list
+    private PageQuery currentBookingQuery() {
+        String status = statusFilterComboBox != null ? statusFilterComboBox.getValue() : null;
+        boolean filtered = status != null && !ALL_STATUSES.equals(status);
+        return new PageQuery(filtered ? "status" : null, filtered ? status : null, null, false);
+    }
+
+    private void sortBookings() {
+        String sortBy = null;
+        boolean descending = false;
+        if (bookingsTable != null && !bookingsTable.getSortOrder().isEmpty()) {
+            TableColumn<Booking, ?> column = bookingsTable.getSortOrder().get(0);
+            sortBy = sortIndex(column);
+            descending = sortBy != null && column.getSortType() == TableColumn.SortType.DESCENDING;
+        }
+        bookingsList.sortBy(sortBy, descending);
+    }
+
+    // Booking store index a column sorts by
+    private String sortIndex(TableColumn<Booking, ?> column) {
+        if (column == bookingIdColumn) {
+            return PageQuery.BY_KEY;
+        } else if (column == touristColumn) {
+            return "touristId";
+        } else if (column == packageColumn) {
+            return "packageId";
+        } else if (column == guideColumn) {
+            return "guideId";
+        } else if (column == statusColumn) {
+            return "status";
+        } else if (column == totalAmountColumn) {
+            return "totalAmount";
+        } else if (column == travelDateColumn) {
+            return "travelDate";
         }
+        return null;
+    }
+
+    private void showLoadError(Throwable e) {
+        System.err.println("Error loading bookings for table: " + e.getMessage());
+        e.printStackTrace(); // Print stack trace for more details
+        showStatus("Error loading bookings for table: " + e.getMessage(), false);
     }
 
     private boolean validateInput() {
@@ -0,0 +1,17 @@
+package com.tourism.controllers;
+
+/**
+ * A controller whose view TourismApp keeps after it is first shown, so returning to
+ * the screen reuses the loaded view instead of parsing the FXML and initializing a new
+ * controller.
+ */
+public interface CachedView {
+
+    /**
+     * Called each time the kept view is shown again.
+     *
+     * @param dataChanged true if records were saved or deleted since the view was last
+     *                    on screen; the view reloads what it shows then
+     */
+    void activate(boolean dataChanged);
+}
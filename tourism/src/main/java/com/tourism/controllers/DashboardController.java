@@ -3,27 +3,36 @@ package com.tourism.controllers;
 import com.tourism.TourismApp; // Import TourismApp
 import com.tourism.models.FestivalDiscount;
 import com.tourism.services.BookingService;
+import com.tourism.services.DashboardStats;
 import com.tourism.services.TouristService;
 import com.tourism.services.TourPackageService;
 import com.tourism.services.GuideService;
+import com.tourism.utils.BackupProgress;
+import com.tourism.utils.DomainEvent;
 import com.tourism.utils.FileDataManager;
 import com.tourism.utils.SessionManager;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.Node;
 import javafx.scene.chart.CategoryAxis;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.VBox;
 import javafx.scene.chart.BarChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Button; // Import Button
 
 import java.net.URL;
+import java.text.MessageFormat;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.Locale; // Import Locale
 
-public class DashboardController implements Initializable {
+public class DashboardController implements Initializable, CachedView {
     @FXML
     private BarChart<String, Number> sampleBarChart;
 
@@ -54,6 +63,14 @@ public class DashboardController implements Initializable {
     @FXML private Label totalGuidesTextLabel; // For "Total Guides" text
     @FXML private CategoryAxis chartCategoryAxis; // Add for Chart X-axis label
     @FXML private NumberAxis chartValueAxis; // Add for Chart Y-axis label
+    @FXML private Button backupButton;
+    @FXML private ProgressBar backupProgressBar;
+    @FXML private Button cancelBackupButton;
+    @FXML private Label backupStatusLabel;
+
+    private Task<Boolean> backupTask;
+    private BackgroundLoader loader;
+    private ViewEvents events;
 
     private TouristService touristService;
     private TourPackageService packageService;
@@ -68,6 +85,9 @@ public class DashboardController implements Initializable {
         packageService = new TourPackageService();
         bookingService = new BookingService();
         guideService = new GuideService();
+        loader = new BackgroundLoader(statsContainer); // Loads stop when the view is left
+        // Any data change while the dashboard is showing updates the numbers, at most once per pulse
+        events = new ViewEvents(statsContainer, DomainEvent.class, changes -> loadStatistics());
 
         // Load resource bundle
         bundle = ResourceBundle.getBundle("i18n.messages", TourismApp.getLocale()); // Load bundle using TourismApp's locale
@@ -81,20 +101,18 @@ public class DashboardController implements Initializable {
         // Show dashboard content
         showDashboard();
 
-        XYChart.Series<String, Number> tourists = new XYChart.Series<>();
-        tourists.setName(bundle.getString("dashboard.chart.touristsSeriesName")); // Localize series name
-        tourists.getData().add(new XYChart.Data<>("Jan", 100));
-        tourists.getData().add(new XYChart.Data<>("Feb", 130));
-
-        XYChart.Series<String, Number> bookings = new XYChart.Series<>();
-        bookings.setName(bundle.getString("dashboard.chart.bookingsSeriesName")); // Localize series name
-        bookings.getData().add(new XYChart.Data<>("Jan", 80));
-        bookings.getData().add(new XYChart.Data<>("Feb", 120));
-
-        sampleBarChart.getData().addAll(tourists, bookings);
         sampleBarChart.setTitle(bundle.getString("dashboard.chartTitle")); // Localize chart title
     }
 
+    // Shown again from the scene cache; the statistics are cached by data version, so this is cheap
+    @Override
+    public void activate(boolean dataChanged) {
+        boolean interrupted = loader.wasCancelled();
+        if (dataChanged || interrupted) {
+            updateStatistics();
+        }
+    }
+
     private void applyLocalizedTexts() {
         if (welcomeLabel != null) {
             String username = SessionManager.getCurrentUser() != null ?
@@ -153,86 +171,59 @@ public class DashboardController implements Initializable {
         }
     }
 
+    // Statistics are gathered on a background thread; the labels show "..." until they arrive
     private void updateStatistics() {
-        try {
-            // Update tourist count
-            if (totalTouristsLabel != null) {
-                int totalTourists = getTotalTourists();
-                totalTouristsLabel.setText(String.valueOf(totalTourists));
+        for (Label label : new Label[]{totalTouristsLabel, totalPackagesLabel, totalBookingsLabel,
+                totalGuidesLabel, activeDiscountsLabel}) {
+            if (label != null) {
+                label.setText("...");
             }
+        }
+        loadStatistics();
+    }
 
-            // Update package count
+    // Keeps the current numbers on screen until the new ones arrive
+    private void loadStatistics() {
+        loader.load("statistics", DashboardStats::get, stats -> {
+            if (totalTouristsLabel != null) {
+                totalTouristsLabel.setText(String.valueOf(stats.getTotalTourists()));
+            }
             if (totalPackagesLabel != null) {
-                int totalPackages = getTotalPackages();
-                totalPackagesLabel.setText(String.valueOf(totalPackages));
+                totalPackagesLabel.setText(String.valueOf(stats.getTotalPackages()));
             }
-
-            // Update booking count
             if (totalBookingsLabel != null) {
-                int totalBookings = getTotalBookings();
-                totalBookingsLabel.setText(String.valueOf(totalBookings));
+                totalBookingsLabel.setText(String.valueOf(stats.getTotalBookings()));
             }
-
-            // Update guide count
             if (totalGuidesLabel != null) {
-                int totalGuides = getTotalGuides();
-                totalGuidesLabel.setText(String.valueOf(totalGuides));
+                totalGuidesLabel.setText(String.valueOf(stats.getTotalGuides()));
             }
-
-            // Update active discounts count
             if (activeDiscountsLabel != null) {
-                int activeDiscounts = getActiveDiscounts();
-                activeDiscountsLabel.setText(String.valueOf(activeDiscounts));
+                activeDiscountsLabel.setText(String.valueOf(stats.getActiveDiscounts()));
             }
-
-        } catch (Exception e) {
-            System.err.println("Error updating statistics: " + e.getMessage());
-        }
+            updateChart(stats);
+        }, e -> System.err.println("Error updating statistics: " + e.getMessage()));
     }
 
-    private int getTotalTourists() {
-        try {
-            return touristService.getTotalTouristsCount();
-        } catch (Exception e) {
-            System.err.println("Error getting total tourists: " + e.getMessage());
-            return 0;
+    // New tourists and bookings over the last few months
+    private void updateChart(DashboardStats stats) {
+        if (sampleBarChart == null) {
+            return;
         }
-    }
-
-    private int getTotalPackages() {
-        try {
-            return packageService.getTotalPackagesCount();
-        } catch (Exception e) {
-            System.err.println("Error getting total packages: " + e.getMessage());
-            return 0;
-        }
-    }
+        XYChart.Series<String, Number> tourists = new XYChart.Series<>();
+        tourists.setName(bundle.getString("dashboard.chart.touristsSeriesName")); // Localize series name
+        stats.getTouristsPerMonth().forEach((month, count) ->
+                tourists.getData().add(new XYChart.Data<>(monthLabel(month), count)));
 
-    private int getTotalBookings() {
-        try {
-            return bookingService.getTotalBookingsCount();
-        } catch (Exception e) {
-            System.err.println("Error getting total bookings: " + e.getMessage());
-            return 0;
-        }
-    }
+        XYChart.Series<String, Number> bookings = new XYChart.Series<>();
+        bookings.setName(bundle.getString("dashboard.chart.bookingsSeriesName")); // Localize series name
+        stats.getBookingsPerMonth().forEach((month, count) ->
+                bookings.getData().add(new XYChart.Data<>(monthLabel(month), count)));
 
-    private int getTotalGuides() {
-        try {
-            return guideService.getTotalGuidesCount();
-        } catch (Exception e) {
-            System.err.println("Error getting total guides: " + e.getMessage());
-            return 0;
-        }
+        sampleBarChart.getData().setAll(List.of(tourists, bookings));
     }
 
-    private int getActiveDiscounts() {
-        try {
-            return FileDataManager.getActiveDiscounts().size();
-        } catch (Exception e) {
-            System.err.println("Error getting active discounts: " + e.getMessage());
-            return 0;
-        }
+    private String monthLabel(YearMonth month) {
+        return month.getMonth().getDisplayName(TextStyle.SHORT, TourismApp.getLocale());
     }
 
     @FXML
@@ -312,22 +303,76 @@ public class DashboardController implements Initializable {
         }
     }
 
+    // Runs the backup off the FX thread; the progress bar, status label and Cancel button follow the task
     @FXML
     private void handleCreateBackup() {
         try {
-            boolean success = FileDataManager.createBackup();
-            if (success) {
-                System.out.println("Backup created successfully!");
-                FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(),
-                        "Backup created successfully");
-            } else {
-                System.err.println("Failed to create backup");
+            if (backupTask != null && backupTask.isRunning()) {
+                return;
             }
+            String username = SessionManager.getCurrentUser().getUsername();
+            backupTask = new Task<>() {
+                private final BackupProgress progress = new BackupProgress(p -> {
+                    updateProgress(p.getBytesDone(), Math.max(1, p.getBytesTotal()));
+                    updateMessage(MessageFormat.format(bundle.getString("dashboard.backup.progress"),
+                            p.getFilesDone(), p.getFilesTotal(), p.getBytesDone() / 1024, p.getBytesTotal() / 1024));
+                });
+
+                @Override
+                protected Boolean call() {
+                    return FileDataManager.createBackup(progress);
+                }
+
+                @Override
+                protected void cancelled() {
+                    progress.cancel(); // the backup stops at its next write and discards itself
+                    showBackupResult("dashboard.backup.cancelled");
+                }
+            };
+            backupTask.setOnSucceeded(event -> {
+                if (backupTask.getValue()) {
+                    System.out.println("Backup created successfully!");
+                    FileDataManager.logActivity(username, "Backup created successfully");
+                    showBackupResult("dashboard.backup.done");
+                } else {
+                    System.err.println("Failed to create backup");
+                    showBackupResult("dashboard.backup.failed");
+                }
+            });
+            backupTask.setOnFailed(event -> {
+                System.err.println("Error creating backup: " + backupTask.getException().getMessage());
+                showBackupResult("dashboard.backup.failed");
+            });
+
+            backupProgressBar.progressProperty().bind(backupTask.progressProperty());
+            backupStatusLabel.textProperty().bind(backupTask.messageProperty());
+            for (Node running : List.of(backupProgressBar, cancelBackupButton)) {
+                running.visibleProperty().bind(backupTask.runningProperty());
+                running.managedProperty().bind(backupTask.runningProperty());
+            }
+            backupButton.disableProperty().bind(backupTask.runningProperty());
+
+            Thread worker = new Thread(backupTask, "backup");
+            worker.setDaemon(true);
+            worker.start();
         } catch (Exception e) {
             System.err.println("Error creating backup: " + e.getMessage());
         }
     }
 
+    @FXML
+    private void handleCancelBackup() {
+        if (backupTask != null && backupTask.isRunning()) {
+            backupTask.cancel(false); // no interrupt: it would close the channels mid-write
+        }
+    }
+
+    // Called on the FX thread once the backup task has finished, one way or the other
+    private void showBackupResult(String messageKey) {
+        backupStatusLabel.textProperty().unbind();
+        backupStatusLabel.setText(bundle.getString(messageKey));
+    }
+
     @FXML
     private void handleLogout() {
         try {
@@ -2,6 +2,7 @@ package com.tourism.controllers;
 
 import com.tourism.models.FestivalDiscount;
 import com.tourism.services.FestivalDiscountService;
+import com.tourism.utils.DomainEvent;
 import com.tourism.utils.FileDataManager;
 import com.tourism.utils.SessionManager;
 import javafx.collections.FXCollections;
@@ -12,10 +13,11 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
 
-public class FestivalOfferController implements Initializable {
+public class FestivalOfferController implements Initializable, CachedView {
 
     // FXML elements from festival-offers-management-view.fxml
     @FXML private TextField offerNameField;
@@ -36,11 +38,16 @@ public class FestivalOfferController implements Initializable {
 
     private FestivalDiscountService festivalDiscountService;
     private ObservableList<FestivalDiscount> offersList;
+    private BackgroundLoader loader;
+    private ViewEvents events;
+    private TableRows<FestivalDiscount, String> rows; // keyed row updates, so the table keeps scroll and selection
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         System.out.println("DEBUG: FestivalOfferController initializing...");
         festivalDiscountService = new FestivalDiscountService();
+        loader = new BackgroundLoader(offersTable); // Loads stop when the view is left
+        events = new ViewEvents(offersTable, DomainEvent.class, this::applyEvents); // while the view is showing
 
         setupTable();
         loadOffers();
@@ -50,6 +57,16 @@ public class FestivalOfferController implements Initializable {
         System.out.println("DEBUG: FestivalOfferController initialized.");
     }
 
+    // Shown again from the scene cache: reload only if records changed or the last load was cut short
+    @Override
+    public void activate(boolean dataChanged) {
+        boolean interrupted = loader.wasCancelled();
+        if (dataChanged || interrupted) {
+            loadOffers();
+        }
+        clearStatusMessage();
+    }
+
     private void setupTable() {
         System.out.println("DEBUG: Setting up Offers table columns...");
         if (offerIdColumn != null) {
@@ -66,6 +83,7 @@ public class FestivalOfferController implements Initializable {
         }
 
         offersList = FXCollections.observableArrayList();
+        rows = new TableRows<>(offersTable, offersList, FestivalDiscount::getDiscountId);
         if (offersTable != null) {
             offersTable.setItems(offersList);
             System.out.println("DEBUG: Offers table items set to ObservableList.");
@@ -110,26 +128,20 @@ public class FestivalOfferController implements Initializable {
     }
 
     private void loadOffers() {
-        try {
-            System.out.println("DEBUG: Attempting to load offers into table...");
-            List<FestivalDiscount> offers = festivalDiscountService.getAllDiscounts();
+        System.out.println("DEBUG: Attempting to load offers into table...");
+        loader.load("offers", offersTable, festivalDiscountService::getAllDiscounts, offers -> {
             System.out.println("DEBUG: Offers retrieved from service: " + (offers != null ? offers.size() : "null") + " items.");
-
             if (offersList != null) {
-                offersList.clear();
-                if (offers != null) {
-                    offersList.addAll(offers);
-                }
+                rows.sync(offers != null ? offers : List.of()); // only changed rows are touched
                 System.out.println("DEBUG: Offers ObservableList updated. Current size: " + offersList.size());
             } else {
                 System.err.println("ERROR: offersList is null! Cannot update offers table.");
             }
-
-        } catch (Exception e) {
+        }, e -> {
             System.err.println("Error loading offers for table: " + e.getMessage());
             e.printStackTrace();
             showStatus("Error loading offers: " + e.getMessage(), false);
-        }
+        });
     }
 
     @FXML
@@ -164,7 +176,6 @@ public class FestivalOfferController implements Initializable {
             if (success) {
                 showStatus("Offer added successfully!", true);
                 clearForm();
-                loadOffers();
                 FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(), "Created festival offer: " + newOffer.getFestivalName());
             } else {
                 showStatus("Failed to add offer.", false);
@@ -211,8 +222,6 @@ public class FestivalOfferController implements Initializable {
 
             if (success) {
                 showStatus("Offer updated successfully!", true);
-                clearForm();
-                loadOffers();
                 FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(), "Updated festival offer: " + selectedOffer.getFestivalName());
             } else {
                 showStatus("Failed to update offer.", false);
@@ -244,7 +253,6 @@ public class FestivalOfferController implements Initializable {
                 if (success) {
                     showStatus("Offer deleted successfully!", true);
                     clearForm();
-                    loadOffers();
                     FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(), "Deleted festival offer: " + selectedOffer.getFestivalName());
                 } else {
                     showStatus("Failed to delete offer.", false);
@@ -257,6 +265,31 @@ public class FestivalOfferController implements Initializable {
         }
     }
 
+    // Saves and deletes, from this screen or any other, reach the table here, once per pulse
+    private void applyEvents(List<DomainEvent> events) {
+        if (loader.isLoading("offers")) {
+            loadOffers(); // the load in flight may have read the data before these changes
+            return;
+        }
+        List<String> deleted = new ArrayList<>();
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.DiscountChanged) {
+                DomainEvent.DiscountChanged change = (DomainEvent.DiscountChanged) event;
+                if (change.getDiscount() == null) {
+                    deleted.add(change.getDiscountId());
+                } else {
+                    rows.remove(deleted); // keep the order of a delete followed by a re-save
+                    deleted.clear();
+                    rows.put(change.getDiscount());
+                }
+            } else if (event instanceof DomainEvent.BulkChange && ((DomainEvent.BulkChange) event).affects(FestivalDiscount.class)) {
+                loadOffers();
+                return;
+            }
+        }
+        rows.remove(deleted);
+    }
+
     @FXML
     private void handleClearForm() {
         System.out.println("DEBUG: handleClearForm called.");
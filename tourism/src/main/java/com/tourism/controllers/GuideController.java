@@ -2,6 +2,7 @@ package com.tourism.controllers;
 
 import com.tourism.models.Guide;
 import com.tourism.services.GuideService;
+import com.tourism.utils.DomainEvent;
 import com.tourism.utils.FileDataManager; // Needed for logActivity
 import com.tourism.utils.SessionManager; // Needed for logActivity username
 
@@ -13,10 +14,11 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
 
-public class GuideController implements Initializable {
+public class GuideController implements Initializable, CachedView {
     // FXML elements from guide-management-view.fxml
     @FXML private TextField fullNameField;
     @FXML private TextField emailField;
@@ -41,11 +43,16 @@ public class GuideController implements Initializable {
 
     private GuideService guideService;
     private ObservableList<Guide> guidesList; // ObservableList for the TableView
+    private BackgroundLoader loader;
+    private ViewEvents events;
+    private TableRows<Guide, String> rows; // keyed row updates, so the table keeps scroll and selection
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         System.out.println("DEBUG: GuideController initializing...");
         guideService = new GuideService(); // Initialize the service
+        loader = new BackgroundLoader(guidesTable); // Loads stop when the view is left
+        events = new ViewEvents(guidesTable, DomainEvent.class, this::applyEvents); // while the view is showing
 
         setupTable(); // Setup columns and bind ObservableList
         loadGuides(); // Load data into the table
@@ -55,6 +62,16 @@ public class GuideController implements Initializable {
         System.out.println("DEBUG: GuideController initialized.");
     }
 
+    // Shown again from the scene cache: reload only if records changed or the last load was cut short
+    @Override
+    public void activate(boolean dataChanged) {
+        boolean interrupted = loader.wasCancelled();
+        if (dataChanged || interrupted) {
+            loadGuides();
+        }
+        clearStatusMessage();
+    }
+
     private void setupTable() {
         System.out.println("DEBUG: Setting up Guide table columns...");
         // Set up cell value factories for each column
@@ -78,6 +95,7 @@ public class GuideController implements Initializable {
         }
 
         guidesList = FXCollections.observableArrayList();
+        rows = new TableRows<>(guidesTable, guidesList, Guide::getGuideId);
         if (guidesTable != null) {
             guidesTable.setItems(guidesList); // Bind the ObservableList to the table
             System.out.println("DEBUG: Guides table items set to ObservableList.");
@@ -123,26 +141,20 @@ public class GuideController implements Initializable {
     }
 
     private void loadGuides() {
-        try {
-            System.out.println("DEBUG: Attempting to load guides into table...");
-            List<Guide> guides = guideService.getAllGuides(); // Get all guides from the service
+        System.out.println("DEBUG: Attempting to load guides into table...");
+        loader.load("guides", guidesTable, guideService::getAllGuides, guides -> {
             System.out.println("DEBUG: Guides retrieved from service: " + (guides != null ? guides.size() : "null") + " items.");
-
             if (guidesList != null) {
-                guidesList.clear(); // Clear existing items
-                if (guides != null) {
-                    guidesList.addAll(guides); // Add new items
-                }
+                rows.sync(guides != null ? guides : List.of()); // only changed rows are touched
                 System.out.println("DEBUG: Guide ObservableList updated. Current size: " + guidesList.size());
             } else {
                 System.err.println("ERROR: guidesList is null! Cannot update guide table.");
             }
-
-        } catch (Exception e) {
+        }, e -> {
             System.err.println("Error loading guides for table: " + e.getMessage());
             e.printStackTrace();
             showStatus("Error loading guides: " + e.getMessage(), false);
-        }
+        });
     }
 
     // Placeholder methods for form actions
@@ -167,7 +179,6 @@ public class GuideController implements Initializable {
             if (success) {
                 showStatus("Guide added successfully!", true);
                 clearForm();
-                loadGuides(); // Refresh table
                 FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(), "Created guide: " + newGuide.getFullName());
             } else {
                 showStatus("Failed to add guide.", false);
@@ -200,8 +211,6 @@ public class GuideController implements Initializable {
 
             if (success) {
                 showStatus("Guide updated successfully!", true);
-                clearForm();
-                loadGuides(); // Refresh table
                 FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(), "Updated guide: " + selectedGuide.getFullName());
             } else {
                 showStatus("Failed to update guide.", false);
@@ -233,7 +242,6 @@ public class GuideController implements Initializable {
                 if (success) {
                     showStatus("Guide deleted successfully!", true);
                     clearForm();
-                    loadGuides(); // Refresh table
                     FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(), "Deleted guide: " + selectedGuide.getFullName());
                 } else {
                     showStatus("Failed to delete guide.", false);
@@ -246,6 +254,28 @@ public class GuideController implements Initializable {
         }
     }
 
+    // Saves and deletes, from this screen or any other, reach the table here, once per pulse
+    private void applyEvents(List<DomainEvent> events) {
+        if (loader.isLoading("guides")) {
+            loadGuides(); // the load in flight may have read the data before these changes
+            return;
+        }
+        List<String> deleted = new ArrayList<>();
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.GuideSaved) {
+                rows.remove(deleted); // keep the order of a delete followed by a re-save
+                deleted.clear();
+                rows.put(((DomainEvent.GuideSaved) event).getGuide());
+            } else if (event instanceof DomainEvent.GuideDeleted) {
+                deleted.add(((DomainEvent.GuideDeleted) event).getGuideId());
+            } else if (event instanceof DomainEvent.BulkChange && ((DomainEvent.BulkChange) event).affects(Guide.class)) {
+                loadGuides();
+                return;
+            }
+        }
+        rows.remove(deleted);
+    }
+
     @FXML
     private void handleClearForm() {
         System.out.println("DEBUG: handleClearForm called.");
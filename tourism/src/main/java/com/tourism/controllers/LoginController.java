@@ -152,6 +152,11 @@ public class LoginController implements Initializable {
                 // Route based on user role
                 if (user.isAdmin()) {
                     TourismApp.switchScene("/fxml/dashboard.fxml", "Admin Dashboard");
+                    // Build the screens the dashboard leads to while the admin reads it
+                    TourismApp.preloadScenes("/fxml/tourist-management-view.fxml",
+                            "/fxml/booking-management-view.fxml",
+                            "/fxml/guide-management-view.fxml",
+                            "/fxml/festival-offers-management-view.fxml");
                 } else if (user.isStaff()) {
                     TourismApp.switchScene("/fxml/staff-home.fxml", "Staff Dashboard");
                 }
@@ -0,0 +1,335 @@
+package com.tourism.controllers;
+
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A table's items, read from storage one page at a time.
+ * <p>
+ * The list reports the full record count as its size, but only holds the last few
+ * pages the table asked for; a row whose page has not arrived yet reads as null
+ * (an empty row) and is redrawn once it has. Reading a row in the second half of a
+ * page fetches the next page ahead of time, so scrolling down rarely shows empty
+ * rows. Memory use depends on the page size, not on how many records there are.
+ * <p>
+ * Sorting is done by the source, not the table: {@link #sortBy} hands the sort key
+ * and direction to every page read. A row that is not loaded can still be resolved
+ * by its index through {@link #rowsAt}, e.g. for the selection.
+ * <p>
+ * Use from the FX thread only.
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+
+    /** Where the rows come from; called on a background thread. */
+    public interface Source<T> {
+        int count();
+
+        /**
+         * At most {@code limit} rows from {@code offset} on, in the order of the given
+         * sort key (null for storage order).
+         */
+        List<T> page(int offset, int limit, String sortBy, boolean descending);
+    }
+
+    /** Runs a read off the FX thread and hands its result back on it; see {@link BackgroundLoader}. */
+    interface Loads {
+        <R> void load(String key, boolean showSpinner, Callable<R> work, Consumer<R> onLoaded,
+                      Consumer<Throwable> onFailed);
+    }
+
+    private final Loads loads;
+    private final String name; // prefix of the loader keys
+    private final int pageSize;
+    private final Function<T, String> keyOf;
+    private final Consumer<Throwable> onFailed;
+    private final Map<Integer, List<T>> pages; // page number -> rows, least recently read first
+    private final Set<Integer> requested = new HashSet<>();
+    private Source<T> source;
+    private String sortBy;
+    private boolean descending;
+    private int size;
+    private long generation; // bumped on every reload; older page results are dropped
+
+    public PagedList(TableView<T> table, BackgroundLoader loader, String name, int pageSize, int maxPages,
+                     Function<T, String> keyOf, Consumer<Throwable> onFailed) {
+        this(new Loads() {
+            @Override
+            public <R> void load(String key, boolean showSpinner, Callable<R> work, Consumer<R> onLoaded,
+                                 Consumer<Throwable> onFailedLoad) {
+                if (showSpinner) {
+                    loader.load(key, table, work, onLoaded, onFailedLoad);
+                } else {
+                    loader.load(key, work, onLoaded, onFailedLoad);
+                }
+            }
+        }, name, pageSize, maxPages, keyOf, onFailed);
+    }
+
+    PagedList(Loads loads, String name, int pageSize, int maxPages, Function<T, String> keyOf,
+              Consumer<Throwable> onFailed) {
+        this.loads = loads;
+        this.name = name;
+        this.pageSize = pageSize;
+        this.keyOf = keyOf;
+        this.onFailed = onFailed;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /** Switches to a new source (e.g. another filter) and starts again from the top. */
+    public void setSource(Source<T> source) {
+        this.source = source;
+        reload();
+    }
+
+    /**
+     * Orders the rows by the given sort key (null for storage order) and starts again
+     * from the top; the source does the sorting.
+     */
+    public void sortBy(String sortBy, boolean descending) {
+        boolean changed = !Objects.equals(this.sortBy, sortBy) || this.descending != descending;
+        this.sortBy = sortBy;
+        this.descending = descending;
+        if (changed && source != null) {
+            reload();
+        }
+    }
+
+    private void reload() {
+        Source<T> current = source;
+        String sort = sortBy;
+        boolean reverse = descending;
+        long loading = ++generation;
+        requested.clear();
+        loads.load(name + "-count", true, () -> new FirstPage<>(current.count(), current.page(0, pageSize, sort, reverse)),
+                first -> {
+                    if (loading != generation) {
+                        return;
+                    }
+                    pages.clear();
+                    pages.put(0, first.rows);
+                    int oldSize = size;
+                    size = first.count;
+                    beginChange();
+                    if (oldSize > 0) {
+                        nextRemove(0, Collections.nCopies(oldSize, (T) null));
+                    }
+                    if (size > 0) {
+                        nextAdd(0, size);
+                    }
+                    endChange();
+                }, onFailed);
+    }
+
+    /**
+     * Re-reads the count and the pages the table has been showing, after records were
+     * added or removed. Rows are redrawn in place, so scroll position and selection stay.
+     */
+    public void refresh() {
+        if (source == null) {
+            return;
+        }
+        Source<T> current = source;
+        long loading = ++generation;
+        requested.clear();
+        List<Integer> shown = new ArrayList<>(pages.keySet());
+        loads.load(name + "-count", true, current::count, count -> {
+            if (loading != generation) {
+                return;
+            }
+            pages.clear();
+            int oldSize = size;
+            size = count;
+            if (size != oldSize) {
+                beginChange();
+                if (size > oldSize) {
+                    nextAdd(oldSize, size);
+                } else {
+                    nextRemove(size, Collections.nCopies(oldSize - size, (T) null));
+                }
+                endChange();
+            }
+            for (int page : shown) {
+                if (page * pageSize < size) {
+                    request(page);
+                }
+            }
+        }, onFailed);
+    }
+
+    /** Redraws the row of a changed record, if its page is loaded. */
+    public void put(T record) {
+        String key = keyOf.apply(record);
+        for (Map.Entry<Integer, List<T>> page : pages.entrySet()) {
+            List<T> rows = page.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (Objects.equals(keyOf.apply(rows.get(i)), key)) {
+                    rows.set(i, record);
+                    int index = page.getKey() * pageSize + i;
+                    if (index < size) {
+                        beginChange();
+                        nextUpdate(index);
+                        endChange();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands the records at the given row indexes to {@code action}, reading the pages
+     * that are not loaded (or were evicted) through the source first. Indexes out of
+     * range are skipped. If the list is reloaded in the meantime the indexes no longer
+     * mean the same rows, and {@code action} gets an empty list.
+     */
+    public void rowsAt(List<Integer> indexes, Consumer<List<T>> action) {
+        Set<Integer> missing = new TreeSet<>();
+        for (int index : indexes) {
+            if (index >= 0 && index < size && !pages.containsKey(index / pageSize)) {
+                missing.add(index / pageSize);
+            }
+        }
+        if (missing.isEmpty() || source == null) {
+            action.accept(rows(indexes, Map.of()));
+            return;
+        }
+        Source<T> current = source;
+        String sort = sortBy;
+        boolean reverse = descending;
+        long loading = generation;
+        loads.load(name + "-rows", false, () -> {
+            Map<Integer, List<T>> read = new LinkedHashMap<>();
+            for (int page : missing) {
+                read.put(page, current.page(page * pageSize, pageSize, sort, reverse));
+            }
+            return read;
+        }, read -> {
+            if (loading != generation) {
+                action.accept(List.of());
+                return;
+            }
+            List<T> rows = rows(indexes, read);
+            read.forEach(this::loaded);
+            action.accept(rows);
+        }, onFailed);
+    }
+
+    private List<T> rows(List<Integer> indexes, Map<Integer, List<T>> read) {
+        List<T> rows = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            if (index < 0 || index >= size) {
+                continue;
+            }
+            List<T> page = read.containsKey(index / pageSize) ? read.get(index / pageSize) : pages.get(index / pageSize);
+            int row = index % pageSize;
+            if (page != null && row < page.size()) {
+                rows.add(page.get(row));
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        int page = index / pageSize;
+        int row = index % pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            request(page);
+            return null;
+        }
+        if (row >= pageSize / 2 && (page + 1) * pageSize < size && !pages.containsKey(page + 1)) {
+            request(page + 1); // prefetch while the user scrolls towards it
+        }
+        return row < rows.size() ? rows.get(row) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Looks at loaded pages only; searching the rest would read every page. */
+    @Override
+    public int indexOf(Object o) {
+        for (Map.Entry<Integer, List<T>> page : pages.entrySet()) {
+            int i = page.getValue().indexOf(o);
+            if (i >= 0) {
+                return page.getKey() * pageSize + i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o); // records are unique
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    private void request(int page) {
+        if (source == null || !requested.add(page)) {
+            return;
+        }
+        Source<T> current = source;
+        String sort = sortBy;
+        boolean reverse = descending;
+        long loading = generation;
+        loads.load(name + "-page-" + page, false, () -> current.page(page * pageSize, pageSize, sort, reverse), rows -> {
+            if (loading != generation) {
+                return;
+            }
+            requested.remove(page);
+            loaded(page, rows);
+        }, e -> {
+            requested.remove(page);
+            onFailed.accept(e);
+        });
+    }
+
+    private void loaded(int page, List<T> rows) {
+        pages.put(page, rows);
+        int from = page * pageSize;
+        int to = Math.min(size, from + rows.size());
+        if (from < to) {
+            beginChange();
+            for (int i = from; i < to; i++) {
+                nextUpdate(i); // the table redraws these rows with the loaded records
+            }
+            endChange();
+        }
+    }
+
+    private static final class FirstPage<T> {
+        final int count;
+        final List<T> rows;
+
+        FirstPage(int count, List<T> rows) {
+            this.count = count;
+            this.rows = rows;
+        }
+    }
+}
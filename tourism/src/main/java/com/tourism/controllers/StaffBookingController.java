@@ -58,6 +58,7 @@ public class StaffBookingController implements Initializable {
     private TouristService touristService;
     private TourPackageService packageService;
     private GuideService guideService; // Though not directly used in this form, good to have for consistency
+    private BackgroundLoader loader;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -67,6 +68,7 @@ public class StaffBookingController implements Initializable {
         touristService = new TouristService();
         packageService = new TourPackageService();
         guideService = new GuideService(); // Initialize guide service
+        loader = new BackgroundLoader(attractionsComboBox); // Loads stop when the view is left
 
         // Setup toggle group for package types
         packageTypeToggleGroup = new ToggleGroup();
@@ -131,10 +133,16 @@ public class StaffBookingController implements Initializable {
                 countryComboBox.setItems(countries);
             }
 
-            // Load tour packages into attractionsComboBox
+            // Load tour packages into attractionsComboBox, in the background
             if (attractionsComboBox != null) {
-                List<TourPackage> packages = packageService.getAllPackages();
-                attractionsComboBox.setItems(FXCollections.observableArrayList(packages));
+                attractionsComboBox.setPromptText("Loading...");
+                loader.load("packages", packageService::getAllPackages, packages -> {
+                    attractionsComboBox.setItems(FXCollections.observableArrayList(packages));
+                    attractionsComboBox.setPromptText(null);
+                }, e -> {
+                    System.err.println("Error loading combo box data: " + e.getMessage());
+                    showAlert("Error loading data: " + e.getMessage());
+                });
                 // Set a cell factory to display package name instead of object reference
                 attractionsComboBox.setCellFactory(lv -> new ListCell<TourPackage>() {
                     @Override
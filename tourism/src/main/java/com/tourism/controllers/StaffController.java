@@ -5,13 +5,13 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
-import javafx.stage.Stage;
+import com.tourism.TourismApp;
 import com.tourism.models.User;
 import com.tourism.utils.SessionManager;
 
 import java.io.IOException;
 
-public class StaffController {
+public class StaffController implements CachedView {
 
     @FXML private Label staffWelcomeLabel;
     @FXML private Button staffLogoutButton;
@@ -30,6 +30,12 @@ public class StaffController {
         // The contentArea will now be empty initially, showing the default message from FXML.
     }
 
+    // Shown again from the scene cache; the loaded content keeps its own state
+    @Override
+    public void activate(boolean dataChanged) {
+        setupStaffDashboard();
+    }
+
     private void setupStaffDashboard() {
         User currentUser = SessionManager.getCurrentUser();
         if (currentUser != null) {
@@ -51,29 +57,15 @@ public class StaffController {
     @FXML
     private void handleLogout() {
         SessionManager.clearSession();
-        // Switch to login scene
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/login.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) staffLogoutButton.getScene().getWindow();
-            stage.getScene().setRoot(root);
-        } catch (IOException e) {
-            showAlert("Failed to load login scene: " + e.getMessage());
-        }
+        // Switch to login scene; the staff scene itself is kept by TourismApp, so its root is not replaced
+        TourismApp.switchScene("/fxml/login.fxml", "Login");
     }
 
     // New method to handle "Back to Login" button
     @FXML
     private void handleBackToLogin() {
         SessionManager.clearSession(); // Clear session on going back to login
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/login.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) backButton.getScene().getWindow(); // Use backButton to get stage
-            stage.getScene().setRoot(root);
-        } catch (IOException e) {
-            showAlert("Failed to load login scene: " + e.getMessage());
-        }
+        TourismApp.switchScene("/fxml/login.fxml", "Login");
     }
 
 
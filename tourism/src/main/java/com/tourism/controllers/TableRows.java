@@ -0,0 +1,148 @@
+package com.tourism.controllers;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Keeps a table's rows in step with the data by key, one row at a time.
+ * <p>
+ * After a create, update or delete the controller passes the changed record(s) here
+ * instead of reloading everything, so only those rows are touched and the table
+ * keeps its scroll position and selection. {@link #sync} does the same for a full
+ * reload: rows are removed, inserted or replaced individually rather than cleared.
+ * <p>
+ * Use from the FX thread only.
+ */
+public class TableRows<T, K> {
+
+    private final TableView<T> table;
+    private final ObservableList<T> items;
+    private final Function<T, K> keyOf;
+    private Map<K, Integer> positions; // row index by key; null until needed or after rows shifted
+
+    /** @param table may be null; then only the list is updated */
+    public TableRows(TableView<T> table, ObservableList<T> items, Function<T, K> keyOf) {
+        this.table = table;
+        this.items = items;
+        this.keyOf = keyOf;
+        items.addListener(this::onChange);
+    }
+
+    /** Adds a new record at the end, or replaces the row showing its key in place. */
+    public void put(T record) {
+        int index = indexOf(keyOf.apply(record));
+        if (index < 0) {
+            items.add(record);
+        } else {
+            replaceAt(index, record);
+        }
+    }
+
+    /** Removes the rows of the given keys, in one list change. */
+    public void remove(Collection<K> keys) {
+        Set<K> removed = new HashSet<>(keys);
+        items.removeIf(row -> removed.contains(keyOf.apply(row)));
+    }
+
+    /**
+     * Brings the rows in line with a freshly loaded list. Rows are removed, inserted
+     * and replaced where they differ; if the order of the remaining rows changed, the
+     * list is replaced as a whole.
+     */
+    public void sync(List<T> fresh) {
+        Map<K, T> freshByKey = new HashMap<>();
+        for (T record : fresh) {
+            freshByKey.put(keyOf.apply(record), record);
+        }
+        items.removeIf(row -> !freshByKey.containsKey(keyOf.apply(row)));
+
+        // Rows still shown must appear in the same relative order in the new list
+        List<K> kept = new ArrayList<>(items.size());
+        for (T row : items) {
+            kept.add(keyOf.apply(row));
+        }
+        int next = 0;
+        for (T record : fresh) {
+            if (next < kept.size() && Objects.equals(kept.get(next), keyOf.apply(record))) {
+                next++;
+            }
+        }
+        if (next != kept.size()) {
+            items.setAll(fresh);
+            return;
+        }
+
+        boolean sameRecordsShown = false;
+        for (int i = 0; i < fresh.size(); i++) {
+            T record = fresh.get(i);
+            if (i < items.size() && Objects.equals(keyOf.apply(items.get(i)), keyOf.apply(record))) {
+                if (items.get(i) != record) {
+                    replaceAt(i, record);
+                } else {
+                    sameRecordsShown = true; // may have been edited in place
+                }
+            } else {
+                items.add(i, record);
+            }
+        }
+        if (sameRecordsShown && table != null) {
+            table.refresh(); // redraws the visible cells only
+        }
+    }
+
+    private void replaceAt(int index, T record) {
+        boolean selected = table != null && table.getSelectionModel().isSelected(index);
+        items.set(index, record);
+        if (selected && !table.getSelectionModel().isSelected(index)) {
+            table.getSelectionModel().select(index);
+        }
+    }
+
+    private int indexOf(K key) {
+        if (positions == null) {
+            positions = new HashMap<>();
+            for (int i = 0; i < items.size(); i++) {
+                positions.putIfAbsent(keyOf.apply(items.get(i)), i);
+            }
+        }
+        Integer index = positions.get(key);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Keeps {@link #positions} current through appends and in-place replacements (what
+     * {@link #put} does); any change that shifts rows drops it, to be rebuilt on the
+     * next lookup.
+     */
+    private void onChange(ListChangeListener.Change<? extends T> change) {
+        while (positions != null && change.next()) {
+            int from = change.getFrom();
+            boolean inPlace = change.wasReplaced() && change.getRemovedSize() == change.getAddedSize();
+            boolean appended = change.wasAdded() && !change.wasRemoved() && change.getTo() == change.getList().size();
+            if (change.wasPermutated() || !(inPlace || appended || change.wasUpdated())) {
+                positions = null;
+                return;
+            }
+            if (inPlace) {
+                List<? extends T> removed = change.getRemoved();
+                for (int i = 0; i < removed.size(); i++) {
+                    positions.remove(keyOf.apply(removed.get(i)), from + i);
+                }
+            }
+            for (int i = from; i < change.getTo(); i++) {
+                positions.putIfAbsent(keyOf.apply(change.getList().get(i)), i);
+            }
+        }
+    }
+}
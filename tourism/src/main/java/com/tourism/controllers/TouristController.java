@@ -2,6 +2,7 @@ package com.tourism.controllers;
 
 import com.tourism.models.Tourist;
 import com.tourism.services.TouristService;
+import com.tourism.utils.DomainEvent;
 import com.tourism.utils.FileDataManager; // Needed for logActivity
 import com.tourism.utils.SessionManager; // Needed for logActivity username
 
@@ -13,10 +14,11 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
 
-public class TouristController implements Initializable {
+public class TouristController implements Initializable, CachedView {
 
     // FXML elements from tourist-management-view.fxml
     @FXML private TextField fullNameField;
@@ -42,11 +44,16 @@ public class TouristController implements Initializable {
 
     private TouristService touristService;
     private ObservableList<Tourist> touristsList; // ObservableList for the TableView
+    private BackgroundLoader loader;
+    private ViewEvents events;
+    private TableRows<Tourist, String> rows; // keyed row updates, so the table keeps scroll and selection
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         System.out.println("DEBUG: TouristController initializing...");
         touristService = new TouristService(); // Initialize the service
+        loader = new BackgroundLoader(touristsTable); // Loads stop when the view is left
+        events = new ViewEvents(touristsTable, DomainEvent.class, this::applyEvents); // while the view is showing
 
         setupTable(); // Setup columns and bind ObservableList
         loadTourists(); // Load data into the table
@@ -56,6 +63,16 @@ public class TouristController implements Initializable {
         System.out.println("DEBUG: TouristController initialized.");
     }
 
+    // Shown again from the scene cache: reload only if records changed or the last load was cut short
+    @Override
+    public void activate(boolean dataChanged) {
+        boolean interrupted = loader.wasCancelled();
+        if (dataChanged || interrupted) {
+            loadTourists();
+        }
+        clearStatusMessage();
+    }
+
     private void setupTable() {
         System.out.println("DEBUG: Setting up Tourist table columns...");
         // Set up cell value factories for each column
@@ -79,6 +96,7 @@ public class TouristController implements Initializable {
         }
 
         touristsList = FXCollections.observableArrayList();
+        rows = new TableRows<>(touristsTable, touristsList, Tourist::getTouristId);
         if (touristsTable != null) {
             touristsTable.setItems(touristsList); // Bind the ObservableList to the table
             System.out.println("DEBUG: Tourists table items set to ObservableList.");
@@ -111,6 +129,7 @@ public class TouristController implements Initializable {
 
         // Add listener for table row selection to populate the form
         if (touristsTable != null) {
+            touristsTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE); // Ctrl/Shift-click for bulk delete
             touristsTable.getSelectionModel().selectedItemProperty().addListener(
                 (observable, oldValue, newValue) -> {
                     if (newValue != null) {
@@ -122,27 +141,22 @@ public class TouristController implements Initializable {
         System.out.println("DEBUG: Tourist Event handlers setup complete.");
     }
 
+    // Reads run on a background thread; the table shows a spinner until the first load lands
     private void loadTourists() {
-        try {
-            System.out.println("DEBUG: Attempting to load tourists into table...");
-            List<Tourist> tourists = touristService.getAllTourists(); // Get all tourists from the service
+        System.out.println("DEBUG: Attempting to load tourists into table...");
+        loader.load("tourists", touristsTable, touristService::getAllTourists, tourists -> {
             System.out.println("DEBUG: Tourists retrieved from service: " + (tourists != null ? tourists.size() : "null") + " items.");
-
             if (touristsList != null) {
-                touristsList.clear(); // Clear existing items
-                if (tourists != null) {
-                    touristsList.addAll(tourists); // Add new items
-                }
+                rows.sync(tourists != null ? tourists : List.of()); // only changed rows are touched
                 System.out.println("DEBUG: Tourist ObservableList updated. Current size: " + touristsList.size());
             } else {
                 System.err.println("ERROR: touristsList is null! Cannot update tourist table.");
             }
-
-        } catch (Exception e) {
+        }, e -> {
             System.err.println("Error loading tourists for table: " + e.getMessage());
             e.printStackTrace();
             showStatus("Error loading tourists: " + e.getMessage(), false);
-        }
+        });
     }
 
     // Placeholder methods for form actions
@@ -167,7 +181,6 @@ public class TouristController implements Initializable {
             if (success) {
                 showStatus("Tourist added successfully!", true);
                 clearForm();
-                loadTourists(); // Refresh table
                 FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(), "Created tourist: " + newTourist.getFullName());
             } else {
                 showStatus("Failed to add tourist.", false);
@@ -200,8 +213,6 @@ public class TouristController implements Initializable {
 
             if (success) {
                 showStatus("Tourist updated successfully!", true);
-                clearForm();
-                loadTourists(); // Refresh table
                 FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(), "Updated tourist: " + selectedTourist.getFullName());
             } else {
                 showStatus("Failed to update tourist.", false);
@@ -216,25 +227,33 @@ public class TouristController implements Initializable {
     @FXML
     private void handleDeleteTourist() {
         System.out.println("DEBUG: handleDeleteTourist called.");
-        Tourist selectedTourist = touristsTable.getSelectionModel().getSelectedItem();
-        if (selectedTourist == null) {
+        List<Tourist> selectedTourists = new ArrayList<>(touristsTable.getSelectionModel().getSelectedItems());
+        if (selectedTourists.isEmpty()) {
             showStatus("Please select a tourist to delete.", false);
             return;
         }
 
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Confirm Deletion");
-        alert.setHeaderText("Delete Tourist");
-        alert.setContentText("Are you sure you want to delete this tourist: " + selectedTourist.getFullName() + "?");
+        alert.setHeaderText(selectedTourists.size() == 1 ? "Delete Tourist" : "Delete Tourists");
+        alert.setContentText(selectedTourists.size() == 1
+                ? "Are you sure you want to delete this tourist: " + selectedTourists.get(0).getFullName() + "?"
+                : "Are you sure you want to delete these " + selectedTourists.size() + " tourists?");
 
         if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
             try {
-                boolean success = touristService.deleteTourist(selectedTourist.getTouristId());
-                if (success) {
-                    showStatus("Tourist deleted successfully!", true);
+                // One batch delete, so the data file is written once however many rows are selected
+                List<String> touristIds = new ArrayList<>();
+                for (Tourist tourist : selectedTourists) {
+                    touristIds.add(tourist.getTouristId());
+                }
+                int deleted = touristService.deleteTourists(touristIds);
+                if (deleted > 0) {
+                    showStatus(deleted == 1 ? "Tourist deleted successfully!" : deleted + " tourists deleted successfully!", true);
                     clearForm();
-                    loadTourists(); // Refresh table
-                    FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(), "Deleted tourist: " + selectedTourist.getFullName());
+                    for (Tourist tourist : selectedTourists) {
+                        FileDataManager.logActivity(SessionManager.getCurrentUser().getUsername(), "Deleted tourist: " + tourist.getFullName());
+                    }
                 } else {
                     showStatus("Failed to delete tourist.", false);
                 }
@@ -246,6 +265,28 @@ public class TouristController implements Initializable {
         }
     }
 
+    // Saves and deletes, from this screen or any other, reach the table here, once per pulse
+    private void applyEvents(List<DomainEvent> events) {
+        if (loader.isLoading("tourists")) {
+            loadTourists(); // the load in flight may have read the data before these changes
+            return;
+        }
+        List<String> deleted = new ArrayList<>();
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.TouristSaved) {
+                rows.remove(deleted); // keep the order of a delete followed by a re-save
+                deleted.clear();
+                rows.put(((DomainEvent.TouristSaved) event).getTourist());
+            } else if (event instanceof DomainEvent.TouristDeleted) {
+                deleted.add(((DomainEvent.TouristDeleted) event).getTouristId());
+            } else if (event instanceof DomainEvent.BulkChange && ((DomainEvent.BulkChange) event).affects(Tourist.class)) {
+                loadTourists();
+                return;
+            }
+        }
+        rows.remove(deleted);
+    }
+
     @FXML
     private void handleClearForm() {
         System.out.println("DEBUG: handleClearForm called.");
@@ -0,0 +1,76 @@
+package com.tourism.controllers;
+
+import com.tourism.utils.DomainEvent;
+import com.tourism.utils.EventBus;
+import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Hands a view the {@link DomainEvent}s it cares about on the FX thread, at most once
+ * per pulse.
+ * <p>
+ * Events published in between, from any thread, are collected and passed on together,
+ * so a burst of writes leads to one update of the view rather than one per record.
+ * Events are only listened to while the owner node is in a showing window; a cached
+ * view shown again catches up through {@link CachedView#activate} instead.
+ */
+public class ViewEvents {
+
+    private final Class<? extends DomainEvent> type;
+    private final Consumer<List<DomainEvent>> onEvents;
+    private final Queue<DomainEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ObservableValue<Window> window; // kept: the listener below hangs off it
+    private Runnable unsubscribe;
+
+    /**
+     * @param owner    any node of the view
+     * @param type     events to receive, e.g. {@code DomainEvent.class} for all of them
+     * @param onEvents gets the events of one pulse, oldest first
+     */
+    public ViewEvents(Node owner, Class<? extends DomainEvent> type, Consumer<List<DomainEvent>> onEvents) {
+        this.type = type;
+        this.onEvents = onEvents;
+        this.window = owner.sceneProperty().flatMap(Scene::windowProperty);
+        window.addListener((obs, oldWindow, newWindow) -> listen(newWindow != null));
+        listen(window.getValue() != null);
+    }
+
+    private void listen(boolean showing) {
+        if (showing && unsubscribe == null) {
+            unsubscribe = EventBus.subscribe(type, this::queue);
+        } else if (!showing && unsubscribe != null) {
+            unsubscribe.run();
+            unsubscribe = null;
+            pending.clear();
+        }
+    }
+
+    private void queue(DomainEvent event) {
+        pending.add(event);
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::deliver);
+        }
+    }
+
+    private void deliver() {
+        scheduled.set(false); // events from here on go into the next batch
+        List<DomainEvent> events = new ArrayList<>();
+        for (DomainEvent event; (event = pending.poll()) != null; ) {
+            events.add(event);
+        }
+        if (!events.isEmpty() && unsubscribe != null) {
+            onEvents.accept(events);
+        }
+    }
+}
@@ -36,6 +36,23 @@ public class Booking {
         this.paymentStatus = "PENDING";
     }
 
+    // Copy constructor
+    public Booking(Booking other) {
+        this.bookingId = other.bookingId;
+        this.touristId = other.touristId;
+        this.packageId = other.packageId;
+        this.guideId = other.guideId;
+        this.bookingDate = other.bookingDate;
+        this.travelDate = other.travelDate;
+        this.status = other.status;
+        this.totalAmount = other.totalAmount;
+        this.numberOfPeople = other.numberOfPeople;
+        this.specialRequests = other.specialRequests;
+        this.paymentStatus = other.paymentStatus;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getters and Setters
     public String getBookingId() {
         return bookingId;
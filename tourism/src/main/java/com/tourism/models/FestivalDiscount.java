@@ -26,6 +26,17 @@ public class FestivalDiscount {
         this.active = true;
     }
 
+    // Copy constructor
+    public FestivalDiscount(FestivalDiscount other) {
+        this.discountId = other.discountId;
+        this.festivalName = other.festivalName;
+        this.discountPercentage = other.discountPercentage;
+        this.startDate = other.startDate;
+        this.endDate = other.endDate;
+        this.active = other.active;
+        this.description = other.description;
+    }
+
     // Getters and Setters
     public String getDiscountId() {
         return discountId;
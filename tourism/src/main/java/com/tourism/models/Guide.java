@@ -30,6 +30,20 @@ public class Guide {
         this.registrationDate = LocalDateTime.now();
     }
 
+    // Copy constructor
+    public Guide(Guide other) {
+        this.guideId = other.guideId;
+        this.fullName = other.fullName;
+        this.email = other.email;
+        this.phoneNumber = other.phoneNumber;
+        this.specialization = other.specialization;
+        this.experienceYears = other.experienceYears;
+        this.active = other.active;
+        this.registrationDate = other.registrationDate;
+        this.licenseNumber = other.licenseNumber;
+        this.languages = other.languages;
+    }
+
     // Getters and Setters
     public String getGuideId() {
         return guideId;
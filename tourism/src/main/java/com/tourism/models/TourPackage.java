@@ -52,6 +52,23 @@ public class TourPackage {
         this.category = category;
     }
 
+    // Copy constructor
+    public TourPackage(TourPackage other) {
+        this.packageId = other.packageId;
+        this.name = other.name;
+        this.description = other.description;
+        this.price = other.price;
+        this.durationDays = other.durationDays;
+        this.type = other.type;
+        this.destination = other.destination;
+        this.difficulty = other.difficulty;
+        this.season = other.season;
+        this.maxParticipants = other.maxParticipants;
+        this.maxAltitude = other.maxAltitude;
+        this.category = other.category;
+        this.active = other.active;
+    }
+
     // Getters and Setters
     public String getPackageId() { return packageId; }
     public void setPackageId(String packageId) { this.packageId = packageId; }
@@ -46,6 +46,20 @@ public class Tourist {
     }
 
 
+    // Copy constructor
+    public Tourist(Tourist other) {
+        this.touristId = other.touristId;
+        this.accountId = other.accountId;
+        this.fullName = other.fullName;
+        this.email = other.email;
+        this.phoneNumber = other.phoneNumber;
+        this.nationality = other.nationality;
+        this.address = other.address;
+        this.active = other.active;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getters and Setters
     public String getTouristId() { return touristId; }
     public void setTouristId(String touristId) { this.touristId = touristId; }
@@ -28,6 +28,19 @@ public class User {
         this.createdAt = LocalDateTime.now();
     }
 
+    // Copy constructor
+    public User(User other) {
+        this.userId = other.userId;
+        this.username = other.username;
+        this.password = other.password;
+        this.role = other.role;
+        this.fullName = other.fullName;
+        this.adminLevel = other.adminLevel;
+        this.active = other.active;
+        this.createdAt = other.createdAt;
+        this.lastLogin = other.lastLogin;
+    }
+
     // Getters and Setters
     public String getUserId() {
         return userId;
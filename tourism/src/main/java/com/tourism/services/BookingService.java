@@ -4,18 +4,25 @@ import com.tourism.models.Booking;
 import com.tourism.models.Tourist;
 import com.tourism.models.TourPackage;
 import com.tourism.utils.FileDataManager;
+import com.tourism.utils.PageQuery;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class BookingService {
 
     public boolean createBooking(String touristId, String packageId, String guideId,
                                  LocalDateTime travelDate, int numberOfPeople, String specialRequests) {
+        return createBookingAndGet(touristId, packageId, guideId, travelDate, numberOfPeople, specialRequests) != null;
+    }
+
+    /** Like {@link #createBooking}, but returns the saved booking, or null if it could not be saved. */
+    public Booking createBookingAndGet(String touristId, String packageId, String guideId,
+                                       LocalDateTime travelDate, int numberOfPeople, String specialRequests) {
         try {
             // Generate unique booking ID
-            String bookingId = generateBookingId();
+            String bookingId = new UniqueIds(this::generateBookingId, FileDataManager::bookingExists).next();
 
             // Create new booking
             Booking booking = new Booking();
@@ -41,12 +48,12 @@ public class BookingService {
                 FileDataManager.logActivity("SYSTEM", "Booking created: " + bookingId);
             }
 
-            return saved;
+            return saved ? booking : null;
 
         } catch (Exception e) {
             System.err.println("Error creating booking: " + e.getMessage());
             FileDataManager.logActivity("SYSTEM", "Booking creation error: " + e.getMessage());
-            return false;
+            return null;
         }
     }
 
@@ -54,10 +61,8 @@ public class BookingService {
         try {
             Booking booking = FileDataManager.findBookingById(bookingId);
             if (booking != null) {
-                booking.setStatus(status);
-                booking.setUpdatedAt(LocalDateTime.now());
-
-                boolean updated = FileDataManager.saveBooking(booking);
+                // Single-field update: journaled as one record instead of rewriting the booking
+                boolean updated = FileDataManager.updateBookingStatus(bookingId, status);
 
                 if (updated) {
                     FileDataManager.logActivity("SYSTEM", "Booking status updated: " + bookingId + " -> " + status);
@@ -83,10 +88,7 @@ public class BookingService {
 
     public List<Booking> getBookingsByTourist(String touristId) {
         try {
-            List<Booking> allBookings = FileDataManager.getAllBookings();
-            return allBookings.stream()
-                    .filter(booking -> touristId.equals(booking.getTouristId()))
-                    .collect(Collectors.toList());
+            return FileDataManager.findBookingsByTourist(touristId);
 
         } catch (Exception e) {
             System.err.println("Error getting bookings by tourist: " + e.getMessage());
@@ -96,10 +98,7 @@ public class BookingService {
 
     public List<Booking> getBookingsByStatus(String status) {
         try {
-            List<Booking> allBookings = FileDataManager.getAllBookings();
-            return allBookings.stream()
-                    .filter(booking -> status.equals(booking.getStatus()))
-                    .collect(Collectors.toList());
+            return FileDataManager.findBookingsByStatus(status);
 
         } catch (Exception e) {
             System.err.println("Error getting bookings by status: " + e.getMessage());
@@ -107,6 +106,33 @@ public class BookingService {
         }
     }
 
+    public List<Booking> getBookingsByPackage(String packageId) {
+        try {
+            return FileDataManager.findBookingsByPackage(packageId);
+        } catch (Exception e) {
+            System.err.println("Error getting bookings by package: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    public List<Booking> getBookingsByGuide(String guideId) {
+        try {
+            return FileDataManager.findBookingsByGuide(guideId);
+        } catch (Exception e) {
+            System.err.println("Error getting bookings by guide: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    public List<Booking> getBookingsByPaymentStatus(String paymentStatus) {
+        try {
+            return FileDataManager.findBookingsByPaymentStatus(paymentStatus);
+        } catch (Exception e) {
+            System.err.println("Error getting bookings by payment status: " + e.getMessage());
+            return List.of();
+        }
+    }
+
     public List<Booking> getAllBookings() {
         try {
             return FileDataManager.getAllBookings();
@@ -116,6 +142,19 @@ public class BookingService {
         }
     }
 
+    public List<Booking> getBookingsPage(PageQuery query, int offset, int limit) {
+        return FileDataManager.findBookingsPage(query, offset, limit);
+    }
+
+    public int getBookingsCount(PageQuery query) {
+        try {
+            return FileDataManager.countBookings(query);
+        } catch (Exception e) {
+            System.err.println("Error counting bookings: " + e.getMessage());
+            return 0;
+        }
+    }
+
     public Booking getBookingById(String bookingId) {
         try {
             return FileDataManager.findBookingById(bookingId);
@@ -129,10 +168,7 @@ public class BookingService {
         try {
             Booking booking = FileDataManager.findBookingById(bookingId);
             if (booking != null) {
-                booking.setPaymentStatus(paymentStatus);
-                booking.setUpdatedAt(LocalDateTime.now());
-
-                boolean updated = FileDataManager.saveBooking(booking);
+                boolean updated = FileDataManager.updateBookingPaymentStatus(bookingId, paymentStatus);
 
                 if (updated) {
                     FileDataManager.logActivity("SYSTEM", "Payment status updated: " + bookingId + " -> " + paymentStatus);
@@ -148,6 +184,39 @@ public class BookingService {
         }
     }
 
+    // Saves several bookings (e.g. a group booking) with a single write
+    public boolean saveBookings(Collection<Booking> bookings) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            UniqueIds bookingIds = new UniqueIds(this::generateBookingId, FileDataManager::bookingExists);
+            for (Booking booking : bookings) {
+                if (booking.getBookingId() == null || booking.getBookingId().isEmpty()) {
+                    booking.setBookingId(bookingIds.next());
+                    booking.setCreatedAt(now);
+                }
+            }
+
+            // FileDataManager logs one entry for the whole batch
+            return FileDataManager.saveBookingsBatch(bookings);
+
+        } catch (Exception e) {
+            System.err.println("Error saving bookings: " + e.getMessage());
+            FileDataManager.logActivity("SYSTEM", "Booking batch save error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Deletes several bookings with a single write; returns how many were removed
+    public int deleteBookings(Collection<String> bookingIds) {
+        try {
+            return FileDataManager.deleteBookingsBatch(bookingIds);
+        } catch (Exception e) {
+            System.err.println("Error deleting bookings: " + e.getMessage());
+            FileDataManager.logActivity("SYSTEM", "Booking batch deletion error: " + e.getMessage());
+            return 0;
+        }
+    }
+
     private String generateBookingId() {
         return "BK" + System.currentTimeMillis() + (int)(Math.random() * 1000);
     }
@@ -168,7 +237,7 @@ public class BookingService {
 
     public int getTotalBookingsCount() {
         try {
-            return FileDataManager.getAllBookings().size();
+            return FileDataManager.countBookings();
         } catch (Exception e) {
             System.err.println("Error getting total bookings count: " + e.getMessage());
             return 0;
@@ -177,7 +246,7 @@ public class BookingService {
 
     public int getPendingBookingsCount() {
         try {
-            return getBookingsByStatus("PENDING").size();
+            return FileDataManager.countBookingsByStatus("PENDING");
         } catch (Exception e) {
             System.err.println("Error getting pending bookings count: " + e.getMessage());
             return 0;
@@ -186,7 +255,7 @@ public class BookingService {
 
     public int getConfirmedBookingsCount() {
         try {
-            return getBookingsByStatus("CONFIRMED").size();
+            return FileDataManager.countBookingsByStatus("CONFIRMED");
         } catch (Exception e) {
             System.err.println("Error getting confirmed bookings count: " + e.getMessage());
             return 0;
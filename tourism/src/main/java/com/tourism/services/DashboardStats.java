@@ -0,0 +1,148 @@
+package com.tourism.services;
+
+import com.tourism.utils.FileDataManager;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything the dashboard shows, counted through the repositories' indexes (status,
+ * payment status, month) and the paid total, which the booking store keeps up to
+ * date on every write, rather than by reading every booking and tourist. Recomputing
+ * after a change is a fixed number of lookups, however many bookings have piled up.
+ * <p>
+ * The result is kept until {@link FileDataManager#getDataVersion()} moves (or the
+ * month turns), so opening or refreshing the dashboard without changes in between
+ * costs nothing at all.
+ */
+public class DashboardStats {
+
+    public static final int CHART_MONTHS = 6;
+
+    private static final String[] BOOKING_STATUSES = {"PENDING", "CONFIRMED", "CANCELLED", "COMPLETED"};
+    private static final String[] PAYMENT_STATUSES = {"PENDING", "PAID", "REFUNDED"};
+
+    private static volatile DashboardStats cached;
+
+    private final long dataVersion;
+    private final YearMonth month;
+    private final int totalTourists;
+    private final int totalPackages;
+    private final int totalBookings;
+    private final int totalGuides;
+    private final int activeDiscounts;
+    private final Map<String, Integer> bookingsByStatus;
+    private final Map<String, Integer> bookingsByPaymentStatus;
+    private final double paidRevenue;
+    private final Map<YearMonth, Integer> bookingsPerMonth;
+    private final Map<YearMonth, Integer> touristsPerMonth;
+
+    private DashboardStats(long dataVersion, YearMonth month) {
+        this.dataVersion = dataVersion;
+        this.month = month;
+        this.totalPackages = FileDataManager.countPackages();
+        this.totalGuides = FileDataManager.countGuides();
+        this.activeDiscounts = FileDataManager.getActiveDiscounts().size();
+        this.totalBookings = FileDataManager.countBookings();
+        this.totalTourists = FileDataManager.countTourists();
+
+        // Counts and the paid total come straight from the indexes; no booking is read
+        Map<String, Integer> byStatus = new HashMap<>();
+        for (String status : BOOKING_STATUSES) {
+            putIfAny(byStatus, status, FileDataManager.countBookingsByStatus(status));
+        }
+        Map<String, Integer> byPayment = new HashMap<>();
+        for (String paymentStatus : PAYMENT_STATUSES) {
+            putIfAny(byPayment, paymentStatus, FileDataManager.countBookingsByPaymentStatus(paymentStatus));
+        }
+        double revenue = FileDataManager.sumBookingAmountsByPaymentStatus("PAID");
+
+        Map<YearMonth, Integer> bookingMonths = new LinkedHashMap<>();
+        Map<YearMonth, Integer> touristMonths = new LinkedHashMap<>();
+        for (int i = CHART_MONTHS - 1; i >= 0; i--) {
+            YearMonth chartMonth = month.minusMonths(i);
+            bookingMonths.put(chartMonth, FileDataManager.countBookingsInMonth(chartMonth));
+            touristMonths.put(chartMonth, FileDataManager.countTouristsInMonth(chartMonth));
+        }
+
+        this.bookingsByStatus = Collections.unmodifiableMap(byStatus);
+        this.bookingsByPaymentStatus = Collections.unmodifiableMap(byPayment);
+        this.paidRevenue = revenue;
+        this.bookingsPerMonth = Collections.unmodifiableMap(bookingMonths);
+        this.touristsPerMonth = Collections.unmodifiableMap(touristMonths);
+    }
+
+    /** The current statistics; recomputed only if data changed since the last call. */
+    public static DashboardStats get() {
+        long version = FileDataManager.getDataVersion();
+        YearMonth month = YearMonth.now();
+        DashboardStats stats = cached;
+        if (stats != null && stats.dataVersion == version && stats.month.equals(month)) {
+            return stats;
+        }
+        synchronized (DashboardStats.class) {
+            stats = cached;
+            if (stats == null || stats.dataVersion != version || !stats.month.equals(month)) {
+                // Read the version first: a change made during the pass then only causes one extra recompute
+                stats = new DashboardStats(version, month);
+                cached = stats;
+            }
+            return stats;
+        }
+    }
+
+    private static void putIfAny(Map<String, Integer> counts, String value, int count) {
+        if (count > 0) {
+            counts.put(value, count);
+        }
+    }
+
+    public int getTotalTourists() {
+        return totalTourists;
+    }
+
+    public int getTotalPackages() {
+        return totalPackages;
+    }
+
+    public int getTotalBookings() {
+        return totalBookings;
+    }
+
+    public int getTotalGuides() {
+        return totalGuides;
+    }
+
+    public int getActiveDiscounts() {
+        return activeDiscounts;
+    }
+
+    public int getBookingsByStatus(String status) {
+        return bookingsByStatus.getOrDefault(status, 0);
+    }
+
+    public Map<String, Integer> getBookingsByStatus() {
+        return bookingsByStatus;
+    }
+
+    public Map<String, Integer> getBookingsByPaymentStatus() {
+        return bookingsByPaymentStatus;
+    }
+
+    public double getPaidRevenue() {
+        return paidRevenue;
+    }
+
+    /** Bookings made in each of the last {@link #CHART_MONTHS} months, oldest first. */
+    public Map<YearMonth, Integer> getBookingsPerMonth() {
+        return bookingsPerMonth;
+    }
+
+    /** Tourists registered in each of the last {@link #CHART_MONTHS} months, oldest first. */
+    public Map<YearMonth, Integer> getTouristsPerMonth() {
+        return touristsPerMonth;
+    }
+}
@@ -3,6 +3,7 @@ package com.tourism.services;
 import com.tourism.models.Guide;
 import com.tourism.utils.FileDataManager;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -12,7 +13,7 @@ public class GuideService {
         try {
             // Generate ID if not provided
             if (guide.getGuideId() == null || guide.getGuideId().isEmpty()) {
-                guide.setGuideId(generateGuideId());
+                guide.setGuideId(new UniqueIds(this::generateGuideId, FileDataManager::guideExists).next());
             }
 
             // Delegate to FileDataManager's saveGuide, which handles both add/update logic
@@ -49,6 +50,31 @@ public class GuideService {
         }
     }
 
+    // Registers or updates several guides with a single write
+    public boolean saveGuides(Collection<Guide> guides) {
+        try {
+            UniqueIds guideIds = new UniqueIds(this::generateGuideId, FileDataManager::guideExists);
+            for (Guide guide : guides) {
+                if (guide.getGuideId() == null || guide.getGuideId().isEmpty()) {
+                    guide.setGuideId(guideIds.next());
+                }
+            }
+
+            boolean saved = FileDataManager.saveGuidesBatch(guides);
+
+            if (saved) {
+                FileDataManager.logActivity("SYSTEM", "Guides saved: " + guides.size());
+            }
+
+            return saved;
+
+        } catch (Exception e) {
+            System.err.println("Error saving guides: " + e.getMessage());
+            FileDataManager.logActivity("SYSTEM", "Guide batch save error: " + e.getMessage());
+            return false;
+        }
+    }
+
     public boolean deleteGuide(String guideId) {
         try {
             // Delegate directly to FileDataManager's deleteGuide method
@@ -124,13 +150,7 @@ public class GuideService {
 
     public List<Guide> searchGuides(String searchTerm) {
         try {
-            return FileDataManager.getAllGuides().stream()
-                    .filter(guide ->
-                            (guide.getFullName() != null && guide.getFullName().toLowerCase().contains(searchTerm.toLowerCase())) ||
-                                    (guide.getEmail() != null && guide.getEmail().toLowerCase().contains(searchTerm.toLowerCase())) ||
-                                    (guide.getSpecialization() != null && guide.getSpecialization().toLowerCase().contains(searchTerm.toLowerCase()))
-                    )
-                    .collect(Collectors.toList());
+            return FileDataManager.searchGuides(searchTerm);
         } catch (Exception e) {
             System.err.println("Error searching guides: " + e.getMessage());
             return List.of();
@@ -139,7 +159,7 @@ public class GuideService {
 
     public int getTotalGuidesCount() {
         try {
-            return FileDataManager.getAllGuides().size();
+            return FileDataManager.countGuides();
         } catch (Exception e) {
             System.err.println("Error getting total guides count: " + e.getMessage());
             return 0;
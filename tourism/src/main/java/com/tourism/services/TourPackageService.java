@@ -3,6 +3,7 @@ package com.tourism.services;
 import com.tourism.models.TourPackage;
 import com.tourism.utils.FileDataManager;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -12,13 +13,11 @@ public class TourPackageService {
         try {
             // Generate ID if not provided
             if (tourPackage.getPackageId() == null || tourPackage.getPackageId().isEmpty()) {
-                tourPackage.setPackageId(generatePackageId());
+                tourPackage.setPackageId(
+                        new UniqueIds(this::generatePackageId, FileDataManager::tourPackageExists).next());
             }
 
-            List<TourPackage> packages = FileDataManager.getAllPackages();
-            packages.add(tourPackage);
-
-            boolean saved = FileDataManager.savePackages(packages);
+            boolean saved = FileDataManager.savePackage(tourPackage);
 
             if (saved) {
                 FileDataManager.logActivity("SYSTEM", "Package created: " + tourPackage.getPackageName());
@@ -35,11 +34,7 @@ public class TourPackageService {
 
     public boolean updatePackage(TourPackage tourPackage) {
         try {
-            List<TourPackage> packages = FileDataManager.getAllPackages();
-            packages.removeIf(p -> tourPackage.getPackageId().equals(p.getPackageId()));
-            packages.add(tourPackage);
-
-            boolean updated = FileDataManager.savePackages(packages);
+            boolean updated = FileDataManager.savePackage(tourPackage);
 
             if (updated) {
                 FileDataManager.logActivity("SYSTEM", "Package updated: " + tourPackage.getPackageId());
@@ -63,23 +58,40 @@ public class TourPackageService {
     }
     public boolean deletePackage(String packageId) {
         try {
-            List<TourPackage> packages = FileDataManager.getAllPackages();
-            boolean removed = packages.removeIf(p -> packageId.equals(p.getPackageId()));
+            boolean removed = FileDataManager.deletePackage(packageId);
 
             if (removed) {
-                boolean saved = FileDataManager.savePackages(packages);
+                FileDataManager.logActivity("SYSTEM", "Package deleted: " + packageId);
+            }
+
+            return removed;
+
+        } catch (Exception e) {
+            System.err.println("Error deleting package: " + e.getMessage());
+            return false;
+        }
+    }
 
-                if (saved) {
-                    FileDataManager.logActivity("SYSTEM", "Package deleted: " + packageId);
+    // Adds or updates several packages with a single write
+    public boolean savePackages(Collection<TourPackage> tourPackages) {
+        try {
+            UniqueIds packageIds = new UniqueIds(this::generatePackageId, FileDataManager::tourPackageExists);
+            for (TourPackage tourPackage : tourPackages) {
+                if (tourPackage.getPackageId() == null || tourPackage.getPackageId().isEmpty()) {
+                    tourPackage.setPackageId(packageIds.next());
                 }
+            }
+
+            boolean saved = FileDataManager.savePackagesBatch(tourPackages);
 
-                return saved;
+            if (saved) {
+                FileDataManager.logActivity("SYSTEM", "Packages saved: " + tourPackages.size());
             }
 
-            return false;
+            return saved;
 
         } catch (Exception e) {
-            System.err.println("Error deleting package: " + e.getMessage());
+            System.err.println("Error saving packages: " + e.getMessage());
             return false;
         }
     }
@@ -126,13 +138,7 @@ public class TourPackageService {
 
     public List<TourPackage> searchPackages(String searchTerm) {
         try {
-            return FileDataManager.getAllPackages().stream()
-                    .filter(pkg ->
-                            (pkg.getPackageName() != null && pkg.getPackageName().toLowerCase().contains(searchTerm.toLowerCase())) ||
-                                    (pkg.getDescription() != null && pkg.getDescription().toLowerCase().contains(searchTerm.toLowerCase())) ||
-                                    (pkg.getCategory() != null && pkg.getCategory().toLowerCase().contains(searchTerm.toLowerCase()))
-                    )
-                    .collect(Collectors.toList());
+            return FileDataManager.searchPackages(searchTerm);
         } catch (Exception e) {
             System.err.println("Error searching packages: " + e.getMessage());
             return List.of();
@@ -141,7 +147,7 @@ public class TourPackageService {
 
     public int getTotalPackagesCount() {
         try {
-            return FileDataManager.getAllPackages().size();
+            return FileDataManager.countPackages();
         } catch (Exception e) {
             System.err.println("Error getting total packages count: " + e.getMessage());
             return 0;
@@ -3,6 +3,7 @@ package com.tourism.services;
 import com.tourism.models.Tourist;
 import com.tourism.utils.FileDataManager;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -14,7 +15,7 @@ public class TouristService {
         try {
             // Generate ID if not provided (for new tourists)
             if (tourist.getTouristId() == null || tourist.getTouristId().isEmpty()) {
-                tourist.setTouristId(generateTouristId());
+                tourist.setTouristId(new UniqueIds(this::generateTouristId, FileDataManager::touristExists).next());
             }
 
             // Generate account ID if not provided (for new tourists)
@@ -37,6 +38,35 @@ public class TouristService {
         }
     }
 
+    // Saves several tourists (new or existing) with a single write
+    public boolean saveTourists(Collection<Tourist> tourists) {
+        try {
+            UniqueIds touristIds = new UniqueIds(this::generateTouristId, FileDataManager::touristExists);
+            UniqueIds accountIds = new UniqueIds(this::generateAccountId, accountId -> false); // not a key
+            for (Tourist tourist : tourists) {
+                if (tourist.getTouristId() == null || tourist.getTouristId().isEmpty()) {
+                    tourist.setTouristId(touristIds.next());
+                }
+                if (tourist.getAccountId() == null || tourist.getAccountId().isEmpty()) {
+                    tourist.setAccountId(accountIds.next());
+                }
+            }
+
+            boolean saved = FileDataManager.saveTouristsBatch(tourists);
+
+            if (saved) {
+                FileDataManager.logActivity("SYSTEM", "Tourists saved/updated: " + tourists.size());
+            }
+
+            return saved;
+
+        } catch (Exception e) {
+            System.err.println("Error saving tourists: " + e.getMessage());
+            FileDataManager.logActivity("SYSTEM", "Tourist batch save error: " + e.getMessage());
+            return false;
+        }
+    }
+
     public Tourist getTouristById(String touristId) {
         try {
             return FileDataManager.findTouristById(touristId);
@@ -81,9 +111,33 @@ public class TouristService {
         }
     }
 
+    // Deletes several tourists with a single write; returns how many were removed
+    public int deleteTourists(Collection<String> touristIds) {
+        try {
+            int deleted = FileDataManager.deleteTouristsBatch(touristIds);
+            if (deleted > 0) {
+                FileDataManager.logActivity("SYSTEM", "Tourists deleted: " + deleted);
+            }
+            return deleted;
+        } catch (Exception e) {
+            System.err.println("Error deleting tourists: " + e.getMessage());
+            FileDataManager.logActivity("SYSTEM", "Tourist batch deletion error: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public List<Tourist> searchTourists(String searchTerm) {
+        try {
+            return FileDataManager.searchTourists(searchTerm);
+        } catch (Exception e) {
+            System.err.println("Error searching tourists: " + e.getMessage());
+            return List.of();
+        }
+    }
+
     public int getTotalTouristsCount() {
         try {
-            return FileDataManager.getAllTourists().size();
+            return FileDataManager.countTourists();
         } catch (Exception e) {
             System.err.println("Error getting total tourists count: " + e.getMessage());
             return 0;
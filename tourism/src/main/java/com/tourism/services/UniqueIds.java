@@ -0,0 +1,32 @@
+package com.tourism.services;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Hands out new record ids. A candidate is drawn again while it is already taken in
+ * storage or was handed out by this instance before, so a batch made within one
+ * millisecond gets distinct ids and saving a new record never replaces an existing one.
+ * Use one instance per batch.
+ */
+final class UniqueIds {
+
+    private final Supplier<String> candidates;
+    private final Predicate<String> taken;
+    private final Set<String> issued = new HashSet<>();
+
+    UniqueIds(Supplier<String> candidates, Predicate<String> taken) {
+        this.candidates = candidates;
+        this.taken = taken;
+    }
+
+    String next() {
+        String id;
+        do {
+            id = candidates.get();
+        } while (!issued.add(id) || taken.test(id));
+        return id;
+    }
+}
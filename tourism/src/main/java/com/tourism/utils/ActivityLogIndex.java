@@ -0,0 +1,280 @@
+package com.tourism.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse index over one activity log segment. Records are grouped into blocks of
+ * {@value #BLOCK_RECORDS}; for each block the index holds its byte range and the
+ * earliest and latest timestamp in it, and for each user the list of blocks that
+ * contain at least one of their entries. A query then only reads the blocks that can
+ * match instead of the whole segment.
+ * <p>
+ * For the current (plain text) segment, byte ranges are line offsets in the file. For
+ * a closed segment each block is a separate gzip member and the range is that
+ * member's position in the compressed file, so it can be inflated on its own.
+ * Closed-segment indexes are stored next to the segment as a small binary .idx file.
+ */
+class ActivityLogIndex {
+
+    static final int BLOCK_RECORDS = 256;
+
+    private static final int MAGIC = 0x414C4958; // "ALIX"
+    private static final int VERSION = 1;
+    private static final String SEPARATOR = " | ";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private long[] firstTime = new long[16];
+    private long[] lastTime = new long[16];
+    private long[] offset = new long[16];
+    private long[] length = new long[16];
+    private int[] records = new int[16];
+    private int blocks;
+    private final Map<String, int[]> postings = new HashMap<>(); // user -> block ids; [0] is the count
+
+    // ==================== BUILDING ====================
+
+    /** Indexes one line of a plain text segment, starting at {@code lineOffset} and {@code lineLength} bytes long. */
+    synchronized void addRecord(String line, long lineOffset, int lineLength) {
+        long time = timeOf(line);
+        if (blocks == 0 || records[blocks - 1] == BLOCK_RECORDS) {
+            newBlock(time, time, lineOffset);
+        }
+        int block = blocks - 1;
+        firstTime[block] = Math.min(firstTime[block], time);
+        lastTime[block] = Math.max(lastTime[block], time);
+        length[block] = lineOffset + lineLength - offset[block];
+        records[block]++;
+        addPosting(userOf(line), block);
+    }
+
+    /** Indexes one block of a compressed segment: the given lines, stored at [blockOffset, blockOffset + blockLength). */
+    synchronized void addBlock(Collection<String> lines, long blockOffset, long blockLength) {
+        newBlock(Long.MAX_VALUE, Long.MIN_VALUE, blockOffset);
+        int block = blocks - 1;
+        for (String line : lines) {
+            long time = timeOf(line);
+            firstTime[block] = Math.min(firstTime[block], time);
+            lastTime[block] = Math.max(lastTime[block], time);
+            addPosting(userOf(line), block);
+        }
+        length[block] = blockLength;
+        records[block] = lines.size();
+    }
+
+    private void newBlock(long first, long last, long blockOffset) {
+        if (blocks == offset.length) {
+            int capacity = blocks * 2;
+            firstTime = Arrays.copyOf(firstTime, capacity);
+            lastTime = Arrays.copyOf(lastTime, capacity);
+            offset = Arrays.copyOf(offset, capacity);
+            length = Arrays.copyOf(length, capacity);
+            records = Arrays.copyOf(records, capacity);
+        }
+        firstTime[blocks] = first;
+        lastTime[blocks] = last;
+        offset[blocks] = blockOffset;
+        length[blocks] = 0;
+        records[blocks] = 0;
+        blocks++;
+    }
+
+    private void addPosting(String user, int block) {
+        int[] list = postings.get(user);
+        if (list == null) {
+            list = new int[4];
+            postings.put(user, list);
+        } else if (list[0] > 0 && list[list[0]] == block) {
+            return; // block already listed for this user
+        }
+        if (list[0] + 1 == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            postings.put(user, list);
+        }
+        list[++list[0]] = block;
+    }
+
+    /** Builds the index of an existing plain text segment by reading it once. */
+    static ActivityLogIndex ofPlainFile(Path file) throws IOException {
+        ActivityLogIndex index = new ActivityLogIndex();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long lineStart = 0;
+            long position = 0;
+            int b;
+            while ((b = in.read()) >= 0) {
+                position++;
+                if (b == '\n') {
+                    index.addRecord(decodeLine(line), lineStart, (int) (position - lineStart));
+                    line.reset();
+                    lineStart = position;
+                } else {
+                    line.write(b);
+                }
+            }
+            if (line.size() > 0) {
+                index.addRecord(decodeLine(line), lineStart, (int) (position - lineStart));
+            }
+        }
+        return index;
+    }
+
+    private static String decodeLine(ByteArrayOutputStream bytes) {
+        String line = bytes.toString(StandardCharsets.UTF_8);
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    // ==================== QUERYING ====================
+
+    /**
+     * Byte ranges ({offset, length}) of the blocks that may hold entries of the user
+     * (null: any user) between the two times, in file order; adjacent blocks are merged.
+     */
+    synchronized List<long[]> ranges(String user, long from, long to) {
+        List<long[]> ranges = new ArrayList<>();
+        if (user != null) {
+            int[] list = postings.get(user);
+            if (list != null) {
+                for (int i = 1; i <= list[0]; i++) {
+                    addRange(ranges, list[i], from, to);
+                }
+            }
+        } else {
+            for (int block = 0; block < blocks; block++) {
+                addRange(ranges, block, from, to);
+            }
+        }
+        return ranges;
+    }
+
+    private void addRange(List<long[]> ranges, int block, long from, long to) {
+        if (lastTime[block] < from || firstTime[block] > to) {
+            return;
+        }
+        long[] previous = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+        if (previous != null && previous[0] + previous[1] == offset[block]) {
+            previous[1] += length[block];
+        } else {
+            ranges.add(new long[]{offset[block], length[block]});
+        }
+    }
+
+    /** Whether a log line matches the user (null: any) and lies between the two times. */
+    static boolean matches(String line, String user, long from, long to) {
+        long time = timeOf(line);
+        return time >= from && time <= to && (user == null || user.equals(userOf(line)));
+    }
+
+    // ==================== LINE FORMAT ====================
+
+    /** Timestamp of a "timestamp | user | activity" line as comparable millis, or Long.MIN_VALUE. */
+    static long timeOf(String line) {
+        int end = line.indexOf(SEPARATOR);
+        if (end < 0) {
+            return Long.MIN_VALUE;
+        }
+        return toMillis(line.substring(0, end));
+    }
+
+    static String userOf(String line) {
+        int start = line.indexOf(SEPARATOR);
+        if (start < 0) {
+            return "";
+        }
+        start += SEPARATOR.length();
+        int end = line.indexOf(SEPARATOR, start);
+        return end < 0 ? line.substring(start) : line.substring(start, end);
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli(); // only used for ordering
+    }
+
+    private static long toMillis(String timestamp) {
+        try {
+            return toMillis(LocalDateTime.parse(timestamp, TIMESTAMP));
+        } catch (Exception e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    synchronized void write(Path indexFile) throws IOException {
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(blocks);
+            for (int block = 0; block < blocks; block++) {
+                out.writeLong(firstTime[block]);
+                out.writeLong(lastTime[block]);
+                out.writeLong(offset[block]);
+                out.writeLong(length[block]);
+                out.writeInt(records[block]);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+                int[] list = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeInt(list[0]);
+                for (int i = 1; i <= list[0]; i++) {
+                    out.writeInt(list[i]);
+                }
+            }
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Reads an index written by {@link #write}; returns null if it is missing or not one of ours. */
+    static ActivityLogIndex read(Path indexFile) {
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            ActivityLogIndex index = new ActivityLogIndex();
+            int blockCount = in.readInt();
+            for (int block = 0; block < blockCount; block++) {
+                index.newBlock(in.readLong(), in.readLong(), in.readLong());
+                index.length[block] = in.readLong();
+                index.records[block] = in.readInt();
+            }
+            int users = in.readInt();
+            for (int i = 0; i < users; i++) {
+                String user = in.readUTF();
+                int count = in.readInt();
+                int[] list = new int[count + 1];
+                list[0] = count;
+                for (int j = 1; j <= count; j++) {
+                    list[j] = in.readInt();
+                }
+                index.postings.put(user, list);
+            }
+            return index;
+        } catch (IOException e) {
+            System.err.println("Error reading activity log index " + indexFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.tourism.utils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Appends activity log entries from a background thread so that callers (mostly the
+ * JavaFX thread) never touch the disk.
+ * <p>
+ * Entries go into a lock-free queue bounded by {@code capacity}; a caller that finds
+ * it full waits for the writer instead of dropping the entry. The writer keeps one
+ * channel open and writes whenever {@code batchEntries} entries are pending or
+ * {@code flushMillis} have passed. {@link #close()} drains everything still queued;
+ * entries logged after that are written synchronously by the caller.
+ * <p>
+ * The file is a rolling segment: before a batch that would take it past
+ * {@code segmentBytes}, or on the first write of a new day, it is handed to
+ * {@link LogSegments} for compression and a fresh file is started. The current
+ * segment is indexed in memory as it is written, so {@link #query} can seek into it
+ * the same way as into closed segments.
+ */
+class ActivityLogger {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final long FLUSH_WAIT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final Path logFile;
+    private final LogSegments segments;
+    private final long segmentBytes;
+    private final int capacity;
+    private final int batchEntries;
+    private final long flushNanos;
+
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong enqueued = new AtomicLong(); // entries accepted so far
+    private volatile long written;                        // entries handed to the file so far
+    private volatile boolean flushRequested;
+    private volatile boolean closing;
+    private volatile boolean closed;
+
+    private final Thread writer;
+    private FileChannel channel; // writer thread only; after close, callers under this
+    private long segmentSize;
+    private LocalDate segmentDay;
+    private volatile ActivityLogIndex activeIndex; // index of the current segment, null until it is opened
+
+    ActivityLogger(Path logFile, LogSegments segments, long segmentBytes, int capacity, int batchEntries,
+                   long flushMillis) {
+        this.logFile = logFile;
+        this.segments = segments;
+        this.segmentBytes = Math.max(1, segmentBytes);
+        this.capacity = Math.max(1, capacity);
+        this.batchEntries = Math.max(1, Math.min(batchEntries, this.capacity));
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushMillis));
+        this.writer = new Thread(this::run, "activity-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        // Safety net for exits that bypass FileDataManager.shutdown()
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "activity-log-shutdown"));
+    }
+
+    /** Queues one entry (a full line without separator). Never drops entries. */
+    void log(String entry) {
+        int size;
+        while ((size = queued.get()) >= capacity || !queued.compareAndSet(size, size + 1)) {
+            if (size >= capacity) {
+                // Full: let the writer catch up (or, once it has stopped, empty the queue here)
+                if (closing) {
+                    drainAfterClose();
+                    continue;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+        queue.offer(entry);
+        enqueued.incrementAndGet();
+        if (closing) {
+            // The writer may already have made its final pass
+            drainAfterClose();
+        } else if (size + 1 == batchEntries) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /** Waits until every entry logged before this call is in the file. */
+    void flush() {
+        if (closed) {
+            return;
+        }
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + FLUSH_WAIT_NANOS;
+        while (written < target && writer.isAlive() && System.nanoTime() < deadline) {
+            flushRequested = true;
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Copies what a backup needs into {@code dir}: the current file up to its last
+     * complete line as activity.log, and every closed segment no backup holds yet
+     * under logs/ (hard-linked where possible, they never change). Rotation waits
+     * meanwhile so no line ends up in both. Returns the original segments.
+     */
+    List<Path> copyForBackup(Path dir) throws IOException {
+        flush();
+        synchronized (this) {
+            if (Files.exists(logFile)) {
+                try (FileChannel source = FileChannel.open(logFile, StandardOpenOption.READ);
+                     FileChannel copy = FileChannel.open(dir.resolve("activity.log"), StandardOpenOption.CREATE,
+                             StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    long length = completeLength(source);
+                    long position = 0;
+                    while (position < length) {
+                        position += source.transferTo(position, length - position, copy);
+                    }
+                }
+            }
+            List<Path> pending = segments.listNotBackedUp();
+            Path logsDir = Files.createDirectories(dir.resolve("logs"));
+            for (Path segment : pending) {
+                Path target = logsDir.resolve(segment.getFileName());
+                try {
+                    Files.createLink(target, segment);
+                } catch (IOException | UnsupportedOperationException e) {
+                    Files.copy(segment, target);
+                }
+            }
+            return pending;
+        }
+    }
+
+    /** Length of the file up to and including its last line break; the writer may be mid-batch. */
+    private static long completeLength(FileChannel file) throws IOException {
+        long end = file.size();
+        ByteBuffer block = ByteBuffer.allocate(4096);
+        while (end > 0) {
+            long start = Math.max(0, end - block.capacity());
+            block.clear().limit((int) (end - start));
+            while (block.hasRemaining() && file.read(block, start + block.position()) > 0) {
+                // keep reading until the block is full
+            }
+            for (int i = block.position() - 1; i >= 0; i--) {
+                if (block.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    /** Drains the queue, syncs the file and stops the writer. Safe to call more than once. */
+    void close() {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.NANOSECONDS.toMillis(FLUSH_WAIT_NANOS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>(batchEntries);
+        long lastWrite = System.nanoTime();
+        while (true) {
+            String entry = queue.poll();
+            if (entry != null) {
+                queued.decrementAndGet();
+                batch.add(entry);
+                if (batch.size() >= batchEntries) {
+                    writeBatch(batch);
+                    lastWrite = System.nanoTime();
+                }
+                continue;
+            }
+
+            boolean stopping = closing;
+            long waited = System.nanoTime() - lastWrite;
+            if (!batch.isEmpty() && (stopping || flushRequested || waited >= flushNanos)) {
+                flushRequested = false;
+                writeBatch(batch);
+                lastWrite = System.nanoTime();
+            }
+            if (stopping && queue.isEmpty()) {
+                break;
+            }
+            LockSupport.parkNanos(this, !batch.isEmpty() ? flushNanos - waited : flushNanos);
+        }
+        synchronized (this) {
+            syncAndClose();
+            closed = true;
+        }
+    }
+
+    /** Writes and indexes the entries, then empties the batch. */
+    private void writeBatch(List<String> batch) {
+        int[] ends = new int[batch.size()]; // end of each entry's line within the encoded batch
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(batch.size() * 96);
+        for (int i = 0; i < batch.size(); i++) {
+            byte[] line = (batch.get(i) + LINE_SEPARATOR).getBytes(StandardCharsets.UTF_8);
+            encoded.write(line, 0, line.length);
+            ends[i] = encoded.size();
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(encoded.toByteArray());
+        long start = -1;
+        try {
+            start = write(bytes);
+        } catch (IOException e) {
+            // The file may have been moved or deleted underneath us: reopen once and retry
+            closeChannel();
+            try {
+                bytes.rewind();
+                start = write(bytes);
+            } catch (IOException retry) {
+                System.err.println("Error logging activity: " + retry.getMessage());
+                closeChannel();
+            }
+        }
+        if (start >= 0) {
+            for (int i = 0; i < ends.length; i++) {
+                int lineStart = i == 0 ? 0 : ends[i - 1];
+                activeIndex.addRecord(batch.get(i), start + lineStart, ends[i] - lineStart);
+            }
+        }
+        written += batch.size();
+        batch.clear();
+    }
+
+    /** Appends the bytes to the current segment, rotating first if needed; returns where they start. */
+    private long write(ByteBuffer bytes) throws IOException {
+        LocalDate today = LocalDate.now();
+        if (channel == null || !channel.isOpen()) {
+            open(today);
+        }
+        if (segmentSize > 0 && (segmentSize + bytes.remaining() > segmentBytes || !today.equals(segmentDay))) {
+            rotate(today);
+        }
+        long start = segmentSize;
+        while (bytes.hasRemaining()) {
+            segmentSize += channel.write(bytes);
+        }
+        return start;
+    }
+
+    private void open(LocalDate today) throws IOException {
+        Path parent = logFile.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segmentSize = channel.size();
+        segmentDay = segmentSize > 0
+                ? LocalDate.ofInstant(Files.getLastModifiedTime(logFile).toInstant(), ZoneId.systemDefault())
+                : today;
+        if (activeIndex == null) {
+            activeIndex = segmentSize > 0 ? ActivityLogIndex.ofPlainFile(logFile) : new ActivityLogIndex();
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new file; on failure keeps appending to
+     * the old one. Holds the lock so a query never sees a segment half moved.
+     */
+    private synchronized void rotate(LocalDate today) throws IOException {
+        closeChannel();
+        try {
+            segments.rotate(logFile, segmentDay);
+            activeIndex = null;
+        } catch (IOException e) {
+            System.err.println("Error rotating activity log: " + e.getMessage());
+        }
+        open(today);
+        segmentDay = today; // a failed rotation is retried on the next size overflow, not every batch
+    }
+
+    /**
+     * Hands the entries of the user (null: any) between the two times (inclusive,
+     * comparable millis from {@link ActivityLogIndex#toMillis}) to the consumer,
+     * oldest segment first, reading only the index blocks that can match.
+     */
+    void query(String user, long from, long to, Consumer<String> consumer) throws IOException {
+        flush();
+        synchronized (this) {
+            for (Path segment : segments.list()) {
+                segments.query(segment, user, from, to, consumer);
+            }
+            if (!Files.exists(logFile)) {
+                return;
+            }
+            // Before the first write since startup the writer has not indexed the file yet
+            ActivityLogIndex index = activeIndex != null ? activeIndex : ActivityLogIndex.ofPlainFile(logFile);
+            try (FileChannel reader = FileChannel.open(logFile, StandardOpenOption.READ)) {
+                for (long[] range : index.ranges(user, from, to)) {
+                    ByteBuffer bytes = ByteBuffer.allocate((int) range[1]);
+                    while (bytes.hasRemaining() && reader.read(bytes, range[0] + bytes.position()) > 0) {
+                        // keep reading until the range is complete
+                    }
+                    BufferedReader lines = new BufferedReader(new InputStreamReader(
+                            new ByteArrayInputStream(bytes.array(), 0, bytes.position()), StandardCharsets.UTF_8));
+                    String line;
+                    while ((line = lines.readLine()) != null) {
+                        if (ActivityLogIndex.matches(line, user, from, to)) {
+                            consumer.accept(line);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Writes whatever is still queued once the writer has stopped, from the calling thread. */
+    private void drainAfterClose() {
+        try {
+            writer.join(TimeUnit.NANOSECONDS.toMillis(FLUSH_WAIT_NANOS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            List<String> batch = new ArrayList<>();
+            String entry;
+            while ((entry = queue.poll()) != null) {
+                queued.decrementAndGet();
+                batch.add(entry);
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                syncAndClose();
+            }
+        }
+    }
+
+    private void syncAndClose() {
+        if (channel != null && channel.isOpen()) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                System.err.println("Error syncing activity log: " + e.getMessage());
+            }
+        }
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing activity log: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+}
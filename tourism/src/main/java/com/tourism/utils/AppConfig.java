@@ -0,0 +1,60 @@
+package com.tourism.utils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Application settings. A JVM system property (-Dkey=value) wins over an entry in
+ * tourism.properties in the working directory, which wins over the built-in default.
+ */
+public class AppConfig {
+
+    private static final String CONFIG_FILE = "tourism.properties";
+    private static final Properties PROPERTIES = loadProperties();
+
+    private static Properties loadProperties() {
+        Properties properties = new Properties();
+        Path path = Paths.get(CONFIG_FILE);
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                properties.load(in);
+            } catch (Exception e) {
+                System.err.println("Error reading " + CONFIG_FILE + ": " + e.getMessage());
+            }
+        }
+        return properties;
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = PROPERTIES.getProperty(key);
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return (int) getLong(key, defaultValue);
+    }
+}
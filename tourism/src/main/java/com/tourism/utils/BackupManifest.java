@@ -0,0 +1,109 @@
+package com.tourism.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contents of one backup: for every file its size, line count and SHA-256, plus (in
+ * the chunk store) the chunks it is made of. Stored as pipe-delimited text:
+ * <pre>
+ * TOURISM-BACKUP|1
+ * F|name|size|rows|sha256
+ * C|sha256|length        (chunk lines follow their file line)
+ * </pre>
+ * Zip backups carry the same text, without chunk lines, as their last entry.
+ */
+class BackupManifest {
+
+    static final String HEADER = "TOURISM-BACKUP";
+    static final int VERSION = 1;
+    static final String ZIP_ENTRY = "backup.manifest";
+
+    static final class Chunk {
+        final String hash;
+        final int length;
+
+        Chunk(String hash, int length) {
+            this.hash = hash;
+            this.length = length;
+        }
+    }
+
+    static final class FileEntry {
+        final String name;
+        final long size;
+        final long rows;
+        final String sha256;
+        final List<Chunk> chunks = new ArrayList<>();
+
+        FileEntry(String name, long size, long rows, String sha256) {
+            this.name = name;
+            this.size = size;
+            this.rows = rows;
+            this.sha256 = sha256;
+        }
+    }
+
+    private final List<FileEntry> files = new ArrayList<>();
+
+    List<FileEntry> getFiles() {
+        return files;
+    }
+
+    FileEntry find(String name) {
+        for (FileEntry file : files) {
+            if (file.name.equals(name)) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    FileEntry addFile(String name, FileDigest digest) {
+        FileEntry entry = new FileEntry(name, digest.size(), digest.rows(), digest.sha256Hex());
+        files.add(entry);
+        return entry;
+    }
+
+    void write(Writer writer) throws IOException {
+        writer.write(HEADER + "|" + VERSION + "\n");
+        for (FileEntry file : files) {
+            writer.write("F|" + file.name + "|" + file.size + "|" + file.rows + "|" + file.sha256 + "\n");
+            for (Chunk chunk : file.chunks) {
+                writer.write("C|" + chunk.hash + "|" + chunk.length + "\n");
+            }
+        }
+    }
+
+    static BackupManifest read(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null || !header.equals(HEADER + "|" + VERSION)) {
+            throw new IOException("Not a backup manifest (version " + VERSION + ")");
+        }
+        BackupManifest manifest = new BackupManifest();
+        FileEntry current = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split("\\|");
+            try {
+                if (parts[0].equals("F") && parts.length == 5) {
+                    current = new FileEntry(parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3]), parts[4]);
+                    manifest.files.add(current);
+                } else if (parts[0].equals("C") && parts.length == 3 && current != null) {
+                    current.chunks.add(new Chunk(parts[1], Integer.parseInt(parts[2])));
+                } else {
+                    throw new IOException("Malformed manifest line: " + line);
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed manifest line: " + line);
+            }
+        }
+        return manifest;
+    }
+}
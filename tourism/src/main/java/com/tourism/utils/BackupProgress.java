@@ -0,0 +1,92 @@
+package com.tourism.utils;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Progress of one running backup, and the way to cancel it. The backup thread
+ * updates it; any thread may read it or call {@link #cancel()}. A cancelled backup
+ * stops at the next write and leaves nothing behind.
+ */
+public class BackupProgress {
+
+    /** Called on the backup thread after every file and every few hundred KB. */
+    public interface Listener {
+        void onProgress(BackupProgress progress);
+    }
+
+    private static final long REPORT_BYTES = 256 * 1024;
+
+    private final Listener listener;
+    private volatile boolean cancelled;
+    private volatile int filesTotal;
+    private volatile int filesDone;
+    private volatile long bytesTotal;
+    private volatile long bytesDone;
+    private long reportedBytes;
+
+    public BackupProgress() {
+        this(null);
+    }
+
+    public BackupProgress(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int getFilesTotal() {
+        return filesTotal;
+    }
+
+    public int getFilesDone() {
+        return filesDone;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public long getBytesDone() {
+        return bytesDone;
+    }
+
+    void begin(int files, long bytes) throws InterruptedIOException {
+        filesTotal = files;
+        bytesTotal = bytes;
+        report();
+    }
+
+    void addBytes(long bytes) throws InterruptedIOException {
+        bytesDone += bytes;
+        if (bytesDone - reportedBytes >= REPORT_BYTES) {
+            report();
+        } else {
+            checkCancelled();
+        }
+    }
+
+    void fileDone() throws InterruptedIOException {
+        filesDone++;
+        report();
+    }
+
+    void checkCancelled() throws InterruptedIOException {
+        if (cancelled) {
+            throw new InterruptedIOException("Backup cancelled");
+        }
+    }
+
+    private void report() throws InterruptedIOException {
+        reportedBytes = bytesDone;
+        if (listener != null) {
+            listener.onProgress(this);
+        }
+        checkCancelled();
+    }
+}
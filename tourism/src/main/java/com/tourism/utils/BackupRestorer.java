@@ -0,0 +1,291 @@
+package com.tourism.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Restores the data files from a backup in two steps.
+ * <p>
+ * {@link #stage} unpacks the backup into data/.restore-staging and verifies every
+ * file against the backup's manifest (size, line count, and SHA-256 or chunk hashes)
+ * on the common ForkJoinPool. Nothing live is touched until all of it checks out.
+ * <p>
+ * {@link #swap} then moves the live files to data/.restore-old and the staged ones
+ * into place. A marker file makes the swap all-or-nothing: if it is still there at
+ * the next start, {@link #recover()} puts the old files back.
+ */
+class BackupRestorer {
+
+    private static final String STAGING_DIR = ".restore-staging";
+    private static final String OLD_DIR = ".restore-old";
+    private static final String IN_PROGRESS = ".in-progress";
+
+    private final Path dataDir;
+    private final Map<String, Path> targets; // backup entry name -> live file
+
+    BackupRestorer(Path dataDir, Map<String, Path> targets) {
+        this.dataDir = dataDir;
+        this.targets = targets;
+    }
+
+    /**
+     * Unpacks and verifies a backup; returns the staging directory. Entries that are
+     * not restore targets (activity log, log segments) are skipped.
+     */
+    Path stage(Path backup, BackupStore store) throws IOException {
+        Path staging = dataDir.resolve(STAGING_DIR);
+        deleteTree(staging);
+        Files.createDirectories(staging);
+        try {
+            if (backup.getFileName().toString().endsWith(BackupStore.MANIFEST_SUFFIX)) {
+                stageFromStore(BackupStore.readManifest(backup), store, staging);
+            } else {
+                stageFromZip(backup, staging);
+            }
+            return staging;
+        } catch (IOException | RuntimeException e) {
+            deleteTree(staging);
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces every target with its staged copy. A target the backup does not contain
+     * is removed, so no stale journal is replayed over restored data. The caller must
+     * keep the stores off the files meanwhile.
+     */
+    void swap(Path staging) throws IOException {
+        Path old = dataDir.resolve(OLD_DIR);
+        deleteTree(old);
+        Files.createDirectories(old);
+        Files.createFile(old.resolve(IN_PROGRESS));
+        try {
+            for (Map.Entry<String, Path> target : targets.entrySet()) {
+                if (Files.exists(target.getValue())) {
+                    Files.move(target.getValue(), old.resolve(target.getKey()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            for (Map.Entry<String, Path> target : targets.entrySet()) {
+                Path staged = staging.resolve(target.getKey());
+                if (Files.exists(staged)) {
+                    Files.move(staged, target.getValue(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (IOException e) {
+            rollBack(old);
+            throw e;
+        }
+        Files.delete(old.resolve(IN_PROGRESS));
+        deleteTree(old);
+    }
+
+    /** Undoes a swap that did not finish; called once at startup before any store loads. */
+    void recover() {
+        Path old = dataDir.resolve(OLD_DIR);
+        try {
+            if (Files.exists(old.resolve(IN_PROGRESS))) {
+                System.err.println("Previous restore did not finish; putting the old data files back");
+                rollBack(old);
+            }
+            deleteTree(old);
+            deleteTree(dataDir.resolve(STAGING_DIR));
+        } catch (IOException e) {
+            System.err.println("Error recovering from interrupted restore: " + e.getMessage());
+        }
+    }
+
+    void discard(Path staging) {
+        try {
+            deleteTree(staging);
+        } catch (IOException e) {
+            System.err.println("Error removing restore staging files: " + e.getMessage());
+        }
+    }
+
+    private void rollBack(Path old) throws IOException {
+        for (Map.Entry<String, Path> target : targets.entrySet()) {
+            Path saved = old.resolve(target.getKey());
+            if (Files.exists(saved)) {
+                Files.move(saved, target.getValue(), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(target.getValue()); // was absent before the restore
+            }
+        }
+        Files.deleteIfExists(old.resolve(IN_PROGRESS));
+    }
+
+    // ==================== ZIP BACKUPS ====================
+
+    private void stageFromZip(Path backup, Path staging) throws IOException {
+        BackupManifest manifest = null;
+        // ZipInputStream checks each entry's CRC as it reaches the end of the entry
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(backup), 1 << 16))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String entryName = entry.getName();
+                if (entryName.equals(BackupManifest.ZIP_ENTRY)) {
+                    byte[] text = zip.readAllBytes();
+                    manifest = BackupManifest.read(new BufferedReader(new InputStreamReader(
+                            new ByteArrayInputStream(text), StandardCharsets.UTF_8)));
+                } else if (targets.containsKey(entryName)) {
+                    // Only known names are written, so entry names cannot point outside staging
+                    Files.copy(zip, staging.resolve(entryName), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        if (manifest == null) {
+            System.out.println("Backup " + backup.getFileName() + " has no manifest; relying on zip checksums only");
+            return;
+        }
+
+        List<Callable<Void>> checks = new ArrayList<>();
+        for (BackupManifest.FileEntry expected : manifest.getFiles()) {
+            if (!targets.containsKey(expected.name)) {
+                continue;
+            }
+            Path staged = staging.resolve(expected.name);
+            if (!Files.exists(staged)) {
+                throw new IOException("Backup is missing " + expected.name);
+            }
+            checks.add(() -> {
+                FileDigest actual = FileDigest.of(staged);
+                verify(expected, actual.size(), actual.rows());
+                if (!actual.sha256Hex().equals(expected.sha256)) {
+                    throw new IOException("Checksum mismatch in " + expected.name);
+                }
+                return null;
+            });
+        }
+        runAll(checks);
+    }
+
+    // ==================== CHUNK STORE BACKUPS ====================
+
+    /**
+     * Every chunk is read, inflated, hash-checked and written to its offset in the
+     * staged file as a task of its own, so large files restore on all cores.
+     */
+    private void stageFromStore(BackupManifest manifest, BackupStore store, Path staging) throws IOException {
+        List<FileChannel> channels = new ArrayList<>();
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            List<BackupManifest.FileEntry> files = new ArrayList<>();
+            List<AtomicLong> newlineCounts = new ArrayList<>();
+            for (BackupManifest.FileEntry file : manifest.getFiles()) {
+                if (!targets.containsKey(file.name)) {
+                    continue;
+                }
+                FileChannel channel = FileChannel.open(staging.resolve(file.name),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+                channels.add(channel);
+                AtomicLong newlines = new AtomicLong();
+                files.add(file);
+                newlineCounts.add(newlines);
+
+                long offset = 0;
+                for (BackupManifest.Chunk chunk : file.chunks) {
+                    long position = offset;
+                    tasks.add(() -> {
+                        byte[] data = store.readChunk(chunk);
+                        newlines.addAndGet(FileDigest.countNewlines(data, data.length));
+                        ByteBuffer buffer = ByteBuffer.wrap(data);
+                        long at = position;
+                        while (buffer.hasRemaining()) {
+                            at += channel.write(buffer, at);
+                        }
+                        return null;
+                    });
+                    offset += chunk.length;
+                }
+            }
+            runAll(tasks);
+
+            for (int i = 0; i < files.size(); i++) {
+                FileChannel channel = channels.get(i);
+                long size = channel.size();
+                long rows = newlineCounts.get(i).get();
+                if (size > 0) {
+                    ByteBuffer last = ByteBuffer.allocate(1);
+                    channel.read(last, size - 1);
+                    if (last.get(0) != '\n') {
+                        rows++;
+                    }
+                }
+                channel.force(false);
+                verify(files.get(i), size, rows);
+            }
+        } finally {
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private static void verify(BackupManifest.FileEntry expected, long size, long rows) throws IOException {
+        if (size != expected.size) {
+            throw new IOException(expected.name + " is " + size + " bytes, backup recorded " + expected.size);
+        }
+        if (rows != expected.rows) {
+            throw new IOException(expected.name + " has " + rows + " rows, backup recorded " + expected.rows);
+        }
+    }
+
+    private static void runAll(List<Callable<Void>> tasks) throws IOException {
+        try {
+            for (Future<Void> result : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Restore interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
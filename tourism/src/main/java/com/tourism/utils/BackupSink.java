@@ -0,0 +1,39 @@
+package com.tourism.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Destination of one backup: a zip file or a manifest in the chunk store. Entries are
+ * written one at a time; nothing counts as backed up until {@link #commit()} returns.
+ * Closing a sink that was not committed discards the partial backup.
+ */
+interface BackupSink extends Closeable {
+
+    /** Starts a new entry; closing the returned stream ends the entry (not the backup). */
+    OutputStream openEntry(String entryName) throws IOException;
+
+    /** Copies a file in as one entry, reporting to (and checking for cancel via) the progress. */
+    default void addFile(String entryName, Path file, BackupProgress progress) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file); OutputStream out = openEntry(entryName)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+                progress.addBytes(n);
+            }
+        }
+    }
+
+    /** Like {@link #addFile}, for a file that is already compressed (e.g. a gzip log segment). */
+    default void addCompressedFile(String entryName, Path file, BackupProgress progress) throws IOException {
+        addFile(entryName, file, progress);
+    }
+
+    /** Finishes the backup and returns where it was written. */
+    String commit() throws IOException;
+}
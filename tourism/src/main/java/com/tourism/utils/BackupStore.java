@@ -0,0 +1,260 @@
+package com.tourism.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Content-addressed backup store (tourism.backup.mode=incremental).
+ * <p>
+ * Every backed-up file is cut into fixed-size chunks, and each chunk is stored once
+ * under its SHA-256 in chunks/xx/hash (deflate-compressed). A backup is a small
+ * {@link BackupManifest} in manifests/ that lists, per file, its size, line count and
+ * SHA-256, followed by the hashes of its chunks. A chunk that is already in the store is not
+ * written again, so a backup costs roughly what changed since the previous one. Data
+ * files here only ever grow at the end or are rewritten whole, which fixed-size chunks
+ * handle well.
+ * <p>
+ * Only the newest {@code keepManifests} manifests are kept; chunks no remaining
+ * manifest refers to are deleted with them.
+ */
+class BackupStore {
+
+    static final String MANIFEST_SUFFIX = ".manifest";
+
+    private final Path chunkDir;
+    private final Path manifestDir;
+    private final int chunkBytes;
+    private final int keepManifests;
+
+    BackupStore(Path root, int chunkBytes, int keepManifests) {
+        this.chunkDir = root.resolve("chunks");
+        this.manifestDir = root.resolve("manifests");
+        this.chunkBytes = Math.max(4096, chunkBytes);
+        this.keepManifests = Math.max(1, keepManifests);
+    }
+
+    /** Starts a backup that is recorded as manifests/{backupName}.manifest on commit. */
+    BackupSink begin(String backupName) throws IOException {
+        Files.createDirectories(chunkDir);
+        Files.createDirectories(manifestDir);
+        return new ManifestSink(manifestDir.resolve(backupName + MANIFEST_SUFFIX));
+    }
+
+    /** Manifests in the store, oldest first. */
+    List<Path> listManifests() {
+        List<Path> manifests = new ArrayList<>();
+        if (!Files.isDirectory(manifestDir)) {
+            return manifests;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(manifestDir, "*" + MANIFEST_SUFFIX)) {
+            for (Path manifest : stream) {
+                manifests.add(manifest);
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing backup manifests: " + e.getMessage());
+        }
+        Collections.sort(manifests);
+        return manifests;
+    }
+
+    static BackupManifest readManifest(Path manifestFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            return BackupManifest.read(reader);
+        }
+    }
+
+    /** Inflates one chunk and checks it against its hash and length. */
+    byte[] readChunk(BackupManifest.Chunk chunk) throws IOException {
+        Path path = chunkPath(chunk.hash);
+        if (!Files.exists(path)) {
+            throw new IOException("Backup chunk missing: " + chunk.hash);
+        }
+        byte[] data;
+        try (InputStream in = new InflaterInputStream(Files.newInputStream(path), new Inflater(), 1 << 16)) {
+            data = in.readAllBytes();
+        } catch (ZipException e) {
+            throw new IOException("Backup chunk damaged: " + chunk.hash, e);
+        }
+        MessageDigest digest = FileDigest.sha256();
+        if (data.length != chunk.length || !HexFormat.of().formatHex(digest.digest(data)).equals(chunk.hash)) {
+            throw new IOException("Backup chunk damaged: " + chunk.hash);
+        }
+        return data;
+    }
+
+    private Path chunkPath(String hash) {
+        return chunkDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /** Stores one chunk unless the store already has it; returns its hash. */
+    private String storeChunk(byte[] data, int length, int level, MessageDigest digest, Stats stats) throws IOException {
+        digest.reset();
+        digest.update(data, 0, length);
+        String hash = HexFormat.of().formatHex(digest.digest());
+        Path target = chunkPath(hash);
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling(hash + ".tmp");
+            try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(temp),
+                    new Deflater(level), 1 << 16)) {
+                out.write(data, 0, length);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                stats.newChunks++;
+                stats.newBytes += length;
+            } catch (FileAlreadyExistsException e) {
+                Files.deleteIfExists(temp); // stored meanwhile by someone else
+            }
+        }
+        stats.totalBytes += length;
+        return hash;
+    }
+
+    /** Deletes manifests beyond the retention count and the chunks only they referred to. */
+    private void prune() throws IOException {
+        List<Path> manifests = listManifests();
+        if (manifests.size() <= keepManifests) {
+            return;
+        }
+        for (Path manifest : manifests.subList(0, manifests.size() - keepManifests)) {
+            Files.deleteIfExists(manifest);
+        }
+        Set<String> referenced = new HashSet<>();
+        for (Path manifest : listManifests()) {
+            for (BackupManifest.FileEntry file : readManifest(manifest).getFiles()) {
+                for (BackupManifest.Chunk chunk : file.chunks) {
+                    referenced.add(chunk.hash);
+                }
+            }
+        }
+        try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(chunkDir)) {
+            for (Path prefix : prefixes) {
+                try (DirectoryStream<Path> chunks = Files.newDirectoryStream(prefix)) {
+                    for (Path chunk : chunks) {
+                        if (!referenced.contains(chunk.getFileName().toString())) {
+                            Files.deleteIfExists(chunk);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Stats {
+        int newChunks;
+        long newBytes;
+        long totalBytes;
+    }
+
+    /** Builds the manifest while entries are chunked into the store. */
+    private final class ManifestSink implements BackupSink {
+
+        private final Path manifestFile;
+        private final BackupManifest manifest = new BackupManifest();
+        private final MessageDigest chunkDigest = FileDigest.sha256();
+        private final byte[] buffer = new byte[chunkBytes];
+        private final Stats stats = new Stats();
+        private int level = Deflater.BEST_SPEED;
+
+        ManifestSink(Path manifestFile) {
+            this.manifestFile = manifestFile;
+        }
+
+        @Override
+        public OutputStream openEntry(String entryName) {
+            return new OutputStream() {
+                private final FileDigest digest = new FileDigest();
+                private final List<BackupManifest.Chunk> chunks = new ArrayList<>();
+                private int filled;
+
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] data, int offset, int length) throws IOException {
+                    digest.update(data, offset, length);
+                    while (length > 0) {
+                        int n = Math.min(length, buffer.length - filled);
+                        System.arraycopy(data, offset, buffer, filled, n);
+                        filled += n;
+                        offset += n;
+                        length -= n;
+                        if (filled == buffer.length) {
+                            flushChunk();
+                        }
+                    }
+                }
+
+                private void flushChunk() throws IOException {
+                    chunks.add(new BackupManifest.Chunk(storeChunk(buffer, filled, level, chunkDigest, stats), filled));
+                    filled = 0;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (filled > 0) {
+                        flushChunk();
+                    }
+                    manifest.addFile(entryName, digest).chunks.addAll(chunks);
+                }
+            };
+        }
+
+        /** Chunks of already-compressed files are stored without another round of deflate. */
+        @Override
+        public void addCompressedFile(String entryName, Path file, BackupProgress progress) throws IOException {
+            level = Deflater.NO_COMPRESSION;
+            try {
+                addFile(entryName, file, progress);
+            } finally {
+                level = Deflater.BEST_SPEED;
+            }
+        }
+
+        @Override
+        public String commit() throws IOException {
+            Path temp = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                manifest.write(writer);
+            }
+            Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Backup stored " + stats.newChunks + " new chunk(s), " + stats.newBytes
+                    + " of " + stats.totalBytes + " bytes");
+            try {
+                prune();
+            } catch (IOException e) {
+                System.err.println("Error pruning backup store: " + e.getMessage());
+            }
+            return manifestFile.toString();
+        }
+
+        @Override
+        public void close() {
+            // Chunks written so far stay: a later backup reuses them, or prune removes them
+        }
+    }
+}
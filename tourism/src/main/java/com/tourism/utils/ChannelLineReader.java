@@ -0,0 +1,235 @@
+package com.tourism.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the lines of a data file without ever holding the whole file as a List.
+ * The file is read with positional channel reads into a direct buffer that is reused
+ * per thread, and line ends are found directly in the bytes; only the line being
+ * handed out is decoded. Nothing stays mapped or open once a read has finished, so
+ * the file can be rewritten or replaced straight away, on Windows too.
+ * <p>
+ * Lines are decoded as UTF-8 and end at "\n", "\r\n" or a lone "\r", as with
+ * BufferedReader.readLine.
+ */
+public class ChannelLineReader {
+
+    private static final int BUFFER_SIZE = (int) Math.max(4096,
+            Math.min(AppConfig.getLong("tourism.io.readBufferBytes", 1024 * 1024), Integer.MAX_VALUE));
+
+    // A buffer per thread, taken by an open cursor and given back on close
+    private static final ThreadLocal<ByteBuffer> SPARE_BUFFER = new ThreadLocal<>();
+
+    /** Hands every line of the file to the consumer, in order. */
+    public static void forEachLine(Path path, Consumer<String> consumer) throws IOException {
+        forEachLine(path, 0, Long.MAX_VALUE, consumer);
+    }
+
+    /**
+     * Hands every line that starts inside [from, to) to the consumer. The range must
+     * begin at a line start; a line that starts before {@code to} is read to its end
+     * even if that lies beyond {@code to}.
+     */
+    public static void forEachLine(Path path, long from, long to, Consumer<String> consumer) throws IOException {
+        try (LineCursor cursor = new LineCursor(path, from, to)) {
+            String line;
+            while ((line = cursor.next()) != null) {
+                consumer.accept(line);
+            }
+        }
+    }
+
+    /**
+     * Splits the file into at most {@code parts} byte ranges of similar size, each
+     * starting at a line start. Returns the boundaries: range i is
+     * [bounds[i], bounds[i + 1]).
+     */
+    public static long[] splitAtLines(Path path, int parts) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = new long[parts + 1];
+            int count = 1; // bounds[0] = 0
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            for (int i = 1; i < parts; i++) {
+                long boundary = Math.max(size * i / parts, bounds[count - 1]);
+                boundary = nextLineStart(channel, boundary, size, probe);
+                if (boundary > bounds[count - 1] && boundary < size) {
+                    bounds[count++] = boundary;
+                }
+            }
+            bounds[count++] = size;
+            return Arrays.copyOf(bounds, count);
+        }
+    }
+
+    /** Offset of the first line starting at or after {@code offset}. */
+    private static long nextLineStart(FileChannel channel, long offset, long size, ByteBuffer probe) throws IOException {
+        if (offset == 0) {
+            return 0;
+        }
+        long position = offset - 1; // the byte before a line start ends a line
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = probe.get(i);
+                if (b == '\n') {
+                    return position + i + 1;
+                }
+                if (b == '\r') {
+                    // "\r\n" is one line end; the line starts after both
+                    long next = position + i + 1;
+                    boolean newline = i + 1 < read ? probe.get(i + 1) == '\n' : byteAt(channel, next, size) == '\n';
+                    return newline ? next + 1 : next;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static int byteAt(FileChannel channel, long offset, long size) throws IOException {
+        if (offset >= size) {
+            return -1;
+        }
+        ByteBuffer one = ByteBuffer.allocate(1);
+        return channel.read(one, offset) == 1 ? one.get(0) : -1;
+    }
+
+    /** Lazily streams the lines of a file; close the stream to release the file. */
+    public static Stream<String> lines(Path path) throws IOException {
+        LineCursor cursor = new LineCursor(path, 0, Long.MAX_VALUE);
+        Iterator<String> iterator = new Iterator<>() {
+            private String pending;
+
+            @Override
+            public boolean hasNext() {
+                if (pending == null) {
+                    try {
+                        pending = cursor.next();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return pending != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String line = pending;
+                pending = null;
+                return line;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+
+    /** Walks line ends through successive reads of one file into a buffer. */
+    private static class LineCursor implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final long to;
+        private final ByteBuffer buffer;
+
+        private long bufferStart;  // file offset of buffer position 0
+        private int position;      // next unread byte within the buffer
+        private boolean skipNewline; // the last line ended with '\r'; a '\n' right after it belongs to it
+        private byte[] lineBuffer = new byte[256];
+        private int lineLength;
+
+        LineCursor(Path path, long from, long to) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.to = to;
+            this.bufferStart = from;
+            ByteBuffer spare = SPARE_BUFFER.get();
+            if (spare != null) {
+                SPARE_BUFFER.remove();
+                spare.clear();
+            }
+            this.buffer = spare != null ? spare : ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.limit(0);
+        }
+
+        /** Returns the next line, or null once no line starts before the end of the range (or the file). */
+        String next() throws IOException {
+            if (skipNewline) {
+                skipNewline = false;
+                if ((position < buffer.limit() || fill()) && buffer.get(position) == '\n') {
+                    position++;
+                }
+            }
+            if (bufferStart + position >= to || (position == buffer.limit() && !fill())) {
+                return null;
+            }
+            lineLength = 0;
+            while (true) {
+                int limit = buffer.limit();
+                for (int i = position; i < limit; i++) {
+                    byte b = buffer.get(i);
+                    if (b == '\n' || b == '\r') {
+                        append(position, i);
+                        position = i + 1;
+                        skipNewline = b == '\r';
+                        return new String(lineBuffer, 0, lineLength, StandardCharsets.UTF_8);
+                    }
+                }
+                append(position, limit);
+                position = limit;
+                if (!fill()) {
+                    return new String(lineBuffer, 0, lineLength, StandardCharsets.UTF_8); // last line has no line end
+                }
+            }
+        }
+
+        /** Reads the bytes after the buffered ones; false at the end of the file. */
+        private boolean fill() throws IOException {
+            bufferStart += position;
+            position = 0;
+            buffer.clear();
+            int read = channel.read(buffer, bufferStart);
+            buffer.flip();
+            return read > 0;
+        }
+
+        private void append(int start, int end) {
+            int length = end - start;
+            if (lineLength + length > lineBuffer.length) {
+                lineBuffer = Arrays.copyOf(lineBuffer, Math.max(lineLength + length, lineBuffer.length * 2));
+            }
+            buffer.get(start, lineBuffer, lineLength, length);
+            lineLength += length;
+        }
+
+        @Override
+        public void close() {
+            SPARE_BUFFER.set(buffer);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing data file: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.tourism.utils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small fixed-size JDBC connection pool. Connections are opened on demand up to
+ * the maximum and handed back after each unit of work; a caller that finds the
+ * pool exhausted waits for a connection to be returned.
+ */
+class ConnectionPool {
+
+    /** A unit of work that runs on a pooled connection. */
+    interface SqlWork<R> {
+        R run(Connection connection) throws SQLException;
+    }
+
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final BlockingQueue<Connection> idle;
+    private final AtomicInteger opened = new AtomicInteger();
+
+    ConnectionPool(String url, String user, String password, int maxSize) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.idle = new ArrayBlockingQueue<>(this.maxSize);
+    }
+
+    /** Runs the work on a pooled connection; a transaction left open by the work is rolled back. */
+    <R> R withConnection(SqlWork<R> work) throws SQLException {
+        Connection connection = borrow();
+        try {
+            return work.run(connection);
+        } finally {
+            release(connection);
+        }
+    }
+
+    /** Runs the work as a single transaction. */
+    <R> R inTransaction(SqlWork<R> work) throws SQLException {
+        return withConnection(connection -> {
+            connection.setAutoCommit(false);
+            R result = work.run(connection);
+            connection.commit();
+            connection.setAutoCommit(true);
+            return result;
+        });
+    }
+
+    void close() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private Connection borrow() throws SQLException {
+        Connection connection = idle.poll();
+        while (connection != null && connection.isClosed()) {
+            opened.decrementAndGet();
+            connection = idle.poll();
+        }
+        if (connection != null) {
+            return connection;
+        }
+        if (opened.incrementAndGet() <= maxSize) {
+            try {
+                return DriverManager.getConnection(url, user, password);
+            } catch (SQLException e) {
+                opened.decrementAndGet();
+                if ("08001".equals(e.getSQLState()) && e.getMessage().startsWith("No suitable driver")) {
+                    // The H2 module is optional (requires static): only there if shipped with the app
+                    throw new SQLException("No JDBC driver for " + url + "; SQL storage needs the H2 jar on the module path",
+                            e.getSQLState(), e);
+                }
+                throw e;
+            }
+        }
+        opened.decrementAndGet();
+        try {
+            connection = idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection");
+        }
+        if (connection == null) {
+            throw new SQLException("Timed out waiting for a database connection");
+        }
+        return connection;
+    }
+
+    private void release(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                opened.decrementAndGet();
+                return;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (!idle.offer(connection)) {
+                opened.decrementAndGet();
+                closeQuietly(connection);
+            }
+        } catch (SQLException e) {
+            System.err.println("Discarding database connection: " + e.getMessage());
+            opened.decrementAndGet();
+            closeQuietly(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing database connection: " + e.getMessage());
+        }
+    }
+}
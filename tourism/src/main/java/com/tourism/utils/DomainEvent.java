@@ -0,0 +1,205 @@
+package com.tourism.utils;
+
+import com.tourism.models.Booking;
+import com.tourism.models.FestivalDiscount;
+import com.tourism.models.Guide;
+import com.tourism.models.TourPackage;
+import com.tourism.models.Tourist;
+
+/**
+ * A change to the stored data, published on the {@link EventBus} by
+ * {@link FileDataManager} once the write has succeeded. A write publishes the matching
+ * typed event per record (a batch delete, one per key); batch saves and full replaces
+ * publish a single {@link BulkChange} instead.
+ */
+public abstract class DomainEvent {
+
+    DomainEvent() {
+    }
+
+    /** A new tourist or a changed one. */
+    public static final class TouristSaved extends DomainEvent {
+        private final Tourist tourist;
+
+        TouristSaved(Tourist tourist) {
+            this.tourist = tourist;
+        }
+
+        public Tourist getTourist() {
+            return tourist;
+        }
+    }
+
+    public static final class TouristDeleted extends DomainEvent {
+        private final String touristId;
+
+        TouristDeleted(String touristId) {
+            this.touristId = touristId;
+        }
+
+        public String getTouristId() {
+            return touristId;
+        }
+    }
+
+    /** A new guide or a changed one. */
+    public static final class GuideSaved extends DomainEvent {
+        private final Guide guide;
+
+        GuideSaved(Guide guide) {
+            this.guide = guide;
+        }
+
+        public Guide getGuide() {
+            return guide;
+        }
+    }
+
+    public static final class GuideDeleted extends DomainEvent {
+        private final String guideId;
+
+        GuideDeleted(String guideId) {
+            this.guideId = guideId;
+        }
+
+        public String getGuideId() {
+            return guideId;
+        }
+    }
+
+    /** A new package or a changed one. */
+    public static final class PackageSaved extends DomainEvent {
+        private final TourPackage tourPackage;
+
+        PackageSaved(TourPackage tourPackage) {
+            this.tourPackage = tourPackage;
+        }
+
+        public TourPackage getPackage() {
+            return tourPackage;
+        }
+    }
+
+    public static final class PackageDeleted extends DomainEvent {
+        private final String packageId;
+
+        PackageDeleted(String packageId) {
+            this.packageId = packageId;
+        }
+
+        public String getPackageId() {
+            return packageId;
+        }
+    }
+
+    public static final class BookingCreated extends DomainEvent {
+        private final Booking booking;
+
+        BookingCreated(Booking booking) {
+            this.booking = booking;
+        }
+
+        public Booking getBooking() {
+            return booking;
+        }
+    }
+
+    /** An existing booking saved again as a whole. */
+    public static final class BookingUpdated extends DomainEvent {
+        private final Booking booking;
+
+        BookingUpdated(Booking booking) {
+            this.booking = booking;
+        }
+
+        public Booking getBooking() {
+            return booking;
+        }
+    }
+
+    public static final class BookingStatusChanged extends DomainEvent {
+        private final String bookingId;
+        private final String status;
+
+        BookingStatusChanged(String bookingId, String status) {
+            this.bookingId = bookingId;
+            this.status = status;
+        }
+
+        public String getBookingId() {
+            return bookingId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+
+    public static final class BookingPaymentStatusChanged extends DomainEvent {
+        private final String bookingId;
+        private final String paymentStatus;
+
+        BookingPaymentStatusChanged(String bookingId, String paymentStatus) {
+            this.bookingId = bookingId;
+            this.paymentStatus = paymentStatus;
+        }
+
+        public String getBookingId() {
+            return bookingId;
+        }
+
+        public String getPaymentStatus() {
+            return paymentStatus;
+        }
+    }
+
+    public static final class BookingDeleted extends DomainEvent {
+        private final String bookingId;
+
+        BookingDeleted(String bookingId) {
+            this.bookingId = bookingId;
+        }
+
+        public String getBookingId() {
+            return bookingId;
+        }
+    }
+
+    /** A festival discount was added, changed or deleted. */
+    public static final class DiscountChanged extends DomainEvent {
+        private final String discountId;
+        private final FestivalDiscount discount;
+
+        DiscountChanged(String discountId, FestivalDiscount discount) {
+            this.discountId = discountId;
+            this.discount = discount;
+        }
+
+        public String getDiscountId() {
+            return discountId;
+        }
+
+        /** The saved discount, or null if it was deleted. */
+        public FestivalDiscount getDiscount() {
+            return discount;
+        }
+    }
+
+    /**
+     * Many records changed at once (a batch save, a full replace, a restore);
+     * listeners reload instead of updating record by record.
+     */
+    public static final class BulkChange extends DomainEvent {
+        private final Class<?> recordType;
+
+        /** @param recordType the model class changed, or null for all of them */
+        BulkChange(Class<?> recordType) {
+            this.recordType = recordType;
+        }
+
+        /** Whether records of the given type may have changed. */
+        public boolean affects(Class<?> type) {
+            return recordType == null || recordType == type;
+        }
+    }
+}
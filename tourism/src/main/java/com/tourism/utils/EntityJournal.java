@@ -0,0 +1,142 @@
+package com.tourism.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only change log that sits next to a data file.
+ * Record format (one per line):
+ *   PUT|&lt;formatted record&gt;
+ *   DEL|&lt;key&gt;
+ *   SET|&lt;key&gt;|&lt;field&gt;|&lt;value&gt;
+ * While a compaction is running the active journal is parked as *.compacting,
+ * so writers can keep appending to a fresh journal in the meantime.
+ */
+class EntityJournal {
+
+    static final String PUT = "PUT";
+    static final String DELETE = "DEL";
+    static final String SET = "SET";
+
+    private static final int LINE_SEPARATOR_BYTES = System.lineSeparator().length(); // ASCII, one byte per char
+
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final long compactThresholdBytes;
+
+    private BufferedWriter writer;
+    private long size; // bytes in the active journal file
+
+    EntityJournal(String journalPath, long compactThresholdBytes) {
+        this.journalFile = Paths.get(journalPath);
+        this.compactingFile = Paths.get(journalPath + ".compacting");
+        this.compactThresholdBytes = compactThresholdBytes;
+    }
+
+    Path getJournalFile() {
+        return journalFile;
+    }
+
+    Path getCompactingFile() {
+        return compactingFile;
+    }
+
+    /** Hands every journal record to the consumer in write order: the parked journal first, then the active one. */
+    void forEachRecord(Consumer<String> consumer) throws IOException {
+        for (Path path : List.of(compactingFile, journalFile)) {
+            if (Files.exists(path)) {
+                ChannelLineReader.forEachLine(path, line -> {
+                    if (!line.isEmpty()) {
+                        consumer.accept(line);
+                    }
+                });
+            }
+        }
+        size = Files.exists(journalFile) ? Files.size(journalFile) : 0;
+    }
+
+    void append(String op, String... fields) throws IOException {
+        StringBuilder sb = new StringBuilder(op);
+        for (String field : fields) {
+            sb.append('|').append(field != null ? field : "");
+        }
+        write(sb.toString());
+        writer.flush();
+    }
+
+    /** Appends one record per payload with a single flush, e.g. a PUT for every record of a batch. */
+    void appendAll(String op, Collection<String> payloads) throws IOException {
+        for (String payload : payloads) {
+            write(op + '|' + (payload != null ? payload : ""));
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    private void write(String record) throws IOException {
+        if (writer == null) {
+            writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writer.write(record);
+        writer.newLine();
+        size += record.getBytes(StandardCharsets.UTF_8).length + LINE_SEPARATOR_BYTES;
+    }
+
+    boolean needsCompaction() {
+        return size >= compactThresholdBytes;
+    }
+
+    /**
+     * Parks the active journal so a snapshot can be written without blocking writers.
+     * If an earlier compaction died half-way, the active records are folded into the
+     * parked file instead so nothing is replayed out of order.
+     */
+    void beginCompaction() throws IOException {
+        closeWriter();
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        if (Files.exists(compactingFile)) {
+            Files.write(compactingFile, Files.readAllBytes(journalFile), StandardOpenOption.APPEND);
+            Files.delete(journalFile);
+        } else {
+            Files.move(journalFile, compactingFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        size = 0;
+    }
+
+    /** Called once the snapshot that covers the parked journal is safely on disk. */
+    void finishCompaction() throws IOException {
+        Files.deleteIfExists(compactingFile);
+    }
+
+    /** Discards the whole journal; used after a full rewrite of the data file. */
+    void reset() throws IOException {
+        closeWriter();
+        Files.deleteIfExists(compactingFile);
+        Files.deleteIfExists(journalFile);
+        size = 0;
+    }
+
+    void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Error closing journal " + journalFile + ": " + e.getMessage());
+            }
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.tourism.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary copy of one entity file (*.snap), read at startup instead of
+ * parsing the text file when it is still current.
+ * <p>
+ * Layout: a header (magic, version, entity name, and the size and modification time
+ * of the text file the snapshot was taken against), then blocks of up to
+ * {@value #BLOCK_RECORDS} records, then an end marker with the total record count.
+ * Each block keeps its fields in two packed sections: numbers, booleans and
+ * dictionary references in one, length-prefixed UTF-8 strings in the other, followed
+ * by a CRC32 of both. Repeated values (statuses, package ids, ...) go through a
+ * dictionary that is built up in write order, so each distinct value is stored once.
+ * <p>
+ * A snapshot whose stamp no longer matches its text file is ignored; the text file
+ * stays the source of truth.
+ */
+class EntitySnapshot {
+
+    private static final int MAGIC = 0x544F5552; // "TOUR"
+    private static final int VERSION = 2; // 2: bookings and tourists carry their dates
+    private static final int BLOCK_RECORDS = 4096;
+
+    /** Size and modification time of a text file, used to tell whether a snapshot is current. */
+    static final class Stamp {
+        final long size;
+        final long modified;
+
+        Stamp(long size, long modified) {
+            this.size = size;
+            this.modified = modified;
+        }
+
+        static Stamp of(Path file) throws IOException {
+            return new Stamp(Files.size(file), Files.getLastModifiedTime(file).toMillis());
+        }
+
+        boolean matches(Stamp other) {
+            return size == other.size && modified == other.modified;
+        }
+    }
+
+    private EntitySnapshot() {
+    }
+
+    // ==================== WRITING ====================
+
+    static <T> void write(Path snapshotFile, String entityName, Stamp source, Collection<T> records,
+                          BiConsumer<T, Writer> encoder) throws IOException {
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(entityName);
+            out.writeLong(source.size);
+            out.writeLong(source.modified);
+
+            Writer writer = new Writer();
+            int inBlock = 0;
+            for (T record : records) {
+                encoder.accept(record, writer);
+                if (++inBlock == BLOCK_RECORDS) {
+                    writer.flushBlock(out, inBlock);
+                    inBlock = 0;
+                }
+            }
+            if (inBlock > 0) {
+                writer.flushBlock(out, inBlock);
+            }
+            out.writeInt(0); // end marker
+            out.writeLong(records.size());
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Field sink handed to entity encoders; fields must be read back in the same order. */
+    static final class Writer {
+        private final PackedBuffer numbers = new PackedBuffer();
+        private final PackedBuffer strings = new PackedBuffer();
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        void writeString(String value) {
+            if (value == null) {
+                strings.writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            strings.writeVarInt(bytes.length + 1);
+            strings.write(bytes);
+        }
+
+        /** Writes a value that repeats across records; stored once and referenced afterwards. */
+        void writeSymbol(String value) {
+            Integer id = value != null ? dictionary.get(value) : null;
+            if (id != null) {
+                numbers.writeVarInt(id + 1);
+            } else {
+                numbers.writeVarInt(0);
+                writeString(value);
+                if (value != null) {
+                    dictionary.put(value, dictionary.size());
+                }
+            }
+        }
+
+        void writeInt(int value) {
+            numbers.writeVarInt((value << 1) ^ (value >> 31)); // zigzag keeps small negatives small
+        }
+
+        void writeDouble(double value) {
+            numbers.writeLong(Double.doubleToRawLongBits(value));
+        }
+
+        void writeBoolean(boolean value) {
+            numbers.writeByte(value ? 1 : 0);
+        }
+
+        private void flushBlock(DataOutputStream out, int recordCount) throws IOException {
+            CRC32 crc = new CRC32();
+            crc.update(numbers.bytes, 0, numbers.length);
+            crc.update(strings.bytes, 0, strings.length);
+            out.writeInt(recordCount);
+            out.writeInt(numbers.length);
+            out.writeInt(strings.length);
+            out.write(numbers.bytes, 0, numbers.length);
+            out.write(strings.bytes, 0, strings.length);
+            out.writeInt((int) crc.getValue());
+            numbers.length = 0;
+            strings.length = 0;
+        }
+    }
+
+    // ==================== READING ====================
+
+    /**
+     * Streams the records of a snapshot to the consumer, block by block. Returns false
+     * (without reading records) if the snapshot was taken against a different version
+     * of the text file. Throws if the snapshot is damaged; records already handed out
+     * must then be discarded by the caller.
+     */
+    static <T> boolean read(Path snapshotFile, String entityName, Stamp source, Function<Reader, T> decoder,
+                            Consumer<T> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !entityName.equals(in.readUTF())) {
+                return false;
+            }
+            if (!source.matches(new Stamp(in.readLong(), in.readLong()))) {
+                return false;
+            }
+
+            Reader reader = new Reader();
+            long total = 0;
+            byte[] numberBytes = new byte[0];
+            byte[] stringBytes = new byte[0];
+            int recordCount;
+            while ((recordCount = in.readInt()) > 0) {
+                int numbersLength = in.readInt();
+                int stringsLength = in.readInt();
+                if (numbersLength > numberBytes.length) {
+                    numberBytes = new byte[numbersLength];
+                }
+                if (stringsLength > stringBytes.length) {
+                    stringBytes = new byte[stringsLength];
+                }
+                in.readFully(numberBytes, 0, numbersLength);
+                in.readFully(stringBytes, 0, stringsLength);
+
+                CRC32 crc = new CRC32();
+                crc.update(numberBytes, 0, numbersLength);
+                crc.update(stringBytes, 0, stringsLength);
+                if (in.readInt() != (int) crc.getValue()) {
+                    throw new IOException("Checksum mismatch in " + snapshotFile);
+                }
+
+                reader.numbers = ByteBuffer.wrap(numberBytes, 0, numbersLength);
+                reader.strings = ByteBuffer.wrap(stringBytes, 0, stringsLength);
+                for (int i = 0; i < recordCount; i++) {
+                    consumer.accept(decoder.apply(reader));
+                }
+                total += recordCount;
+            }
+            if (in.readLong() != total) {
+                throw new IOException("Record count mismatch in " + snapshotFile);
+            }
+            return true;
+        }
+    }
+
+    /** Field source handed to entity decoders. */
+    static final class Reader {
+        private ByteBuffer numbers;
+        private ByteBuffer strings;
+        private final List<String> dictionary = new ArrayList<>();
+
+        String readString() {
+            int length = readVarInt(strings) - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(strings.array(), strings.position(), length, StandardCharsets.UTF_8);
+            strings.position(strings.position() + length);
+            return value;
+        }
+
+        String readSymbol() {
+            int ref = readVarInt(numbers);
+            if (ref > 0) {
+                return dictionary.get(ref - 1);
+            }
+            String value = readString();
+            if (value != null) {
+                dictionary.add(value);
+            }
+            return value;
+        }
+
+        int readInt() {
+            int zigzag = readVarInt(numbers);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        double readDouble() {
+            return Double.longBitsToDouble(numbers.getLong());
+        }
+
+        boolean readBoolean() {
+            return numbers.get() != 0;
+        }
+
+        private static int readVarInt(ByteBuffer buffer) {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+    }
+
+    /** Growable byte array with varint helpers. */
+    private static final class PackedBuffer {
+        private byte[] bytes = new byte[1 << 12];
+        private int length;
+
+        void writeByte(int b) {
+            ensure(1);
+            bytes[length++] = (byte) b;
+        }
+
+        void write(byte[] data) {
+            ensure(data.length);
+            System.arraycopy(data, 0, bytes, length, data.length);
+            length += data.length;
+        }
+
+        void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
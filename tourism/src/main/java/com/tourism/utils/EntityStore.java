@@ -0,0 +1,785 @@
+package com.tourism.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Resident in-memory copy of one pipe-delimited data file.
+ * The file is read once on first access; after that every read is answered
+ * from memory and every mutation is written straight through to disk.
+ * <p>
+ * With a journal attached, mutations are appended to the journal instead of
+ * rewriting the file, and a background compactor folds the journal back into
+ * the data file once it grows past its threshold.
+ * <p>
+ * Records are held in a hash map keyed by primary key (in file order), and any
+ * registered secondary indexes are updated on every mutation, so point lookups
+ * never scan.
+ * <p>
+ * The resident records never leave the store: reads hand out copies and saves keep
+ * a copy, so a caller changing a record it holds (e.g. on the FX thread while a
+ * background load reads the store) cannot change the store behind its lock.
+ */
+class EntityStore<T> implements Repository<T, String> {
+
+    // One compactor thread is plenty: compactions are rare and per-store serialized
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "entity-store-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+    private final Path file;
+    private final Function<String, T> parser;
+    private final Function<T, String> formatter;
+    private final UnaryOperator<T> copier;
+    private final Function<T, String> keyExtractor;
+    private final boolean createIfMissing;
+    private final Supplier<List<T>> defaults;
+
+    private static final long PARALLEL_LOAD_BYTES = AppConfig.getLong("tourism.io.parallelLoadBytes", 8L * 1024 * 1024);
+    private static final int PARALLEL_INDEX_RECORDS = AppConfig.getInt("tourism.io.parallelIndexRecords", 50_000);
+    private static final long MIN_CHUNK_BYTES = 1024 * 1024;
+
+    private EntityJournal journal; // null: every mutation rewrites the whole file
+    private boolean parallelLoad;
+    private Path snapshotFile; // null: no binary snapshot
+    private BiConsumer<T, EntitySnapshot.Writer> snapshotEncoder;
+    private Function<EntitySnapshot.Reader, T> snapshotDecoder;
+    private final Map<String, BiConsumer<T, String>> fieldSetters = new HashMap<>();
+    private final Map<String, RecordIndex<T>> indexes = new HashMap<>();
+    private final Map<String, Function<T, String>> indexedAttributes = new LinkedHashMap<>();
+    private final Map<String, List<Function<T, String>>> textFields = new HashMap<>();
+    private final Map<String, String> sumGroups = new LinkedHashMap<>(); // sum index -> index it groups by
+    private final Map<String, ToDoubleFunction<T>> sumAmounts = new LinkedHashMap<>();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean(false);
+    private final Object snapshotLock = new Object();
+    private long snapshotGeneration; // bumped by every full rewrite, guarded by snapshotLock
+    private volatile long version; // bumped under the store lock by every change
+    private PageQuery pageQuery; // the last paged query, and its keys in order until the store changes
+    private long pageVersion;
+    private List<String> pageKeys;
+
+    private LinkedHashMap<String, T> records; // primary key -> record, null until the file has been loaded
+
+    /** @param copier makes a detached copy of a record, e.g. the model's copy constructor */
+    EntityStore(String name, String filePath, Function<String, T> parser, Function<T, String> formatter,
+                UnaryOperator<T> copier, Function<T, String> keyExtractor, boolean createIfMissing,
+                Supplier<List<T>> defaults) {
+        this.name = name;
+        this.file = Paths.get(filePath);
+        this.parser = parser;
+        this.formatter = formatter;
+        this.copier = copier;
+        this.keyExtractor = keyExtractor;
+        this.createIfMissing = createIfMissing;
+        this.defaults = defaults;
+    }
+
+    /** Switches the store to journaled persistence. Must be called before first use. */
+    void enableJournal(String journalPath, long compactThresholdBytes) {
+        this.journal = new EntityJournal(journalPath, compactThresholdBytes);
+    }
+
+    /** Parses large files in line-aligned chunks on the common ForkJoinPool. Must be called before first use. */
+    void enableParallelLoad() {
+        this.parallelLoad = true;
+    }
+
+    /** Keeps a binary snapshot next to the text file for faster startup. Must be called before first use. */
+    void enableSnapshot(String snapshotPath, BiConsumer<T, EntitySnapshot.Writer> encoder,
+                        Function<EntitySnapshot.Reader, T> decoder) {
+        this.snapshotFile = Paths.get(snapshotPath);
+        this.snapshotEncoder = encoder;
+        this.snapshotDecoder = decoder;
+    }
+
+    /** Adds a unique secondary index, e.g. username -> user. Must be called before first use. */
+    void addUniqueIndex(String indexName, Function<T, String> extractor) {
+        indexes.put(indexName, new UniqueIndex<>(extractor));
+        indexedAttributes.put(indexName, extractor);
+    }
+
+    /** Adds a multi-valued secondary index, e.g. status -> bookings. Must be called before first use. */
+    void addIndex(String indexName, Function<T, String> extractor) {
+        indexes.put(indexName, new MultiIndex<>(extractor));
+        indexedAttributes.put(indexName, extractor);
+    }
+
+    /** Adds a substring search over the given text fields, see {@link #search}. Must be called before first use. */
+    void addTextIndex(String indexName, List<Function<T, String>> fields) {
+        indexes.put(indexName, new TextIndex<>(fields));
+        textFields.put(indexName, fields);
+    }
+
+    /**
+     * Adds a running total of {@code amount} per value of an index added before, e.g.
+     * booking amount per payment status; see {@link #sumBy}. Must be called before first use.
+     */
+    void addSumIndex(String indexName, String groupIndexName, ToDoubleFunction<T> amount) {
+        Function<T, String> group = indexedAttributes.get(groupIndexName);
+        if (group == null) {
+            throw new IllegalArgumentException("No index " + groupIndexName + " on " + name);
+        }
+        indexes.put(indexName, new SumIndex<>(group, amount));
+        sumGroups.put(indexName, groupIndexName);
+        sumAmounts.put(indexName, amount);
+    }
+
+    /** Registers a field that can be changed with {@link #update} (and journaled as a SET record). */
+    void registerField(String field, BiConsumer<T, String> setter) {
+        fieldSetters.put(field, setter);
+    }
+
+    // Definition accessors, so other backends can store the same entity the same way
+
+    String getName() {
+        return name;
+    }
+
+    Function<String, T> getParser() {
+        return parser;
+    }
+
+    Function<T, String> getFormatter() {
+        return formatter;
+    }
+
+    /**
+     * Reads another copy of this store's files (e.g. one staged from a backup) without
+     * touching the store itself. Journal records next to the copy are replayed over it.
+     */
+    List<T> readCopy(Path copyFile, Path copyJournalFile) {
+        EntityStore<T> copy = new EntityStore<>(name, copyFile.toString(), parser, formatter, copier, keyExtractor,
+                false, null);
+        if (journal != null) {
+            copy.enableJournal(copyJournalFile.toString(), Long.MAX_VALUE);
+        }
+        copy.parallelLoad = parallelLoad;
+        return copy.findAll();
+    }
+
+    Function<T, String> getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    Map<String, Function<T, String>> getIndexedAttributes() {
+        return indexedAttributes;
+    }
+
+    Map<String, List<Function<T, String>>> getTextFields() {
+        return textFields;
+    }
+
+    Map<String, String> getSumGroups() {
+        return sumGroups;
+    }
+
+    Map<String, ToDoubleFunction<T>> getSumAmounts() {
+        return sumAmounts;
+    }
+
+    Map<String, BiConsumer<T, String>> getFieldSetters() {
+        return fieldSetters;
+    }
+
+    // ==================== READS ====================
+
+    @Override
+    public synchronized List<T> findAll() {
+        ensureLoaded();
+        List<T> result = new ArrayList<>(records.size());
+        for (T record : records.values()) {
+            result.add(copy(record));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<T> findAll(Predicate<T> predicate) {
+        ensureLoaded();
+        List<T> result = new ArrayList<>();
+        for (T record : records.values()) {
+            if (predicate.test(record)) {
+                result.add(copy(record));
+            }
+        }
+        return result;
+    }
+
+    /** O(1) primary-key lookup. */
+    @Override
+    public synchronized T findById(String key) {
+        ensureLoaded();
+        return copy(records.get(key));
+    }
+
+    @Override
+    public synchronized boolean existsById(String key) {
+        ensureLoaded();
+        return records.containsKey(key);
+    }
+
+    /** O(1) lookup through a unique secondary index. */
+    @Override
+    public synchronized T findByUnique(String indexName, String value) {
+        ensureLoaded();
+        String key = ((UniqueIndex<T>) indexes.get(indexName)).getKey(value);
+        return key != null ? copy(records.get(key)) : null;
+    }
+
+    /** Records whose indexed attribute equals the value; cost is proportional to the result. */
+    @Override
+    public synchronized List<T> findBy(String indexName, String value) {
+        ensureLoaded();
+        List<T> result = new ArrayList<>();
+        for (String key : ((MultiIndex<T>) indexes.get(indexName)).getKeys(value)) {
+            result.add(copy(records.get(key)));
+        }
+        return result;
+    }
+
+    /** Cost follows the number of matches; see {@link TextIndex}. */
+    @Override
+    public synchronized List<T> search(String indexName, String text) {
+        ensureLoaded();
+        List<T> result = new ArrayList<>();
+        for (String key : ((TextIndex<T>) indexes.get(indexName)).search(text)) {
+            result.add(copy(records.get(key)));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized int countBy(String indexName, String value) {
+        ensureLoaded();
+        return ((MultiIndex<T>) indexes.get(indexName)).count(value);
+    }
+
+    @Override
+    public synchronized double sumBy(String indexName, String value) {
+        ensureLoaded();
+        return ((SumIndex<T>) indexes.get(indexName)).sum(value);
+    }
+
+    @Override
+    public synchronized int count() {
+        ensureLoaded();
+        return records.size();
+    }
+
+    /**
+     * The query's keys are filtered and sorted once and kept until the store changes,
+     * so paging through them costs only the page itself.
+     */
+    @Override
+    public synchronized List<T> findPage(PageQuery query, int offset, int limit) {
+        ensureLoaded();
+        List<String> keys = pageKeys(query);
+        List<T> page = new ArrayList<>(Math.max(0, Math.min(limit, keys.size() - offset)));
+        for (int i = Math.max(0, offset); i < keys.size() && i < offset + limit; i++) {
+            page.add(copy(records.get(keys.get(i))));
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized int count(PageQuery query) {
+        ensureLoaded();
+        if (query.getFilterIndex() == null) {
+            return records.size();
+        }
+        return countBy(query.getFilterIndex(), query.getFilterValue());
+    }
+
+    private List<String> pageKeys(PageQuery query) {
+        if (pageKeys != null && pageVersion == version && query.equals(pageQuery)) {
+            return pageKeys;
+        }
+        List<String> keys = new ArrayList<>(query.getFilterIndex() == null
+                ? records.keySet()
+                : ((MultiIndex<T>) indexes.get(query.getFilterIndex())).getKeys(query.getFilterValue()));
+        String sortBy = query.getSortBy();
+        if (sortBy != null) {
+            // Stable sort, so equal values stay in insertion order
+            Function<String, String> value = PageQuery.BY_KEY.equals(sortBy)
+                    ? key -> key
+                    : key -> indexedAttributes.get(sortBy).apply(records.get(key));
+            keys.sort(Comparator.comparing(value, Comparator.nullsFirst(Comparator.naturalOrder())));
+        }
+        if (query.isDescending()) {
+            Collections.reverse(keys);
+        }
+        pageQuery = query;
+        pageVersion = version;
+        pageKeys = keys;
+        return keys;
+    }
+
+    // ==================== WRITE-THROUGH MUTATIONS ====================
+
+    /** Adds the record, replacing any existing record with the same key. */
+    @Override
+    public synchronized boolean save(T record) {
+        ensureLoaded();
+        String key = keyExtractor.apply(record);
+        version++;
+        T stored = copy(record);
+        records.put(key, stored); // a re-saved record keeps its position
+        indexPut(key, stored);
+        return journal != null ? appendToJournal(EntityJournal.PUT, formatter.apply(record)) : persist();
+    }
+
+    @Override
+    public synchronized boolean saveAll(Collection<T> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        ensureLoaded();
+        version++;
+        List<String> lines = new ArrayList<>(batch.size());
+        for (T record : batch) {
+            String key = keyExtractor.apply(record);
+            T stored = copy(record);
+            records.put(key, stored);
+            indexPut(key, stored);
+            if (journal != null) {
+                lines.add(formatter.apply(record));
+            }
+        }
+        return journal != null ? appendBatchToJournal(EntityJournal.PUT, lines) : persist();
+    }
+
+    @Override
+    public synchronized boolean deleteById(String key) {
+        ensureLoaded();
+        if (records.remove(key) == null) {
+            return false;
+        }
+        version++;
+        indexRemove(key);
+        return journal != null ? appendToJournal(EntityJournal.DELETE, key) : persist();
+    }
+
+    @Override
+    public synchronized List<String> deleteAllById(Collection<String> keys) {
+        ensureLoaded();
+        List<String> removed = new ArrayList<>();
+        for (String key : keys) {
+            if (records.remove(key) != null) {
+                indexRemove(key);
+                removed.add(key);
+            }
+        }
+        if (removed.isEmpty()) {
+            return removed;
+        }
+        version++;
+        boolean written = journal != null ? appendBatchToJournal(EntityJournal.DELETE, removed) : persist();
+        return written ? removed : List.of();
+    }
+
+    /** Changes a single registered field of the record with the given key. */
+    @Override
+    public synchronized boolean update(String key, String field, String value) {
+        BiConsumer<T, String> setter = fieldSetters.get(field);
+        if (setter == null) {
+            throw new IllegalArgumentException("Field not registered for " + name + ": " + field);
+        }
+        ensureLoaded();
+        T record = records.get(key);
+        if (record == null) {
+            return false;
+        }
+        version++;
+        setter.accept(record, value);
+        indexPut(key, record);
+        return journal != null ? appendToJournal(EntityJournal.SET, key, field, value) : persist();
+    }
+
+    /** Replaces the whole content of the store (and the file) with the given records. */
+    @Override
+    public synchronized boolean replaceAll(List<T> newRecords) {
+        version++;
+        List<T> stored = new ArrayList<>(newRecords.size());
+        for (T record : newRecords) {
+            stored.add(copy(record));
+        }
+        records = toMap(stored);
+        rebuildIndexes();
+        return persist();
+    }
+
+    /** Drops the in-memory copy; the next access reloads the file from disk. */
+    @Override
+    public synchronized void invalidate() {
+        if (journal != null) {
+            journal.closeWriter();
+        }
+        version++;
+        records = null;
+        for (RecordIndex<T> index : indexes.values()) {
+            index.clear();
+        }
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    /** Work on the store's files, done while {@link #holdFiles} or {@link #replaceFiles} holds the store. */
+    interface FileWork {
+        void run() throws IOException;
+    }
+
+    /**
+     * Runs {@code work} while no writer or compaction can change this store's files,
+     * e.g. to copy them for a backup. Callers holding several stores nest these calls.
+     */
+    synchronized void holdFiles(FileWork work) throws IOException {
+        synchronized (snapshotLock) {
+            work.run();
+        }
+    }
+
+    /**
+     * Runs {@code work} while no reader, writer or compaction can touch this store's
+     * files, then drops the in-memory copy (and the binary snapshot, which describes the
+     * old files) so the next access loads whatever {@code work} left on disk.
+     */
+    synchronized void replaceFiles(FileWork work) throws IOException {
+        synchronized (snapshotLock) {
+            snapshotGeneration++; // a compaction still in flight must not write over the new files
+            if (journal != null) {
+                journal.closeWriter();
+            }
+            work.run();
+            invalidate();
+            try {
+                deleteSnapshotFile();
+            } catch (Exception e) {
+                throw new IOException("Could not drop " + name + " snapshot: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    void deleteSnapshotFile() throws Exception {
+        if (snapshotFile != null) {
+            Files.deleteIfExists(snapshotFile);
+        }
+    }
+
+    private T copy(T record) {
+        return record != null ? copier.apply(record) : null;
+    }
+
+    // ==================== INDEX MAINTENANCE ====================
+
+    private void indexPut(String key, T record) {
+        for (RecordIndex<T> index : indexes.values()) {
+            index.put(key, record);
+        }
+    }
+
+    private void indexRemove(String key) {
+        for (RecordIndex<T> index : indexes.values()) {
+            index.remove(key);
+        }
+    }
+
+    private void rebuildIndexes() {
+        // Indexes are independent of each other, so large stores build them side by side
+        (records.size() >= PARALLEL_INDEX_RECORDS ? indexes.values().parallelStream() : indexes.values().stream())
+                .forEach(index -> {
+                    index.clear();
+                    records.forEach(index::put);
+                });
+    }
+
+    // ==================== LOADING ====================
+
+    private void ensureLoaded() {
+        if (records == null) {
+            records = load();
+            rebuildIndexes();
+        }
+    }
+
+    private LinkedHashMap<String, T> toMap(List<T> list) {
+        LinkedHashMap<String, T> map = new LinkedHashMap<>();
+        for (T record : list) {
+            map.put(keyExtractor.apply(record), record);
+        }
+        return map;
+    }
+
+    private LinkedHashMap<String, T> load() {
+        LinkedHashMap<String, T> loaded = new LinkedHashMap<>();
+        try {
+            if (!Files.exists(file)) {
+                if (defaults != null) {
+                    loaded = toMap(defaults.get());
+                    records = loaded;
+                    persist();
+                } else if (createIfMissing) {
+                    Files.createFile(file);
+                }
+            } else if (!loadSnapshot(loaded)) {
+                long size = Files.size(file);
+                if (parallelLoad && size >= PARALLEL_LOAD_BYTES) {
+                    loadInParallel(loaded, size);
+                } else {
+                    LinkedHashMap<String, T> target = loaded;
+                    ChannelLineReader.forEachLine(file, line -> parseInto(target, line));
+                }
+            }
+
+            if (journal != null) {
+                replayJournal(loaded);
+            }
+        } catch (Exception e) {
+            System.err.println("Error loading " + name + ": " + e.getMessage());
+        }
+        return loaded;
+    }
+
+    /** Fills the map from the binary snapshot if there is one that is current for the text file. */
+    private boolean loadSnapshot(LinkedHashMap<String, T> loaded) {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return false;
+        }
+        try {
+            return EntitySnapshot.read(snapshotFile, name, EntitySnapshot.Stamp.of(file), snapshotDecoder,
+                    record -> loaded.put(keyExtractor.apply(record), record));
+        } catch (Exception e) {
+            System.err.println("Ignoring unreadable " + name + " snapshot: " + e.getMessage());
+            loaded.clear();
+            return false;
+        }
+    }
+
+    private void parseInto(Map<String, T> target, String line) {
+        if (!line.trim().isEmpty()) {
+            T record = parser.apply(line);
+            if (record != null) {
+                target.put(keyExtractor.apply(record), record);
+            }
+        }
+    }
+
+    /**
+     * Parses line-aligned byte ranges of the file concurrently, then merges the
+     * chunks in file order so the result is the same as a sequential load.
+     */
+    private void loadInParallel(LinkedHashMap<String, T> loaded, long size) throws Exception {
+        int chunks = (int) Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), size / MIN_CHUNK_BYTES));
+        long[] bounds = ChannelLineReader.splitAtLines(file, chunks);
+
+        List<Callable<List<T>>> tasks = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            long from = bounds[i];
+            long to = bounds[i + 1];
+            tasks.add(() -> {
+                List<T> chunk = new ArrayList<>();
+                ChannelLineReader.forEachLine(file, from, to, line -> {
+                    if (!line.trim().isEmpty()) {
+                        T record = parser.apply(line);
+                        if (record != null) {
+                            chunk.add(record);
+                        }
+                    }
+                });
+                return chunk;
+            });
+        }
+
+        for (Future<List<T>> result : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            for (T record : result.get()) {
+                loaded.put(keyExtractor.apply(record), record);
+            }
+        }
+    }
+
+    private void replayJournal(LinkedHashMap<String, T> byKey) throws Exception {
+        journal.forEachRecord(entry -> replay(byKey, entry));
+    }
+
+    private void replay(LinkedHashMap<String, T> byKey, String entry) {
+        int sep = entry.indexOf('|');
+        if (sep < 0) {
+            return;
+        }
+        String op = entry.substring(0, sep);
+        String payload = entry.substring(sep + 1);
+        switch (op) {
+            case EntityJournal.PUT: {
+                T record = parser.apply(payload);
+                if (record != null) {
+                    byKey.put(keyExtractor.apply(record), record); // keeps its position, as with save()
+                }
+                break;
+            }
+            case EntityJournal.DELETE:
+                byKey.remove(payload);
+                break;
+            case EntityJournal.SET: {
+                String[] parts = payload.split("\\|", 3);
+                T record = parts.length == 3 ? byKey.get(parts[0]) : null;
+                BiConsumer<T, String> setter = parts.length == 3 ? fieldSetters.get(parts[1]) : null;
+                if (record != null && setter != null) {
+                    setter.accept(record, parts[2]);
+                }
+                break;
+            }
+            default:
+                System.err.println("Skipping unknown journal record for " + name + ": " + entry);
+        }
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    /**
+     * Writes the binary snapshot from memory. The snapshot is stamped with the text
+     * file's current size and time; journal records still pending on top of that file
+     * are replayed over the snapshot at startup just as they would be over the text.
+     */
+    synchronized boolean writeSnapshotFile() {
+        if (snapshotFile == null || records == null || !Files.exists(file)) {
+            return true; // nothing loaded means nothing changed since the last snapshot
+        }
+        try {
+            synchronized (snapshotLock) {
+                EntitySnapshot.write(snapshotFile, name, EntitySnapshot.Stamp.of(file), records.values(), snapshotEncoder);
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error writing " + name + " snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean appendToJournal(String op, String... fields) {
+        try {
+            journal.append(op, fields);
+            if (journal.needsCompaction() && compactionScheduled.compareAndSet(false, true)) {
+                COMPACTOR.execute(this::compact);
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error writing " + name + " journal: " + e.getMessage());
+            // Memory may now be ahead of the disk; reload from disk on next access
+            invalidate();
+            return false;
+        }
+    }
+
+    private boolean appendBatchToJournal(String op, List<String> payloads) {
+        try {
+            journal.appendAll(op, payloads);
+            if (journal.needsCompaction() && compactionScheduled.compareAndSet(false, true)) {
+                COMPACTOR.execute(this::compact);
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error writing " + name + " journal: " + e.getMessage());
+            invalidate();
+            return false;
+        }
+    }
+
+    /** Rewrites the whole data file from memory and drops any journal it supersedes. */
+    private boolean persist() {
+        try {
+            synchronized (snapshotLock) {
+                writeSnapshot(formatAll());
+                snapshotGeneration++;
+                if (journal != null) {
+                    journal.reset();
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error saving " + name + ": " + e.getMessage());
+            // Memory may now be ahead of the file; reload from disk on next access
+            invalidate();
+            return false;
+        }
+    }
+
+    /**
+     * Folds the journal into a fresh snapshot. Only the hand-over of the journal
+     * happens under the store lock; the snapshot itself is written while writers
+     * carry on appending to a new journal.
+     */
+    private void compact() {
+        try {
+            List<String> lines;
+            long generation;
+            synchronized (this) {
+                compactionScheduled.set(false);
+                if (records == null) {
+                    return;
+                }
+                lines = formatAll();
+                journal.beginCompaction();
+                synchronized (snapshotLock) {
+                    generation = snapshotGeneration;
+                }
+            }
+            synchronized (snapshotLock) {
+                if (generation != snapshotGeneration) {
+                    return; // a full rewrite already superseded this snapshot
+                }
+                writeSnapshot(lines);
+                journal.finishCompaction();
+            }
+        } catch (Exception e) {
+            // The parked journal stays on disk and is replayed (or folded in) next time
+            System.err.println("Error compacting " + name + " journal: " + e.getMessage());
+        }
+    }
+
+    private List<String> formatAll() {
+        List<String> lines = new ArrayList<>(records.size());
+        for (T record : records.values()) {
+            lines.add(formatter.apply(record));
+        }
+        return lines;
+    }
+
+    private void writeSnapshot(List<String> lines) throws Exception {
+        if (journal == null) {
+            Files.write(file, lines);
+            return;
+        }
+        // Journaled stores never leave a half-written snapshot behind: write aside, then swap
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, lines);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
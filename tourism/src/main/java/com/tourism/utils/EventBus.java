@@ -0,0 +1,58 @@
+package com.tourism.utils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tells interested parts of the application about {@link DomainEvent}s, so a screen or
+ * cache can update what changed instead of reloading everything.
+ * <p>
+ * Listeners run on the publishing thread, right after the write; one that touches the
+ * UI hands over to the FX thread itself (see {@code ViewEvents}). A failing listener is
+ * reported and does not affect the write or the other listeners.
+ */
+public final class EventBus {
+
+    private static final List<Subscription<?>> SUBSCRIPTIONS = new CopyOnWriteArrayList<>();
+
+    private EventBus() {
+    }
+
+    /**
+     * Calls the listener for every published event of the given type (or a subtype).
+     *
+     * @return runs to unsubscribe
+     */
+    public static <E extends DomainEvent> Runnable subscribe(Class<E> type, Consumer<? super E> listener) {
+        Subscription<E> subscription = new Subscription<>(type, listener);
+        SUBSCRIPTIONS.add(subscription);
+        return () -> SUBSCRIPTIONS.remove(subscription);
+    }
+
+    public static void publish(DomainEvent event) {
+        for (Subscription<?> subscription : SUBSCRIPTIONS) {
+            try {
+                subscription.deliver(event);
+            } catch (Exception e) {
+                System.err.println("Error in event listener for " + event.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class Subscription<E extends DomainEvent> {
+        private final Class<E> type;
+        private final Consumer<? super E> listener;
+
+        Subscription(Class<E> type, Consumer<? super E> listener) {
+            this.type = type;
+            this.listener = listener;
+        }
+
+        void deliver(DomainEvent event) {
+            if (type.isInstance(event)) {
+                listener.accept(type.cast(event));
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.tourism.utils;
+
+/**
+ * Splits one pipe-delimited line into fields without a regex and without copying.
+ * A single pass records where each field starts and ends; Strings are only created
+ * for the fields a parser actually keeps, and numbers are parsed straight from the
+ * line's characters.
+ * <p>
+ * Field counting follows {@code line.split("\\|")}: trailing empty fields are not
+ * counted, so the existing length checks in the parsers keep their meaning.
+ * <p>
+ * Scanners are reused per thread; call {@link #scan} and use the result before the
+ * next call on the same thread.
+ */
+final class FieldScanner {
+
+    static final String[] BOOKING_STATUSES = {"PENDING", "CONFIRMED", "CANCELLED", "COMPLETED"};
+    static final String[] PAYMENT_STATUSES = {"PENDING", "PAID", "REFUNDED"};
+    static final String[] ROLES = {"ADMIN", "STAFF", "GUIDE"};
+
+    private static final ThreadLocal<FieldScanner> SCANNER = ThreadLocal.withInitial(FieldScanner::new);
+
+    // Powers of ten that are exact doubles; see fastDouble
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private String line;
+    private int[] bounds = new int[32]; // field i spans [bounds[2i], bounds[2i+1])
+    private int fieldCount;
+
+    private FieldScanner() {
+    }
+
+    /** Scans the line with this thread's scanner. */
+    static FieldScanner scan(String line) {
+        FieldScanner scanner = SCANNER.get();
+        scanner.reset(line);
+        return scanner;
+    }
+
+    private void reset(String line) {
+        this.line = line;
+        int count = 0;
+        int start = 0;
+        int length = line.length();
+        boolean delimited = false;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line.charAt(i) == '|') {
+                delimited |= i < length;
+                if (2 * count + 2 > bounds.length) {
+                    int[] grown = new int[bounds.length * 2];
+                    System.arraycopy(bounds, 0, grown, 0, bounds.length);
+                    bounds = grown;
+                }
+                bounds[2 * count] = start;
+                bounds[2 * count + 1] = i;
+                count++;
+                start = i + 1;
+            }
+        }
+        // Match String.split: drop trailing empty fields (a line without any '|' is one field)
+        while (delimited && count > 0 && bounds[2 * count - 2] == bounds[2 * count - 1]) {
+            count--;
+        }
+        this.fieldCount = count;
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    boolean isEmpty(int field) {
+        return start(field) == end(field);
+    }
+
+    String text(int field) {
+        int start = start(field);
+        int end = end(field);
+        return start == end ? "" : line.substring(start, end);
+    }
+
+    /**
+     * Returns the matching constant from the vocabulary, so repeated values such as
+     * statuses share one String instead of one copy per record.
+     */
+    String token(int field, String[] vocabulary) {
+        int start = start(field);
+        int length = end(field) - start;
+        for (String word : vocabulary) {
+            if (word.length() == length && line.startsWith(word, start)) {
+                return word;
+            }
+        }
+        return text(field);
+    }
+
+    /** Same result as {@code Boolean.parseBoolean(text(field))}. */
+    boolean parseBoolean(int field) {
+        int start = start(field);
+        return end(field) - start == 4 && line.regionMatches(true, start, "true", 0, 4);
+    }
+
+    /** Same result as {@code Integer.parseInt(text(field))}, or the fallback if that would throw. */
+    int parseInt(int field, int fallback) {
+        int i = start(field);
+        int end = end(field);
+        if (i == end) {
+            return fallback;
+        }
+        boolean negative = false;
+        char first = line.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                return fallback;
+            }
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return fallback;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return fallback;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? fallback : (int) value;
+    }
+
+    /** Same result as {@code Double.parseDouble(text(field))}, or the fallback if that would throw. */
+    double parseDouble(int field, double fallback) {
+        int start = start(field);
+        int end = end(field);
+        if (start == end) {
+            return fallback;
+        }
+        double value = fastDouble(start, end);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        try {
+            return Double.parseDouble(line.substring(start, end));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Parses plain decimals such as "1250.0", "-3.5" or "1.0E7" (what Double.toString
+     * writes) directly. With at most 15 significant digits the mantissa and the power
+     * of ten are both exact doubles, so one multiply or divide gives the correctly
+     * rounded result. Anything else returns NaN and goes through Double.parseDouble.
+     */
+    private double fastDouble(int i, int end) {
+        boolean negative = false;
+        char first = line.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (mantissa != 0 || c != '0') {
+                    if (++digits > 15) {
+                        return Double.NaN;
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                if (seenPoint) {
+                    exponent--;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if ((c == 'E' || c == 'e') && seenDigit) {
+                int exp = parseExponent(i + 1, end);
+                if (exp == Integer.MIN_VALUE) {
+                    return Double.NaN;
+                }
+                exponent += exp;
+                break;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+        double value = mantissa;
+        if (mantissa != 0) {
+            if (exponent < -22 || exponent > 22) {
+                return Double.NaN;
+            }
+            value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    private int parseExponent(int i, int end) {
+        if (i == end) {
+            return Integer.MIN_VALUE;
+        }
+        boolean negative = false;
+        char first = line.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                return Integer.MIN_VALUE;
+            }
+        }
+        int exp = 0;
+        for (; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || exp > 1000) {
+                return Integer.MIN_VALUE;
+            }
+            exp = exp * 10 + digit;
+        }
+        return negative ? -exp : exp;
+    }
+
+    private int start(int field) {
+        return bounds[2 * field];
+    }
+
+    private int end(int field) {
+        return bounds[2 * field + 1];
+    }
+}
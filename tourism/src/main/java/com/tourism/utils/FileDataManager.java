@@ -2,14 +2,22 @@ package com.tourism.utils;
 
 import com.tourism.models.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class FileDataManager {
 
@@ -21,14 +29,170 @@ public class FileDataManager {
     private static final String PACKAGES_FILE = DATA_DIR + "packages.txt";
     private static final String BOOKINGS_FILE = DATA_DIR + "bookings.txt";
     private static final String DISCOUNTS_FILE = DATA_DIR + "discounts.txt";
+    private static final String BOOKINGS_JOURNAL_FILE = DATA_DIR + "bookings.journal";
     private static final String ACTIVITY_LOG_FILE = DATA_DIR + "activity.log";
+    private static final String ACTIVITY_LOG_DIR = DATA_DIR + "logs/";
     private static final String BACKUP_DIR = "backups/";
+    private static final String BACKUP_STORE_DIR = BACKUP_DIR + "store/";
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
+    // Backups: content-addressed chunk store with one manifest per backup, or plain zip files
+    private static final boolean INCREMENTAL_BACKUPS =
+            !"zip".equalsIgnoreCase(AppConfig.getString("tourism.backup.mode", "incremental"));
+    private static final BackupStore BACKUP_STORE = new BackupStore(Paths.get(BACKUP_STORE_DIR),
+            AppConfig.getInt("tourism.backup.chunkBytes", 1024 * 1024),
+            AppConfig.getInt("tourism.backup.keep", 30));
+    private static final int BACKUP_THREADS = AppConfig.getInt("tourism.backup.threads",
+            Runtime.getRuntime().availableProcessors()); // zip mode deflates blocks on this many threads
+    private static final Object BACKUP_LOCK = new Object();
+    private static final BackupRestorer RESTORER = new BackupRestorer(Paths.get(DATA_DIR), restoreTargets());
+
+    // Activity entries are written by a background thread, in batches, to a rolling log
+    private static final LogSegments ACTIVITY_LOG_SEGMENTS = new LogSegments(Paths.get(ACTIVITY_LOG_DIR),
+            AppConfig.getInt("tourism.log.retainSegments", 30));
+    private static final ActivityLogger ACTIVITY_LOG = new ActivityLogger(Paths.get(ACTIVITY_LOG_FILE),
+            ACTIVITY_LOG_SEGMENTS, AppConfig.getLong("tourism.log.segmentBytes", 8L * 1024 * 1024),
+            AppConfig.getInt("tourism.log.queueCapacity", 8192),
+            AppConfig.getInt("tourism.log.batchEntries", 256),
+            AppConfig.getLong("tourism.log.flushMillis", 200));
+
+    // Resident in-memory stores: each file is parsed once, mutations are written through
+    private static final EntityStore<User> USER_STORE = new EntityStore<>("users", USERS_FILE,
+            FileDataManager::parseUserFromString, FileDataManager::userToString, User::new,
+            User::getUserId, false, null);
+    private static final EntityStore<Tourist> TOURIST_STORE = new EntityStore<>("tourists", TOURISTS_FILE,
+            FileDataManager::parseTouristFromString, FileDataManager::touristToString, Tourist::new,
+            Tourist::getTouristId, true, null);
+    private static final EntityStore<Guide> GUIDE_STORE = new EntityStore<>("guides", GUIDES_FILE,
+            FileDataManager::parseGuideFromString, FileDataManager::guideToString, Guide::new,
+            Guide::getGuideId, true, null);
+    private static final EntityStore<TourPackage> PACKAGE_STORE = new EntityStore<>("packages", PACKAGES_FILE,
+            FileDataManager::parsePackageFromString, FileDataManager::packageToString, TourPackage::new,
+            TourPackage::getPackageId, false, null);
+    private static final EntityStore<Booking> BOOKING_STORE = new EntityStore<>("bookings", BOOKINGS_FILE,
+            FileDataManager::parseBookingFromString, FileDataManager::bookingToString, Booking::new,
+            Booking::getBookingId, false, null);
+    private static final EntityStore<FestivalDiscount> DISCOUNT_STORE = new EntityStore<>("discounts", DISCOUNTS_FILE,
+            FileDataManager::parseDiscountFromString, FileDataManager::discountToString, FestivalDiscount::new,
+            FestivalDiscount::getDiscountId, false, FileDataManager::createDefaultDiscounts);
+
+    // What the rest of the class talks to: the stores above, or SQL tables defined by them
+    private static final boolean SQL_STORAGE = "sql".equalsIgnoreCase(AppConfig.getString("tourism.storage", "file"));
+    private static final ConnectionPool SQL_POOL;
+    private static final Repository<User, String> USERS;
+    private static final Repository<Tourist, String> TOURISTS;
+    private static final Repository<Guide, String> GUIDES;
+    private static final Repository<TourPackage, String> PACKAGES;
+    private static final Repository<Booking, String> BOOKINGS;
+    private static final Repository<FestivalDiscount, String> DISCOUNTS;
+
     static {
-        initializeDataDirectory();
-        initializeDefaultData();
+        // Bookings are the hot write path: journal each change instead of rewriting bookings.txt
+        if (AppConfig.getBoolean("tourism.bookings.journal", true)) {
+            BOOKING_STORE.enableJournal(BOOKINGS_JOURNAL_FILE,
+                    AppConfig.getLong("tourism.bookings.journal.compactBytes", 1024 * 1024));
+        }
+        USER_STORE.addUniqueIndex("username", User::getUsername);
+        BOOKING_STORE.enableParallelLoad();
+        TOURIST_STORE.enableParallelLoad();
+        BOOKING_STORE.addIndex("touristId", Booking::getTouristId);
+        BOOKING_STORE.addIndex("packageId", Booking::getPackageId);
+        BOOKING_STORE.addIndex("guideId", Booking::getGuideId);
+        BOOKING_STORE.addIndex("status", Booking::getStatus);
+        BOOKING_STORE.addIndex("paymentStatus", Booking::getPaymentStatus);
+        BOOKING_STORE.addSumIndex("amountByPaymentStatus", "paymentStatus",
+                booking -> booking.getTotalAmount() != null ? booking.getTotalAmount() : 0);
+        BOOKING_STORE.addIndex("month", booking -> monthOf(booking.getBookingDate() != null
+                ? booking.getBookingDate() : booking.getCreatedAt()));
+        TOURIST_STORE.addIndex("month", tourist -> monthOf(tourist.getCreatedAt()));
+        // Sort keys for the booking table; index values compare as text, so these must sort as text
+        BOOKING_STORE.addIndex("totalAmount", booking -> sortableAmount(booking.getTotalAmount()));
+        BOOKING_STORE.addIndex("travelDate", booking -> booking.getTravelDate() != null
+                ? formatDate(booking.getTravelDate()) : null);
+        BOOKING_STORE.registerField("status", Booking::setStatus);
+        BOOKING_STORE.registerField("paymentStatus", Booking::setPaymentStatus);
+        // Search-as-you-type: substring search over these fields without scanning every record
+        PACKAGE_STORE.addTextIndex("search", List.of(TourPackage::getPackageName, TourPackage::getDescription,
+                TourPackage::getCategory));
+        GUIDE_STORE.addTextIndex("search", List.of(Guide::getFullName, Guide::getEmail, Guide::getSpecialization));
+        TOURIST_STORE.addTextIndex("search", List.of(Tourist::getFullName, Tourist::getEmail,
+                Tourist::getPhoneNumber, Tourist::getNationality));
+        if (AppConfig.getBoolean("tourism.snapshots", true)) {
+            USER_STORE.enableSnapshot(DATA_DIR + "users.snap", FileDataManager::writeUser, FileDataManager::readUser);
+            TOURIST_STORE.enableSnapshot(DATA_DIR + "tourists.snap", FileDataManager::writeTourist, FileDataManager::readTourist);
+            GUIDE_STORE.enableSnapshot(DATA_DIR + "guides.snap", FileDataManager::writeGuide, FileDataManager::readGuide);
+            PACKAGE_STORE.enableSnapshot(DATA_DIR + "packages.snap", FileDataManager::writePackage, FileDataManager::readPackage);
+            BOOKING_STORE.enableSnapshot(DATA_DIR + "bookings.snap", FileDataManager::writeBooking, FileDataManager::readBooking);
+            DISCOUNT_STORE.enableSnapshot(DATA_DIR + "discounts.snap", FileDataManager::writeDiscount, FileDataManager::readDiscount);
+        }
+
+        if (SQL_STORAGE) {
+            // The SQL classes and the H2 driver are only loaded on this path
+            SQL_POOL = new ConnectionPool(
+                    AppConfig.getString("tourism.storage.jdbc.url", "jdbc:h2:./" + DATA_DIR + "tourism"),
+                    AppConfig.getString("tourism.storage.jdbc.user", "sa"),
+                    AppConfig.getString("tourism.storage.jdbc.password", ""),
+                    AppConfig.getInt("tourism.storage.jdbc.poolSize", 4));
+            USERS = new JdbcRepository<>(SQL_POOL, USER_STORE);
+            TOURISTS = new JdbcRepository<>(SQL_POOL, TOURIST_STORE);
+            GUIDES = new JdbcRepository<>(SQL_POOL, GUIDE_STORE);
+            PACKAGES = new JdbcRepository<>(SQL_POOL, PACKAGE_STORE);
+            BOOKINGS = new JdbcRepository<>(SQL_POOL, BOOKING_STORE);
+            DISCOUNTS = new JdbcRepository<>(SQL_POOL, DISCOUNT_STORE);
+        } else {
+            SQL_POOL = null;
+            USERS = USER_STORE;
+            TOURISTS = TOURIST_STORE;
+            GUIDES = GUIDE_STORE;
+            PACKAGES = PACKAGE_STORE;
+            BOOKINGS = BOOKING_STORE;
+            DISCOUNTS = DISCOUNT_STORE;
+        }
+    }
+
+    private static final Object INITIALIZE_LOCK = new Object();
+    private static volatile boolean initialized;
+
+    public static void initialize() {
+        initialize((name, step) -> step.run());
+    }
+
+    /**
+     * Creates the data directory, finishes an interrupted restore and seeds the default
+     * records, handing each step with its name to {@code runner} (which runs it, e.g.
+     * timing it). Runs once: later callers return at once, and a caller that arrives
+     * while it runs waits for it. Must happen before any store is read.
+     */
+    public static void initialize(BiConsumer<String, Runnable> runner) {
+        if (initialized) {
+            return;
+        }
+        synchronized (INITIALIZE_LOCK) {
+            if (initialized) {
+                return;
+            }
+            runner.accept("data directory", FileDataManager::initializeDataDirectory);
+            runner.accept("restore recovery", RESTORER::recover); // before anything loads
+            runner.accept("default data", FileDataManager::initializeDefaultData);
+            initialized = true;
+        }
+    }
+
+    /**
+     * Steps that each read one store into memory and build its indexes, by store name,
+     * so the first screen that needs the data does not wait for the files. The steps are
+     * independent of each other; the users come first, since logging in needs them.
+     */
+    public static Map<String, Runnable> warmUpSteps() {
+        Map<String, Runnable> steps = new LinkedHashMap<>();
+        steps.put("users", USERS::count);
+        steps.put("tourists", TOURISTS::count);
+        steps.put("guides", GUIDES::count);
+        steps.put("packages", PACKAGES::count);
+        steps.put("bookings", BOOKINGS::count);
+        steps.put("discounts", DISCOUNTS::count);
+        return steps;
     }
 
     private static void initializeDataDirectory() {
@@ -43,20 +207,20 @@ public class FileDataManager {
     private static void initializeDefaultData() {
         try {
             // Create default users if file doesn't exist
-            if (!Files.exists(Paths.get(USERS_FILE))) {
+            if (needsDefaults(USERS, USERS_FILE)) {
                 List<User> defaultUsers = List.of(createDefaultAdmin(), createDefaultStaff());
                 saveUsers(defaultUsers);
             }
 
             // Create default packages if file doesn't exist
-            if (!Files.exists(Paths.get(PACKAGES_FILE))) {
+            if (needsDefaults(PACKAGES, PACKAGES_FILE)) {
                 List<TourPackage> defaultPackages = createDefaultPackages();
                 savePackages(defaultPackages);
             }
 
             // Create default discounts if file doesn't exist
-            if (!Files.exists(Paths.get(DISCOUNTS_FILE))) {
-                createDefaultDiscounts();
+            if (needsDefaults(DISCOUNTS, DISCOUNTS_FILE)) {
+                saveDiscounts(createDefaultDiscounts());
             }
 
         } catch (Exception e) {
@@ -64,6 +228,13 @@ public class FileDataManager {
         }
     }
 
+    private static boolean needsDefaults(Repository<?, ?> repository, String file) {
+        // Tables are seeded from the flat files, so defaults are only due when there was no file
+        // to import and the table is still empty
+        boolean noFile = !Files.exists(Paths.get(file));
+        return SQL_STORAGE ? noFile && repository.count() == 0 : noFile;
+    }
+
     private static User createDefaultAdmin() {
         User admin = new User("admin-001", "admin", "admin", "ADMIN");
         admin.setFullName("System Administrator");
@@ -126,9 +297,9 @@ public class FileDataManager {
         return packages;
     }
 
-    private static void createDefaultDiscounts() {
+    private static List<FestivalDiscount> createDefaultDiscounts() {
+        List<FestivalDiscount> defaultDiscounts = new ArrayList<>();
         try {
-            List<FestivalDiscount> defaultDiscounts = new ArrayList<>();
 
             FestivalDiscount discount1 = new FestivalDiscount();
             discount1.setDiscountId("DISC001");
@@ -151,66 +322,218 @@ public class FileDataManager {
             discount3.setActive(false);
             defaultDiscounts.add(discount3);
 
-            saveDiscounts(defaultDiscounts);
-
         } catch (Exception e) {
             System.err.println("Error creating default discounts: " + e.getMessage());
         }
+        return defaultDiscounts;
     }
 
     // ==================== BACKUP AND UTILITY OPERATIONS ====================
 
     public static boolean createBackup() {
-        try {
-            // Create backup directory if it doesn't exist
-            Files.createDirectories(Paths.get(BACKUP_DIR));
-
-            // Create backup filename with timestamp
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String backupFileName = BACKUP_DIR + "tourism_backup_" + timestamp + ".zip";
+        return createBackup(new BackupProgress());
+    }
 
-            // Create zip file with all data files
-            try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(backupFileName))) {
+    /**
+     * Creates a backup, reporting to {@code progress}; false if it failed or was
+     * cancelled. The files are first copied aside while the stores are held for just
+     * that copy, so the backup is one consistent point in time and users can keep
+     * working while it is compressed and written. One backup runs at a time.
+     */
+    public static boolean createBackup(BackupProgress progress) {
+        synchronized (BACKUP_LOCK) {
+            Path snapshot = Paths.get(BACKUP_DIR, ".snapshot");
+            try {
+                // Create backup name with timestamp
+                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+                String backupName = "tourism_backup_" + timestamp;
+                for (int n = 2; backupExists(backupName); n++) {
+                    backupName = "tourism_backup_" + timestamp + "_" + n; // two backups within one second
+                }
 
-                // Add all data files to zip
-                addFileToZip(zos, USERS_FILE, "users.txt");
-                addFileToZip(zos, TOURISTS_FILE, "tourists.txt");
-                addFileToZip(zos, GUIDES_FILE, "guides.txt");
-                addFileToZip(zos, PACKAGES_FILE, "packages.txt");
-                addFileToZip(zos, BOOKINGS_FILE, "bookings.txt");
-                addFileToZip(zos, DISCOUNTS_FILE, "discounts.txt");
-                addFileToZip(zos, ACTIVITY_LOG_FILE, "activity.log");
+                BackupRestorer.deleteTree(snapshot);
+                Files.createDirectories(snapshot);
+                if (SQL_STORAGE) {
+                    // Export the tables in the flat-file format so a backup looks the same either way
+                    exportRecords(USERS, USER_STORE, snapshot.resolve("users.txt"));
+                    exportRecords(TOURISTS, TOURIST_STORE, snapshot.resolve("tourists.txt"));
+                    exportRecords(GUIDES, GUIDE_STORE, snapshot.resolve("guides.txt"));
+                    exportRecords(PACKAGES, PACKAGE_STORE, snapshot.resolve("packages.txt"));
+                    exportRecords(BOOKINGS, BOOKING_STORE, snapshot.resolve("bookings.txt"));
+                    exportRecords(DISCOUNTS, DISCOUNT_STORE, snapshot.resolve("discounts.txt"));
+                } else {
+                    holdStores(allStores(), 0, false, () -> {
+                        for (Map.Entry<String, Path> file : restoreTargets().entrySet()) {
+                            if (Files.exists(file.getValue())) {
+                                Files.copy(file.getValue(), snapshot.resolve(file.getKey()));
+                            }
+                        }
+                    });
+                }
+                // Current segment, plus the closed segments no earlier backup has taken
+                List<Path> logSegments = ACTIVITY_LOG.copyForBackup(snapshot);
 
-            }
+                List<String> entries = new ArrayList<>();
+                for (String entryName : restoreTargets().keySet()) {
+                    if (Files.exists(snapshot.resolve(entryName))) {
+                        entries.add(entryName);
+                    }
+                }
+                if (Files.exists(snapshot.resolve("activity.log"))) {
+                    entries.add("activity.log");
+                }
+                for (Path segment : logSegments) {
+                    entries.add("logs/" + segment.getFileName());
+                }
+                long totalBytes = 0;
+                for (String entryName : entries) {
+                    totalBytes += Files.size(snapshot.resolve(entryName));
+                }
+                progress.begin(entries.size(), totalBytes);
+
+                // Incremental: only chunks not already in the store are written; zip: everything, every time
+                String backupLocation;
+                try (BackupSink sink = INCREMENTAL_BACKUPS
+                        ? BACKUP_STORE.begin(backupName)
+                        : new ZipBackupSink(Paths.get(BACKUP_DIR + backupName + ".zip"), BACKUP_THREADS)) {
+                    for (String entryName : entries) {
+                        if (entryName.startsWith("logs/")) {
+                            sink.addCompressedFile(entryName, snapshot.resolve(entryName), progress);
+                        } else {
+                            sink.addFile(entryName, snapshot.resolve(entryName), progress);
+                        }
+                        progress.fileDone();
+                    }
+                    backupLocation = sink.commit();
+                }
+                ACTIVITY_LOG_SEGMENTS.markBackedUp(logSegments);
 
-            logActivity("SYSTEM", "Backup created: " + backupFileName);
-            System.out.println("Backup created successfully: " + backupFileName);
-            return true;
+                logActivity("SYSTEM", "Backup created: " + backupLocation);
+                System.out.println("Backup created successfully: " + backupLocation);
+                return true;
 
-        } catch (Exception e) {
-            System.err.println("Error creating backup: " + e.getMessage());
-            logActivity("SYSTEM", "Backup creation failed: " + e.getMessage());
-            return false;
+            } catch (InterruptedIOException e) {
+                System.out.println("Backup cancelled");
+                logActivity("SYSTEM", "Backup cancelled");
+                return false;
+            } catch (Exception e) {
+                System.err.println("Error creating backup: " + e.getMessage());
+                logActivity("SYSTEM", "Backup creation failed: " + e.getMessage());
+                return false;
+            } finally {
+                try {
+                    BackupRestorer.deleteTree(snapshot);
+                } catch (IOException e) {
+                    System.err.println("Error removing backup snapshot: " + e.getMessage());
+                }
+            }
         }
     }
 
-    private static void addFileToZip(ZipOutputStream zos, String filePath, String entryName) throws IOException {
-        File file = new File(filePath);
-        if (file.exists()) {
-            zos.putNextEntry(new ZipEntry(entryName));
-            Files.copy(Paths.get(filePath), zos);
-            zos.closeEntry();
+    private static boolean backupExists(String backupName) {
+        return Files.exists(Paths.get(BACKUP_DIR + backupName + ".zip"))
+                || Files.exists(Paths.get(BACKUP_STORE_DIR, "manifests", backupName + BackupStore.MANIFEST_SUFFIX));
+    }
+
+    private static <T> void exportRecords(Repository<T, String> repository, EntityStore<T> definition,
+                                          Path target) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (T record : repository.findAll()) {
+                writer.write(definition.getFormatter().apply(record));
+                writer.write(System.lineSeparator());
+            }
         }
     }
 
+    /**
+     * Restores the data from a backup zip or a manifest in the backup store. The backup
+     * is unpacked and verified in full first; only then are the live files swapped
+     * (or, with SQL storage, the tables reloaded) and the caches rebuilt, so the app
+     * carries on with the restored data without a restart.
+     */
     public static boolean restoreBackup(String backupFilePath) {
+        Path staging = null;
         try {
-            logActivity("SYSTEM", "Backup restore attempted: " + backupFilePath);
+            logActivity("SYSTEM", "Backup restore started: " + backupFilePath);
+            Path backup = Paths.get(backupFilePath);
+            if (!Files.exists(backup)) {
+                throw new FileNotFoundException("Backup not found: " + backupFilePath);
+            }
+            staging = RESTORER.stage(backup, BACKUP_STORE);
+
+            if (SQL_STORAGE) {
+                restoreRecords(USERS, USER_STORE, staging, "users.txt");
+                restoreRecords(TOURISTS, TOURIST_STORE, staging, "tourists.txt");
+                restoreRecords(GUIDES, GUIDE_STORE, staging, "guides.txt");
+                restoreRecords(PACKAGES, PACKAGE_STORE, staging, "packages.txt");
+                restoreRecords(BOOKINGS, BOOKING_STORE, staging, "bookings.txt");
+                restoreRecords(DISCOUNTS, DISCOUNT_STORE, staging, "discounts.txt");
+            } else {
+                Path staged = staging;
+                holdStores(allStores(), 0, true, () -> RESTORER.swap(staged));
+            }
+
+            // Load everything now rather than on the next screen that asks
+            for (Repository<?, ?> repository : allRepositories()) {
+                repository.count();
+            }
+
+            logActivity("SYSTEM", "Backup restored: " + backupFilePath);
+            System.out.println("Backup restored successfully: " + backupFilePath);
+            EventBus.publish(new DomainEvent.BulkChange(null));
             return true;
+
         } catch (Exception e) {
             System.err.println("Error restoring backup: " + e.getMessage());
+            logActivity("SYSTEM", "Backup restore failed: " + e.getMessage());
             return false;
+        } finally {
+            if (staging != null) {
+                RESTORER.discard(staging);
+            }
+        }
+    }
+
+    /**
+     * Holds every store from index {@code from} on while {@code work} runs; with
+     * {@code replacing} the stores reload from disk afterwards.
+     */
+    private static void holdStores(List<EntityStore<?>> stores, int from, boolean replacing,
+                                   EntityStore.FileWork work) throws IOException {
+        if (from == stores.size()) {
+            work.run();
+        } else if (replacing) {
+            stores.get(from).replaceFiles(() -> holdStores(stores, from + 1, true, work));
+        } else {
+            stores.get(from).holdFiles(() -> holdStores(stores, from + 1, false, work));
+        }
+    }
+
+    private static <T> void restoreRecords(Repository<T, String> repository, EntityStore<T> definition,
+                                           Path staging, String fileName) throws IOException {
+        Path staged = staging.resolve(fileName);
+        if (!Files.exists(staged)) {
+            return; // not in this backup: keep what the table has
         }
+        // File-mode backups of bookings may carry journal records on top of the text file
+        List<T> records = definition.readCopy(staged, staging.resolve("bookings.journal"));
+        if (!repository.replaceAll(records)) {
+            throw new IOException("Could not reload " + fileName);
+        }
+    }
+
+    /** Backup entry name -> live file, for every file a restore replaces. */
+    private static Map<String, Path> restoreTargets() {
+        Map<String, Path> targets = new LinkedHashMap<>();
+        targets.put("users.txt", Paths.get(USERS_FILE));
+        targets.put("tourists.txt", Paths.get(TOURISTS_FILE));
+        targets.put("guides.txt", Paths.get(GUIDES_FILE));
+        targets.put("packages.txt", Paths.get(PACKAGES_FILE));
+        targets.put("bookings.txt", Paths.get(BOOKINGS_FILE));
+        targets.put("bookings.journal.compacting", Paths.get(BOOKINGS_JOURNAL_FILE + ".compacting"));
+        targets.put("bookings.journal", Paths.get(BOOKINGS_JOURNAL_FILE));
+        targets.put("discounts.txt", Paths.get(DISCOUNTS_FILE));
+        return targets;
     }
 
     public static void clearAllData() {
@@ -222,7 +545,19 @@ public class FileDataManager {
             Files.deleteIfExists(Paths.get(PACKAGES_FILE));
             Files.deleteIfExists(Paths.get(BOOKINGS_FILE));
             Files.deleteIfExists(Paths.get(DISCOUNTS_FILE));
+            invalidateCaches();
+            for (EntityStore<?> store : allStores()) {
+                store.deleteSnapshotFile();
+            }
+            if (SQL_STORAGE) {
+                for (Repository<?, ?> repository : allRepositories()) {
+                    repository.replaceAll(List.of());
+                }
+            }
+            Files.deleteIfExists(Paths.get(BOOKINGS_JOURNAL_FILE + ".compacting"));
+            Files.deleteIfExists(Paths.get(BOOKINGS_JOURNAL_FILE));
 
+            EventBus.publish(new DomainEvent.BulkChange(null));
             logActivity("SYSTEM", "All data cleared");
             System.out.println("All data cleared successfully");
 
@@ -231,6 +566,65 @@ public class FileDataManager {
         }
     }
 
+    /** Drops every in-memory store so the next read goes back to the data files. */
+    public static void invalidateCaches() {
+        for (EntityStore<?> store : allStores()) {
+            store.invalidate();
+        }
+        for (Repository<?, ?> repository : allRepositories()) {
+            repository.invalidate();
+        }
+        EventBus.publish(new DomainEvent.BulkChange(null));
+    }
+
+    /**
+     * Writes the binary snapshot of every loaded store so the next start can skip
+     * parsing the text files. Called on application exit.
+     */
+    public static boolean writeSnapshots() {
+        boolean success = true;
+        for (EntityStore<?> store : allStores()) {
+            success &= store.writeSnapshotFile();
+        }
+        return success;
+    }
+
+    /**
+     * Writes out queued activity entries and releases open resources. Called once on
+     * application exit, after the last write.
+     */
+    public static void shutdown() {
+        ACTIVITY_LOG.close();
+        if (SQL_POOL != null) {
+            SQL_POOL.close();
+        }
+    }
+
+    /** Publishes the event if the write went through; returns whether it did. */
+    private static boolean publishIf(boolean written, DomainEvent event) {
+        if (written) {
+            EventBus.publish(event);
+        }
+        return written;
+    }
+
+    private static List<EntityStore<?>> allStores() {
+        return List.of(USER_STORE, TOURIST_STORE, GUIDE_STORE, PACKAGE_STORE, BOOKING_STORE, DISCOUNT_STORE);
+    }
+
+    private static List<Repository<?, ?>> allRepositories() {
+        return List.of(USERS, TOURISTS, GUIDES, PACKAGES, BOOKINGS, DISCOUNTS);
+    }
+
+    /** Changes whenever any stored record may have changed; cheap enough to poll. */
+    public static long getDataVersion() {
+        long version = 0;
+        for (Repository<?, ?> repository : allRepositories()) {
+            version += repository.version();
+        }
+        return version;
+    }
+
     public static long getDataSize() {
         try {
             long totalSize = 0;
@@ -239,6 +633,7 @@ public class FileDataManager {
             if (Files.exists(Paths.get(GUIDES_FILE))) totalSize += Files.size(Paths.get(GUIDES_FILE));
             if (Files.exists(Paths.get(PACKAGES_FILE))) totalSize += Files.size(Paths.get(PACKAGES_FILE));
             if (Files.exists(Paths.get(BOOKINGS_FILE))) totalSize += Files.size(Paths.get(BOOKINGS_FILE));
+            if (Files.exists(Paths.get(BOOKINGS_JOURNAL_FILE))) totalSize += Files.size(Paths.get(BOOKINGS_JOURNAL_FILE));
             if (Files.exists(Paths.get(DISCOUNTS_FILE))) totalSize += Files.size(Paths.get(DISCOUNTS_FILE));
             return totalSize;
         } catch (Exception e) {
@@ -249,57 +644,26 @@ public class FileDataManager {
     // ==================== DISCOUNT OPERATIONS ====================
 
     public static List<FestivalDiscount> getActiveDiscounts() {
-        List<FestivalDiscount> discounts = new ArrayList<>();
         try {
-            if (!Files.exists(Paths.get(DISCOUNTS_FILE))) {
-                createDefaultDiscounts();
-            }
-
-            List<String> lines = Files.readAllLines(Paths.get(DISCOUNTS_FILE));
-            for (String line : lines) {
-                if (line != null && !line.trim().isEmpty()) {
-                    FestivalDiscount discount = parseDiscountFromString(line);
-                    if (discount != null && discount.isActive()) {
-                        discounts.add(discount);
-                    }
-                }
-            }
+            return DISCOUNTS.findAll(FestivalDiscount::isActive);
         } catch (Exception e) {
             System.err.println("Error loading active discounts: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return discounts;
     }
 
     public static List<FestivalDiscount> getAllDiscounts() {
-        List<FestivalDiscount> discounts = new ArrayList<>();
         try {
-            if (!Files.exists(Paths.get(DISCOUNTS_FILE))) {
-                createDefaultDiscounts();
-            }
-
-            List<String> lines = Files.readAllLines(Paths.get(DISCOUNTS_FILE));
-            for (String line : lines) {
-                if (line != null && !line.trim().isEmpty()) {
-                    FestivalDiscount discount = parseDiscountFromString(line);
-                    if (discount != null) {
-                        discounts.add(discount);
-                    }
-                }
-            }
+            return DISCOUNTS.findAll();
         } catch (Exception e) {
             System.err.println("Error loading discounts: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return discounts;
     }
 
     public static boolean saveDiscounts(List<FestivalDiscount> discounts) {
         try {
-            List<String> lines = new ArrayList<>();
-            for (FestivalDiscount discount : discounts) {
-                lines.add(discountToString(discount));
-            }
-            Files.write(Paths.get(DISCOUNTS_FILE), lines);
-            return true;
+            return publishIf(DISCOUNTS.replaceAll(discounts), new DomainEvent.BulkChange(FestivalDiscount.class));
         } catch (Exception e) {
             System.err.println("Error saving discounts: " + e.getMessage());
             return false;
@@ -307,19 +671,12 @@ public class FileDataManager {
     }
 
     public static FestivalDiscount findDiscountById(String discountId) {
-        List<FestivalDiscount> discounts = getAllDiscounts();
-        return discounts.stream()
-                .filter(discount -> discountId.equals(discount.getDiscountId()))
-                .findFirst()
-                .orElse(null);
+        return DISCOUNTS.findById(discountId);
     }
 
     public static boolean saveDiscount(FestivalDiscount discount) {
         try {
-            List<FestivalDiscount> discounts = getAllDiscounts();
-            discounts.removeIf(d -> discount.getDiscountId().equals(d.getDiscountId()));
-            discounts.add(discount);
-            return saveDiscounts(discounts);
+            return publishIf(DISCOUNTS.save(discount), new DomainEvent.DiscountChanged(discount.getDiscountId(), discount));
         } catch (Exception e) {
             System.err.println("Error saving discount: " + e.getMessage());
             return false;
@@ -329,66 +686,19 @@ public class FileDataManager {
     // NEW: deleteDiscount method for FestivalDiscount
     public static boolean deleteDiscount(String discountId) {
         try {
-            List<FestivalDiscount> discounts = getAllDiscounts();
-            boolean removed = discounts.removeIf(discount -> discountId.equals(discount.getDiscountId()));
-            if (removed) {
-                return saveDiscounts(discounts);
-            }
-            return false;
+            return publishIf(DISCOUNTS.deleteById(discountId), new DomainEvent.DiscountChanged(discountId, null));
         } catch (Exception e) {
             System.err.println("Error deleting discount: " + e.getMessage());
             return false;
         }
     }
 
-
-    private static String discountToString(FestivalDiscount discount) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(discount.getDiscountId() != null ? discount.getDiscountId() : "").append("|");
-        sb.append(discount.getFestivalName() != null ? discount.getFestivalName() : "").append("|");
-        sb.append(discount.getDiscountPercentage()).append("|"); // Remove null check for primitive double
-        sb.append(String.valueOf(discount.isActive()));
-        return sb.toString();
-    }
-
-    private static FestivalDiscount parseDiscountFromString(String line) {
-        try {
-            String[] parts = line.split("\\|");
-            if (parts.length >= 3) {
-                FestivalDiscount discount = new FestivalDiscount();
-                discount.setDiscountId(parts[0]);
-                discount.setFestivalName(parts[1]);
-
-                if (!parts[2].isEmpty()) {
-                    try {
-                        discount.setDiscountPercentage(Double.parseDouble(parts[2]));
-                    } catch (NumberFormatException e) {
-                        discount.setDiscountPercentage(0.0);
-                    }
-                }
-
-                if (parts.length > 3) {
-                    discount.setActive(Boolean.parseBoolean(parts[3]));
-                } else {
-                    discount.setActive(true);
-                }
-
-                return discount;
-            }
-        } catch (Exception e) {
-            System.err.println("Error parsing discount: " + line);
-        }
-        return null;
-    }
-
     // ==================== USER OPERATIONS ====================
 
     public static boolean saveUser(User user) {
         try {
-            List<User> users = getAllUsers();
-            users.removeIf(u -> user.getUserId().equals(u.getUserId()));
-            users.add(user);
-            return saveUsers(users);
+            initialize(); // reachable from the login screen while startup is still setting up
+            return USERS.save(user);
         } catch (Exception e) {
             System.err.println("Error saving user: " + e.getMessage());
             return false;
@@ -397,12 +707,7 @@ public class FileDataManager {
 
     public static boolean saveUsers(List<User> users) {
         try {
-            List<String> lines = new ArrayList<>();
-            for (User user : users) {
-                lines.add(userToString(user));
-            }
-            Files.write(Paths.get(USERS_FILE), lines);
-            return true;
+            return USERS.replaceAll(users);
         } catch (Exception e) {
             System.err.println("Error saving users: " + e.getMessage());
             return false;
@@ -410,33 +715,17 @@ public class FileDataManager {
     }
 
     public static List<User> getAllUsers() {
-        List<User> users = new ArrayList<>();
         try {
-            if (!Files.exists(Paths.get(USERS_FILE))) {
-                return users;
-            }
-
-            List<String> lines = Files.readAllLines(Paths.get(USERS_FILE));
-            for (String line : lines) {
-                if (line != null && !line.trim().isEmpty()) {
-                    User user = parseUserFromString(line);
-                    if (user != null) {
-                        users.add(user);
-                    }
-                }
-            }
+            return USERS.findAll();
         } catch (Exception e) {
             System.err.println("Error loading users: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return users;
     }
 
     public static User findUserByUsername(String username) {
-        List<User> users = getAllUsers();
-        return users.stream()
-                .filter(user -> username.equals(user.getUsername()))
-                .findFirst()
-                .orElse(null);
+        initialize(); // reachable from the login screen while startup is still setting up
+        return USERS.findByUnique("username", username);
     }
 
     // ==================== TOURIST OPERATIONS ====================
@@ -444,11 +733,7 @@ public class FileDataManager {
     // This method handles both adding new tourists and updating existing ones
     public static boolean saveTourist(Tourist tourist) {
         try {
-            List<Tourist> tourists = getAllTourists();
-            // Remove existing tourist with the same ID to update it
-            tourists.removeIf(t -> tourist.getTouristId() != null && tourist.getTouristId().equals(t.getTouristId()));
-            tourists.add(tourist); // Add the new or updated tourist
-            return saveTourists(tourists); // Save the entire list back
+            return publishIf(TOURISTS.save(tourist), new DomainEvent.TouristSaved(tourist));
         } catch (Exception e) {
             System.err.println("Error saving tourist: " + e.getMessage());
             return false;
@@ -456,79 +741,82 @@ public class FileDataManager {
     }
 
     public static List<Tourist> getAllTourists() {
-        List<Tourist> tourists = new ArrayList<>();
         try {
-            if (!Files.exists(Paths.get(TOURISTS_FILE))) {
-                // If the file doesn't exist, create it to prevent errors on first read
-                // And potentially add default tourists here if desired, or let TouristService generate them
-                Files.createFile(Paths.get(TOURISTS_FILE));
-                return tourists; // Return empty list after creating file
-            }
-
-            List<String> lines = Files.readAllLines(Paths.get(TOURISTS_FILE));
-            for (String line : lines) {
-                if (line != null && !line.trim().isEmpty()) {
-                    Tourist tourist = parseTouristFromString(line);
-                    if (tourist != null) {
-                        tourists.add(tourist);
-                    }
-                }
-            }
+            return TOURISTS.findAll();
         } catch (Exception e) {
             System.err.println("Error loading tourists: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return tourists;
+    }
+
+    public static int countTourists() {
+        return TOURISTS.count();
+    }
+
+    /** Tourists registered in the given month. */
+    public static int countTouristsInMonth(YearMonth month) {
+        return TOURISTS.countBy("month", month.toString());
+    }
+
+    /** Tourists whose name, email, phone or nationality contains the text, ignoring case. */
+    public static List<Tourist> searchTourists(String text) {
+        return TOURISTS.search("search", text);
     }
 
     public static boolean saveTourists(List<Tourist> tourists) {
         try {
-            List<String> lines = new ArrayList<>();
-            for (Tourist tourist : tourists) {
-                lines.add(touristToString(tourist));
-            }
-            Files.write(Paths.get(TOURISTS_FILE), lines);
-            return true;
+            return publishIf(TOURISTS.replaceAll(tourists), new DomainEvent.BulkChange(Tourist.class));
         } catch (Exception e) {
             System.err.println("Error saving tourists: " + e.getMessage());
             return false;
         }
     }
 
+    /** Adds or updates the given tourists in one write; unlike saveTourists, other tourists are kept. */
+    public static boolean saveTouristsBatch(Collection<Tourist> tourists) {
+        try {
+            return publishIf(TOURISTS.saveAll(tourists), new DomainEvent.BulkChange(Tourist.class));
+        } catch (Exception e) {
+            System.err.println("Error saving tourist batch: " + e.getMessage());
+            return false;
+        }
+    }
+
     public static Tourist findTouristById(String touristId) {
-        List<Tourist> tourists = getAllTourists();
-        return tourists.stream()
-                .filter(tourist -> touristId.equals(tourist.getTouristId()))
-                .findFirst()
-                .orElse(null);
+        return TOURISTS.findById(touristId);
+    }
+
+    public static boolean touristExists(String touristId) {
+        return TOURISTS.existsById(touristId);
     }
 
     // Add this new method for deleting a tourist by ID
     public static boolean deleteTourist(String touristId) {
         try {
-            List<Tourist> tourists = getAllTourists();
-            boolean removed = tourists.removeIf(tourist -> touristId.equals(tourist.getTouristId()));
-
-            if (removed) {
-                // If a tourist was removed, save the updated list back to the file
-                return saveTourists(tourists);
-            }
-            return false; // Tourist not found or not removed
+            return publishIf(TOURISTS.deleteById(touristId), new DomainEvent.TouristDeleted(touristId));
         } catch (Exception e) {
             System.err.println("Error deleting tourist: " + e.getMessage());
             return false;
         }
     }
 
+    /** Deletes the given tourists in one write; returns how many were removed. */
+    public static int deleteTouristsBatch(Collection<String> touristIds) {
+        try {
+            List<String> removed = TOURISTS.deleteAllById(touristIds);
+            removed.forEach(touristId -> EventBus.publish(new DomainEvent.TouristDeleted(touristId)));
+            return removed.size();
+        } catch (Exception e) {
+            System.err.println("Error deleting tourist batch: " + e.getMessage());
+            return 0;
+        }
+    }
 
     // ==================== GUIDE OPERATIONS ====================
 
     public static boolean saveGuide(Guide guide) {
         try {
-            List<Guide> guides = getAllGuides();
-            guides.removeIf(g -> guide.getGuideId() != null && guide.getGuideId().equals(g.getGuideId()));
-            guides.add(guide);
-            saveGuides(guides); // Call the saveGuides(List<Guide>) method
-            return true;
+            return publishIf(GUIDES.save(guide), new DomainEvent.GuideSaved(guide));
         } catch (Exception e) {
             System.err.println("Error saving guide: " + e.getMessage());
             return false;
@@ -537,13 +825,7 @@ public class FileDataManager {
 
     public static boolean deleteGuide(String guideId) {
         try {
-            List<Guide> guides = getAllGuides();
-            boolean removed = guides.removeIf(guide -> guideId.equals(guide.getGuideId()));
-            if (removed) {
-                saveGuides(guides);
-                return true;
-            }
-            return false;
+            return publishIf(GUIDES.deleteById(guideId), new DomainEvent.GuideDeleted(guideId));
         } catch (Exception e) {
             System.err.println("Error deleting guide: " + e.getMessage());
             return false;
@@ -551,80 +833,72 @@ public class FileDataManager {
     }
 
     public static List<Guide> getAllGuides() {
-        List<Guide> guides = new ArrayList<>();
         try {
-            if (!Files.exists(Paths.get(GUIDES_FILE))) {
-                Files.createFile(Paths.get(GUIDES_FILE));
-                return guides;
-            }
-
-            List<String> lines = Files.readAllLines(Paths.get(GUIDES_FILE));
-            for (String line : lines) {
-                if (line != null && !line.trim().isEmpty()) {
-                    Guide guide = parseGuideFromString(line);
-                    if (guide != null) {
-                        guides.add(guide);
-                    }
-                }
-            }
+            return GUIDES.findAll();
         } catch (Exception e) {
             System.err.println("Failed to load guides: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return guides;
+    }
+
+    public static int countGuides() {
+        return GUIDES.count();
+    }
+
+    /** Guides whose name, email or specialization contains the text, ignoring case. */
+    public static List<Guide> searchGuides(String text) {
+        return GUIDES.search("search", text);
     }
 
     public static void saveGuides(List<Guide> guides) { // Made public for direct use
         try {
-            List<String> lines = new ArrayList<>();
-            for (Guide guide : guides) {
-                lines.add(guideToString(guide));
-            }
-            Files.write(Paths.get(GUIDES_FILE), lines);
+            publishIf(GUIDES.replaceAll(guides), new DomainEvent.BulkChange(Guide.class));
         } catch (Exception e) {
             System.err.println("Error saving guides: " + e.getMessage());
         }
     }
 
+    /** Adds or updates the given guides in one write; unlike saveGuides, other guides are kept. */
+    public static boolean saveGuidesBatch(Collection<Guide> guides) {
+        try {
+            return publishIf(GUIDES.saveAll(guides), new DomainEvent.BulkChange(Guide.class));
+        } catch (Exception e) {
+            System.err.println("Error saving guide batch: " + e.getMessage());
+            return false;
+        }
+    }
+
     public static Guide findGuideById(String guideId) {
-        List<Guide> guides = getAllGuides();
-        return guides.stream()
-                .filter(guide -> guideId.equals(guide.getGuideId()))
-                .findFirst()
-                .orElse(null);
+        return GUIDES.findById(guideId);
+    }
+
+    public static boolean guideExists(String guideId) {
+        return GUIDES.existsById(guideId);
     }
 
     // ==================== PACKAGE OPERATIONS ====================
 
     public static List<TourPackage> getAllPackages() {
-        List<TourPackage> packages = new ArrayList<>();
         try {
-            if (!Files.exists(Paths.get(PACKAGES_FILE))) {
-                return packages;
-            }
-
-            List<String> lines = Files.readAllLines(Paths.get(PACKAGES_FILE));
-            for (String line : lines) {
-                if (line != null && !line.trim().isEmpty()) {
-                    TourPackage pkg = parsePackageFromString(line);
-                    if (pkg != null) {
-                        packages.add(pkg);
-                    }
-                }
-            }
+            return PACKAGES.findAll();
         } catch (Exception e) {
             System.err.println("Error loading packages: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return packages;
+    }
+
+    public static int countPackages() {
+        return PACKAGES.count();
+    }
+
+    /** Packages whose name, description or category contains the text, ignoring case. */
+    public static List<TourPackage> searchPackages(String text) {
+        return PACKAGES.search("search", text);
     }
 
     public static boolean savePackages(List<TourPackage> packages) {
         try {
-            List<String> lines = new ArrayList<>();
-            for (TourPackage pkg : packages) {
-                lines.add(packageToString(pkg));
-            }
-            Files.write(Paths.get(PACKAGES_FILE), lines);
-            return true;
+            return publishIf(PACKAGES.replaceAll(packages), new DomainEvent.BulkChange(TourPackage.class));
         }
         catch (Exception e) {
             System.err.println("Error saving packages: " + e.getMessage());
@@ -632,102 +906,277 @@ public class FileDataManager {
         }
     }
 
+    public static boolean savePackage(TourPackage tourPackage) {
+        try {
+            return publishIf(PACKAGES.save(tourPackage), new DomainEvent.PackageSaved(tourPackage));
+        } catch (Exception e) {
+            System.err.println("Error saving package: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** Adds or updates the given packages in one write; unlike savePackages, other packages are kept. */
+    public static boolean savePackagesBatch(Collection<TourPackage> packages) {
+        try {
+            return publishIf(PACKAGES.saveAll(packages), new DomainEvent.BulkChange(TourPackage.class));
+        } catch (Exception e) {
+            System.err.println("Error saving package batch: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static boolean deletePackage(String packageId) {
+        try {
+            return publishIf(PACKAGES.deleteById(packageId), new DomainEvent.PackageDeleted(packageId));
+        } catch (Exception e) {
+            System.err.println("Error deleting package: " + e.getMessage());
+            return false;
+        }
+    }
+
     public static TourPackage findTourPackageById(String packageId) {
-        List<TourPackage> packages = getAllPackages();
-        return packages.stream()
-                .filter(pkg -> packageId.equals(pkg.getPackageId()))
-                .findFirst()
-                .orElse(null);
+        return PACKAGES.findById(packageId);
+    }
+
+    public static boolean tourPackageExists(String packageId) {
+        return PACKAGES.existsById(packageId);
     }
 
     // ==================== BOOKING OPERATIONS ====================
 
     public static boolean saveBooking(Booking booking) {
         try {
-            List<Booking> bookings = getAllBookings();
-            bookings.removeIf(b -> booking.getBookingId().equals(b.getBookingId()));
-            bookings.add(booking);
-
-            List<String> lines = new ArrayList<>();
-            for (Booking b : bookings) {
-                lines.add(bookingToString(b));
+            boolean created = BOOKINGS.findById(booking.getBookingId()) == null;
+            boolean saved = BOOKINGS.save(booking);
+            if (saved) {
+                logActivity("SYSTEM", "Booking saved: " + booking.getBookingId());
+                EventBus.publish(created ? new DomainEvent.BookingCreated(booking) : new DomainEvent.BookingUpdated(booking));
             }
-            Files.write(Paths.get(BOOKINGS_FILE), lines);
-
-            logActivity("SYSTEM", "Booking saved: " + booking.getBookingId());
-            return true;
+            return saved;
         } catch (Exception e) {
             System.err.println("Error saving booking: " + e.getMessage());
             return false;
         }
     }
 
-    public static List<Booking> getAllBookings() {
-        List<Booking> bookings = new ArrayList<>();
+    /** Adds or updates the given bookings in one write and logs a single activity entry. */
+    public static boolean saveBookingsBatch(Collection<Booking> bookings) {
         try {
-            if (!Files.exists(Paths.get(BOOKINGS_FILE))) {
-                return bookings;
+            boolean saved = BOOKINGS.saveAll(bookings);
+            if (saved && !bookings.isEmpty()) {
+                logActivity("SYSTEM", "Bookings saved: " + bookings.size());
+                EventBus.publish(new DomainEvent.BulkChange(Booking.class));
             }
+            return saved;
+        } catch (Exception e) {
+            System.err.println("Error saving booking batch: " + e.getMessage());
+            return false;
+        }
+    }
 
-            List<String> lines = Files.readAllLines(Paths.get(BOOKINGS_FILE));
-            for (String line : lines) {
-                if (line != null && !line.trim().isEmpty()) {
-                    Booking booking = parseBookingFromString(line);
-                    if (booking != null) {
-                        bookings.add(booking);
-                    }
-                }
-            }
+    public static boolean updateBookingStatus(String bookingId, String status) {
+        try {
+            return publishIf(BOOKINGS.update(bookingId, "status", status),
+                    new DomainEvent.BookingStatusChanged(bookingId, status));
+        } catch (Exception e) {
+            System.err.println("Error updating booking status: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static boolean updateBookingPaymentStatus(String bookingId, String paymentStatus) {
+        try {
+            return publishIf(BOOKINGS.update(bookingId, "paymentStatus", paymentStatus),
+                    new DomainEvent.BookingPaymentStatusChanged(bookingId, paymentStatus));
+        } catch (Exception e) {
+            System.err.println("Error updating payment status: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static List<Booking> getAllBookings() {
+        try {
+            return BOOKINGS.findAll();
         } catch (Exception e) {
             System.err.println("Error loading bookings: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return bookings;
+    }
+
+    public static int countBookings() {
+        return BOOKINGS.count();
     }
 
     public static Booking findBookingById(String bookingId) {
-        List<Booking> bookings = getAllBookings();
-        return bookings.stream()
-                .filter(booking -> bookingId.equals(booking.getBookingId()))
-                .findFirst()
-                .orElse(null);
+        return BOOKINGS.findById(bookingId);
     }
 
-    public static boolean deleteBooking(String bookingId) {
+    public static boolean bookingExists(String bookingId) {
+        return BOOKINGS.existsById(bookingId);
+    }
+
+    public static List<Booking> findBookingsByTourist(String touristId) {
+        return BOOKINGS.findBy("touristId", touristId);
+    }
+
+    public static List<Booking> findBookingsByPackage(String packageId) {
+        return BOOKINGS.findBy("packageId", packageId);
+    }
+
+    public static List<Booking> findBookingsByGuide(String guideId) {
+        return BOOKINGS.findBy("guideId", guideId);
+    }
+
+    public static List<Booking> findBookingsByStatus(String status) {
+        return BOOKINGS.findBy("status", status);
+    }
+
+    public static List<Booking> findBookingsByPaymentStatus(String paymentStatus) {
+        return BOOKINGS.findBy("paymentStatus", paymentStatus);
+    }
+
+    /** One page of bookings for the booking table; see {@link Repository#findPage}. */
+    public static List<Booking> findBookingsPage(PageQuery query, int offset, int limit) {
         try {
-            List<Booking> bookings = getAllBookings();
-            boolean removed = bookings.removeIf(booking -> bookingId.equals(booking.getBookingId()));
+            return BOOKINGS.findPage(query, offset, limit);
+        } catch (Exception e) {
+            System.err.println("Error loading bookings page: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
 
-            if (removed) {
-                List<String> lines = new ArrayList<>();
-                for (Booking booking : bookings) {
-                    lines.add(bookingToString(booking));
-                }
-                Files.write(Paths.get(BOOKINGS_FILE), lines);
+    public static int countBookings(PageQuery query) {
+        return BOOKINGS.count(query);
+    }
+
+    public static int countBookingsByStatus(String status) {
+        return BOOKINGS.countBy("status", status);
+    }
+
+    public static int countBookingsByPaymentStatus(String paymentStatus) {
+        return BOOKINGS.countBy("paymentStatus", paymentStatus);
+    }
+
+    /** Total amount of the bookings with the given payment status, e.g. the revenue taken ("PAID"). */
+    public static double sumBookingAmountsByPaymentStatus(String paymentStatus) {
+        return BOOKINGS.sumBy("amountByPaymentStatus", paymentStatus);
+    }
+
+    /** Bookings made in the given month (by booking date, else creation date). */
+    public static int countBookingsInMonth(YearMonth month) {
+        return BOOKINGS.countBy("month", month.toString());
+    }
 
+    public static boolean deleteBooking(String bookingId) {
+        try {
+            boolean removed = BOOKINGS.deleteById(bookingId);
+            if (removed) {
                 logActivity("SYSTEM", "Booking deleted: " + bookingId);
-                return true;
+                EventBus.publish(new DomainEvent.BookingDeleted(bookingId));
             }
-            return false;
+            return removed;
         } catch (Exception e) {
             System.err.println("Error deleting booking: " + e.getMessage());
             return false;
         }
     }
+    /** Deletes the given bookings in one write; returns how many were removed. */
+    public static int deleteBookingsBatch(Collection<String> bookingIds) {
+        try {
+            List<String> removed = BOOKINGS.deleteAllById(bookingIds);
+            if (!removed.isEmpty()) {
+                logActivity("SYSTEM", "Bookings deleted: " + removed.size());
+                removed.forEach(bookingId -> EventBus.publish(new DomainEvent.BookingDeleted(bookingId)));
+            }
+            return removed.size();
+        } catch (Exception e) {
+            System.err.println("Error deleting booking batch: " + e.getMessage());
+            return 0;
+        }
+    }
 
     // ==================== ACTIVITY LOGGING ====================
 
     public static void logActivity(String username, String activity) {
         try {
             String logEntry = LocalDateTime.now().format(DATE_FORMATTER) + " | " + username + " | " + activity;
-            Files.write(Paths.get(ACTIVITY_LOG_FILE), (logEntry + System.lineSeparator()).getBytes(),
-                    java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.APPEND);
+            ACTIVITY_LOG.log(logEntry);
         } catch (Exception e) {
             System.err.println("Error logging activity: " + e.getMessage());
         }
     }
 
+    /** Streams the activity log (retained segments, then the current file) one entry at a time, oldest first. */
+    public static void readActivityLog(Consumer<String> consumer) {
+        try {
+            ACTIVITY_LOG.flush();
+            for (Path segment : ACTIVITY_LOG_SEGMENTS.list()) {
+                LogSegments.forEachLine(segment, consumer);
+            }
+            Path logFile = Paths.get(ACTIVITY_LOG_FILE);
+            if (Files.exists(logFile)) {
+                ChannelLineReader.forEachLine(logFile, consumer);
+            }
+        } catch (Exception e) {
+            System.err.println("Error reading activity log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Activity entries of one user (null: everyone) between two times (null: open
+     * ended), oldest first. Uses the log indexes to read only the blocks that can
+     * match, so it stays fast on a large log history.
+     */
+    public static List<String> queryActivityLog(String username, LocalDateTime from, LocalDateTime to) {
+        List<String> entries = new ArrayList<>();
+        try {
+            ACTIVITY_LOG.query(username,
+                    from != null ? ActivityLogIndex.toMillis(from) : Long.MIN_VALUE,
+                    to != null ? ActivityLogIndex.toMillis(to) : Long.MAX_VALUE,
+                    entries::add);
+        } catch (Exception e) {
+            System.err.println("Error querying activity log: " + e.getMessage());
+        }
+        return entries;
+    }
+
     // ==================== STRING CONVERSION METHODS ====================
 
+    private static String discountToString(FestivalDiscount discount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(discount.getDiscountId() != null ? discount.getDiscountId() : "").append("|");
+        sb.append(discount.getFestivalName() != null ? discount.getFestivalName() : "").append("|");
+        sb.append(discount.getDiscountPercentage()).append("|"); // Remove null check for primitive double
+        sb.append(String.valueOf(discount.isActive()));
+        return sb.toString();
+    }
+
+    private static FestivalDiscount parseDiscountFromString(String line) {
+        try {
+            FieldScanner fields = FieldScanner.scan(line);
+            if (fields.fieldCount() >= 3) {
+                FestivalDiscount discount = new FestivalDiscount();
+                discount.setDiscountId(fields.text(0));
+                discount.setFestivalName(fields.text(1));
+
+                if (!fields.isEmpty(2)) {
+                    discount.setDiscountPercentage(fields.parseDouble(2, 0.0));
+                }
+
+                if (fields.fieldCount() > 3) {
+                    discount.setActive(fields.parseBoolean(3));
+                } else {
+                    discount.setActive(true);
+                }
+
+                return discount;
+            }
+        } catch (Exception e) {
+            System.err.println("Error parsing discount: " + line);
+        }
+        return null;
+    }
+
     private static String userToString(User user) {
         StringBuilder sb = new StringBuilder();
         sb.append(user.getUserId() != null ? user.getUserId() : "").append("|");
@@ -742,12 +1191,13 @@ public class FileDataManager {
 
     private static User parseUserFromString(String line) {
         try {
-            String[] parts = line.split("\\|");
-            if (parts.length >= 4) {
-                User user = new User(parts[0], parts[1], parts[2], parts[3]);
-                if (parts.length > 4 && !parts[4].isEmpty()) user.setFullName(parts[4]);
-                if (parts.length > 5 && !parts[5].isEmpty()) user.setAdminLevel(parts[5]);
-                if (parts.length > 6) user.setActive(Boolean.parseBoolean(parts[6]));
+            FieldScanner fields = FieldScanner.scan(line);
+            int count = fields.fieldCount();
+            if (count >= 4) {
+                User user = new User(fields.text(0), fields.text(1), fields.text(2), fields.token(3, FieldScanner.ROLES));
+                if (count > 4 && !fields.isEmpty(4)) user.setFullName(fields.text(4));
+                if (count > 5 && !fields.isEmpty(5)) user.setAdminLevel(fields.text(5));
+                if (count > 6) user.setActive(fields.parseBoolean(6));
                 return user;
             }
         } catch (Exception e) {
@@ -765,27 +1215,30 @@ public class FileDataManager {
         sb.append(tourist.getEmail() != null ? tourist.getEmail() : "").append("|");
         sb.append(tourist.getPhoneNumber() != null ? tourist.getPhoneNumber() : "").append("|");
         sb.append(tourist.getNationality() != null ? tourist.getNationality() : "").append("|");
-        sb.append(String.valueOf(tourist.isActive()));
+        sb.append(String.valueOf(tourist.isActive())).append("|");
+        sb.append(formatDate(tourist.getCreatedAt()));
         return sb.toString();
     }
 
     private static Tourist parseTouristFromString(String line) {
         try {
-            String[] parts = line.split("\\|");
+            FieldScanner fields = FieldScanner.scan(line);
             // The touristToString produces 7 parts. Ensure parse handles at least 7 parts correctly.
             // Adjust condition to >= 7 for robust parsing of all fields.
-            if (parts.length >= 7) { // Corrected minimum length for all expected fields
+            if (fields.fieldCount() >= 7) { // Corrected minimum length for all expected fields
                 Tourist tourist = new Tourist();
-                tourist.setTouristId(parts[0]);
-                tourist.setAccountId(parts[1]); // Assuming accountId is always present now
-                tourist.setFullName(parts[2]);
-                tourist.setEmail(parts[3]);
-                tourist.setPhoneNumber(parts[4]);
-                tourist.setNationality(parts[5]);
-                tourist.setActive(Boolean.parseBoolean(parts[6]));
+                tourist.setTouristId(fields.text(0));
+                tourist.setAccountId(fields.text(1)); // Assuming accountId is always present now
+                tourist.setFullName(fields.text(2));
+                tourist.setEmail(fields.text(3));
+                tourist.setPhoneNumber(fields.text(4));
+                tourist.setNationality(fields.text(5));
+                tourist.setActive(fields.parseBoolean(6));
+                // Lines written before the date was stored have no creation date
+                tourist.setCreatedAt(fields.fieldCount() > 7 ? parseDate(fields.text(7)) : null);
                 return tourist;
             } else {
-                System.err.println("WARNING: Tourist line has fewer parts than expected (" + parts.length + "): " + line);
+                System.err.println("WARNING: Tourist line has fewer parts than expected (" + fields.fieldCount() + "): " + line);
             }
         } catch (Exception e) {
             System.err.println("Error parsing tourist: " + line + " - " + e.getMessage());
@@ -807,18 +1260,18 @@ public class FileDataManager {
 
     private static Guide parseGuideFromString(String line) {
         try {
-            String[] parts = line.split("\\|");
-            if (parts.length >= 6) { // Corrected this from >=2 to >=6 for robust parsing
+            FieldScanner fields = FieldScanner.scan(line);
+            if (fields.fieldCount() >= 6) { // Corrected this from >=2 to >=6 for robust parsing
                 Guide guide = new Guide();
-                guide.setGuideId(parts[0]);
-                guide.setFullName(parts[1]);
-                guide.setEmail(parts[2]);
-                guide.setPhoneNumber(parts[3]);
-                guide.setSpecialization(parts[4]);
-                guide.setActive(Boolean.parseBoolean(parts[5]));
+                guide.setGuideId(fields.text(0));
+                guide.setFullName(fields.text(1));
+                guide.setEmail(fields.text(2));
+                guide.setPhoneNumber(fields.text(3));
+                guide.setSpecialization(fields.text(4));
+                guide.setActive(fields.parseBoolean(5));
                 return guide;
             } else {
-                System.err.println("WARNING: Guide line has fewer parts than expected (" + parts.length + "): " + line);
+                System.err.println("WARNING: Guide line has fewer parts than expected (" + fields.fieldCount() + "): " + line);
             }
         } catch (Exception e) {
             System.err.println("Error parsing guide: " + line);
@@ -859,69 +1312,54 @@ public class FileDataManager {
      */
     private static TourPackage parsePackageFromString(String line) {
         try {
-            String[] parts = line.split("\\|");
+            FieldScanner fields = FieldScanner.scan(line);
+            int count = fields.fieldCount();
             // Updated minimum length to account for the new maxAltitude field (11 fields + active = 12 parts)
-            if (parts.length >= 12) { // Changed from >=6 to >=12 to include all fields up to active
+            if (count >= 12) { // Changed from >=6 to >=12 to include all fields up to active
                 TourPackage pkg = new TourPackage();
 
-                pkg.setPackageId(parts[0]);
-                pkg.setName(parts[1]);
-                pkg.setDescription(parts[2]);
+                pkg.setPackageId(fields.text(0));
+                pkg.setName(fields.text(1));
+                pkg.setDescription(fields.text(2));
 
                 // Parse price safely
-                if (!parts[3].isEmpty()) {
-                    try {
-                        pkg.setPrice(Double.parseDouble(parts[3]));
-                    } catch (NumberFormatException e) {
-                        pkg.setPrice(0.0);
-                    }
+                if (!fields.isEmpty(3)) {
+                    pkg.setPrice(fields.parseDouble(3, 0.0));
                 }
 
                 // Parse duration safely
-                if (!parts[4].isEmpty()) {
-                    try {
-                        pkg.setDurationDays(Integer.parseInt(parts[4]));
-                    } catch (NumberFormatException e) {
-                        pkg.setDurationDays(1);
-                    }
+                if (!fields.isEmpty(4)) {
+                    pkg.setDurationDays(fields.parseInt(4, 1));
                 }
 
-                pkg.setCategory(parts[5]);
+                pkg.setCategory(fields.text(5));
 
                 // Optional fields
-                if (parts.length > 6 && !parts[6].isEmpty()) pkg.setDestination(parts[6]);
-                if (parts.length > 7 && !parts[7].isEmpty()) pkg.setDifficulty(parts[7]);
-                if (parts.length > 8 && !parts[8].isEmpty()) pkg.setSeason(parts[8]);
-
-                if (parts.length > 9 && !parts[9].isEmpty()) {
-                    try {
-                        pkg.setMaxParticipants(Integer.parseInt(parts[9]));
-                    } catch (NumberFormatException e) {
-                        pkg.setMaxParticipants(0);
-                    }
+                if (count > 6 && !fields.isEmpty(6)) pkg.setDestination(fields.text(6));
+                if (count > 7 && !fields.isEmpty(7)) pkg.setDifficulty(fields.text(7));
+                if (count > 8 && !fields.isEmpty(8)) pkg.setSeason(fields.text(8));
+
+                if (count > 9 && !fields.isEmpty(9)) {
+                    pkg.setMaxParticipants(fields.parseInt(9, 0));
                 }
 
-                // Parse maxAltitude safely (new field at index 10)
-                if (parts.length > 10 && !parts[10].isEmpty()) {
-                    try {
-                        pkg.setMaxAltitude(Double.parseDouble(parts[10]));
-                    } catch (NumberFormatException e) {
-                        pkg.setMaxAltitude(0.0); // Default if parsing fails
-                    }
+                // Parse maxAltitude safely (new field at index 10); defaults to 0.0 if missing or invalid
+                if (count > 10 && !fields.isEmpty(10)) {
+                    pkg.setMaxAltitude(fields.parseDouble(10, 0.0));
                 } else {
                     pkg.setMaxAltitude(0.0); // Default if field is missing
                 }
 
 
-                if (parts.length > 11) { // active field is now at index 11
-                    pkg.setActive(Boolean.parseBoolean(parts[11]));
+                if (count > 11) { // active field is now at index 11
+                    pkg.setActive(fields.parseBoolean(11));
                 } else {
                     pkg.setActive(true);
                 }
 
                 return pkg;
             } else {
-                System.err.println("WARNING: Package line has fewer parts than expected (" + parts.length + "): " + line);
+                System.err.println("WARNING: Package line has fewer parts than expected (" + count + "): " + line);
             }
         } catch (Exception e) {
             System.err.println("Error parsing package: " + line + " - " + e.getMessage());
@@ -940,40 +1378,40 @@ public class FileDataManager {
         sb.append(booking.getTotalAmount() != null ? booking.getTotalAmount().toString() : "0.0").append("|");
         sb.append(booking.getNumberOfPeople() != null ? booking.getNumberOfPeople().toString() : "1").append("|");
         sb.append(booking.getSpecialRequests() != null ? booking.getSpecialRequests() : "").append("|");
-        sb.append(booking.getPaymentStatus() != null ? booking.getPaymentStatus() : "PENDING");
+        sb.append(booking.getPaymentStatus() != null ? booking.getPaymentStatus() : "PENDING").append("|");
+        sb.append(formatDate(booking.getBookingDate())).append("|");
+        sb.append(formatDate(booking.getTravelDate())).append("|");
+        sb.append(formatDate(booking.getCreatedAt()));
         return sb.toString();
     }
 
     private static Booking parseBookingFromString(String line) {
         try {
-            String[] parts = line.split("\\|");
-            if (parts.length >= 5) {
+            FieldScanner fields = FieldScanner.scan(line);
+            int count = fields.fieldCount();
+            if (count >= 5) {
                 Booking booking = new Booking();
-                booking.setBookingId(parts[0]);
-                booking.setTouristId(parts[1]);
-                booking.setPackageId(parts[2]);
-                if (!parts[3].isEmpty()) booking.setGuideId(parts[3]);
-                booking.setStatus(parts[4]);
-
-                if (parts.length > 5 && !parts[5].isEmpty()) {
-                    try {
-                        booking.setTotalAmount(Double.parseDouble(parts[5]));
-                    } catch (NumberFormatException e) {
-                        booking.setTotalAmount(0.0);
-                    }
+                booking.setBookingId(fields.text(0));
+                booking.setTouristId(fields.text(1));
+                booking.setPackageId(fields.text(2));
+                if (!fields.isEmpty(3)) booking.setGuideId(fields.text(3));
+                booking.setStatus(fields.token(4, FieldScanner.BOOKING_STATUSES));
+
+                if (count > 5 && !fields.isEmpty(5)) {
+                    booking.setTotalAmount(fields.parseDouble(5, 0.0));
                 }
 
-                if (parts.length > 6 && !parts[6].isEmpty()) {
-                    try {
-                        booking.setNumberOfPeople(Integer.parseInt(parts[6]));
-                    } catch (NumberFormatException e) {
-                        booking.setNumberOfPeople(1);
-                    }
+                if (count > 6 && !fields.isEmpty(6)) {
+                    booking.setNumberOfPeople(fields.parseInt(6, 1));
                 }
 
-                if (parts.length > 7) booking.setSpecialRequests(parts[7]);
-                if (parts.length > 8) booking.setPaymentStatus(parts[8]);
+                if (count > 7) booking.setSpecialRequests(fields.text(7));
+                if (count > 8) booking.setPaymentStatus(fields.token(8, FieldScanner.PAYMENT_STATUSES));
 
+                // Lines written before the dates were stored have none
+                booking.setBookingDate(count > 9 ? parseDate(fields.text(9)) : null);
+                booking.setTravelDate(count > 10 ? parseDate(fields.text(10)) : null);
+                booking.setCreatedAt(count > 11 ? parseDate(fields.text(11)) : null);
                 return booking;
             }
         } catch (Exception e) {
@@ -982,6 +1420,184 @@ public class FileDataManager {
         return null;
     }
 
+    private static String formatDate(LocalDateTime date) {
+        return date != null ? date.format(DATE_FORMATTER) : "";
+    }
+
+    private static LocalDateTime parseDate(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(text, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            System.err.println("WARNING: Ignoring bad date: " + text);
+            return null;
+        }
+    }
+
+    /** Index value for the month of a date, e.g. "2024-05"; see {@link #countBookingsInMonth}. */
+    private static String monthOf(LocalDateTime date) {
+        return date != null ? YearMonth.from(date).toString() : null;
+    }
+
+    /** Zero-padded amount, so "900.00" does not sort after "1200.00"; amounts are never negative. */
+    private static String sortableAmount(Double amount) {
+        return amount != null ? String.format(Locale.ROOT, "%016.2f", amount) : null;
+    }
+
+    // ==================== BINARY SNAPSHOT CODECS ====================
+    // Each pair mirrors the text format above field for field, including its defaults,
+    // so a record loads the same from a snapshot as from its text line.
+
+    private static void writeUser(User user, EntitySnapshot.Writer out) {
+        out.writeString(user.getUserId() != null ? user.getUserId() : "");
+        out.writeString(user.getUsername() != null ? user.getUsername() : "");
+        out.writeString(user.getPassword() != null ? user.getPassword() : "");
+        out.writeSymbol(user.getRole() != null ? user.getRole() : "");
+        out.writeString(user.getFullName());
+        out.writeString(user.getAdminLevel());
+        out.writeBoolean(user.isActive());
+    }
+
+    private static User readUser(EntitySnapshot.Reader in) {
+        User user = new User(in.readString(), in.readString(), in.readString(), in.readSymbol());
+        String fullName = in.readString();
+        String adminLevel = in.readString();
+        if (fullName != null && !fullName.isEmpty()) user.setFullName(fullName);
+        if (adminLevel != null && !adminLevel.isEmpty()) user.setAdminLevel(adminLevel);
+        user.setActive(in.readBoolean());
+        return user;
+    }
+
+    private static void writeTourist(Tourist tourist, EntitySnapshot.Writer out) {
+        out.writeString(tourist.getTouristId() != null ? tourist.getTouristId() : "");
+        out.writeString(tourist.getAccountId() != null ? tourist.getAccountId() : "");
+        out.writeString(tourist.getFullName() != null ? tourist.getFullName() : "");
+        out.writeString(tourist.getEmail() != null ? tourist.getEmail() : "");
+        out.writeString(tourist.getPhoneNumber() != null ? tourist.getPhoneNumber() : "");
+        out.writeSymbol(tourist.getNationality() != null ? tourist.getNationality() : "");
+        out.writeBoolean(tourist.isActive());
+        out.writeString(formatDate(tourist.getCreatedAt()));
+    }
+
+    private static Tourist readTourist(EntitySnapshot.Reader in) {
+        Tourist tourist = new Tourist();
+        tourist.setTouristId(in.readString());
+        tourist.setAccountId(in.readString());
+        tourist.setFullName(in.readString());
+        tourist.setEmail(in.readString());
+        tourist.setPhoneNumber(in.readString());
+        tourist.setNationality(in.readSymbol());
+        tourist.setActive(in.readBoolean());
+        tourist.setCreatedAt(parseDate(in.readString()));
+        return tourist;
+    }
+
+    private static void writeGuide(Guide guide, EntitySnapshot.Writer out) {
+        out.writeString(guide.getGuideId() != null ? guide.getGuideId() : "");
+        out.writeString(guide.getFullName() != null ? guide.getFullName() : "");
+        out.writeString(guide.getEmail() != null ? guide.getEmail() : "");
+        out.writeString(guide.getPhoneNumber() != null ? guide.getPhoneNumber() : "");
+        out.writeSymbol(guide.getSpecialization() != null ? guide.getSpecialization() : "");
+        out.writeBoolean(guide.isActive());
+    }
+
+    private static Guide readGuide(EntitySnapshot.Reader in) {
+        Guide guide = new Guide();
+        guide.setGuideId(in.readString());
+        guide.setFullName(in.readString());
+        guide.setEmail(in.readString());
+        guide.setPhoneNumber(in.readString());
+        guide.setSpecialization(in.readSymbol());
+        guide.setActive(in.readBoolean());
+        return guide;
+    }
+
+    private static void writePackage(TourPackage pkg, EntitySnapshot.Writer out) {
+        out.writeString(pkg.getPackageId() != null ? pkg.getPackageId() : "");
+        out.writeString(pkg.getPackageName() != null ? pkg.getPackageName() : "");
+        out.writeString(pkg.getDescription() != null ? pkg.getDescription() : "");
+        out.writeDouble(pkg.getPrice() != null ? pkg.getPrice() : 0.0);
+        out.writeInt(pkg.getDurationDays() != null ? pkg.getDurationDays() : 1);
+        out.writeSymbol(pkg.getCategory() != null ? pkg.getCategory() : "");
+        out.writeSymbol(pkg.getDestination());
+        out.writeSymbol(pkg.getDifficulty());
+        out.writeSymbol(pkg.getSeason());
+        out.writeInt(pkg.getMaxParticipants() != null ? pkg.getMaxParticipants() : 0);
+        out.writeDouble(pkg.getMaxAltitude() != null ? pkg.getMaxAltitude() : 0.0);
+        out.writeBoolean(pkg.isActive());
+    }
+
+    private static TourPackage readPackage(EntitySnapshot.Reader in) {
+        TourPackage pkg = new TourPackage();
+        pkg.setPackageId(in.readString());
+        pkg.setName(in.readString());
+        pkg.setDescription(in.readString());
+        pkg.setPrice(in.readDouble());
+        pkg.setDurationDays(in.readInt());
+        pkg.setCategory(in.readSymbol());
+        String destination = in.readSymbol();
+        String difficulty = in.readSymbol();
+        String season = in.readSymbol();
+        if (destination != null && !destination.isEmpty()) pkg.setDestination(destination);
+        if (difficulty != null && !difficulty.isEmpty()) pkg.setDifficulty(difficulty);
+        if (season != null && !season.isEmpty()) pkg.setSeason(season);
+        pkg.setMaxParticipants(in.readInt());
+        pkg.setMaxAltitude(in.readDouble());
+        pkg.setActive(in.readBoolean());
+        return pkg;
+    }
+
+    private static void writeBooking(Booking booking, EntitySnapshot.Writer out) {
+        out.writeString(booking.getBookingId() != null ? booking.getBookingId() : "");
+        out.writeSymbol(booking.getTouristId() != null ? booking.getTouristId() : "");
+        out.writeSymbol(booking.getPackageId() != null ? booking.getPackageId() : "");
+        out.writeSymbol(booking.getGuideId());
+        out.writeSymbol(booking.getStatus() != null ? booking.getStatus() : "PENDING");
+        out.writeDouble(booking.getTotalAmount() != null ? booking.getTotalAmount() : 0.0);
+        out.writeInt(booking.getNumberOfPeople() != null ? booking.getNumberOfPeople() : 1);
+        out.writeString(booking.getSpecialRequests() != null ? booking.getSpecialRequests() : "");
+        out.writeSymbol(booking.getPaymentStatus() != null ? booking.getPaymentStatus() : "PENDING");
+        out.writeString(formatDate(booking.getBookingDate()));
+        out.writeString(formatDate(booking.getTravelDate()));
+        out.writeString(formatDate(booking.getCreatedAt()));
+    }
+
+    private static Booking readBooking(EntitySnapshot.Reader in) {
+        Booking booking = new Booking();
+        booking.setBookingId(in.readString());
+        booking.setTouristId(in.readSymbol());
+        booking.setPackageId(in.readSymbol());
+        String guideId = in.readSymbol();
+        if (guideId != null && !guideId.isEmpty()) booking.setGuideId(guideId);
+        booking.setStatus(in.readSymbol());
+        booking.setTotalAmount(in.readDouble());
+        booking.setNumberOfPeople(in.readInt());
+        booking.setSpecialRequests(in.readString());
+        booking.setPaymentStatus(in.readSymbol());
+        booking.setBookingDate(parseDate(in.readString()));
+        booking.setTravelDate(parseDate(in.readString()));
+        booking.setCreatedAt(parseDate(in.readString()));
+        return booking;
+    }
+
+    private static void writeDiscount(FestivalDiscount discount, EntitySnapshot.Writer out) {
+        out.writeString(discount.getDiscountId() != null ? discount.getDiscountId() : "");
+        out.writeString(discount.getFestivalName() != null ? discount.getFestivalName() : "");
+        out.writeDouble(discount.getDiscountPercentage());
+        out.writeBoolean(discount.isActive());
+    }
+
+    private static FestivalDiscount readDiscount(EntitySnapshot.Reader in) {
+        FestivalDiscount discount = new FestivalDiscount();
+        discount.setDiscountId(in.readString());
+        discount.setFestivalName(in.readString());
+        discount.setDiscountPercentage(in.readDouble());
+        discount.setActive(in.readBoolean());
+        return discount;
+    }
+
     public static void backupAllData() {
     }
 }
@@ -0,0 +1,75 @@
+package com.tourism.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/** Size, line count and SHA-256 of a byte stream, as recorded in backup manifests. */
+final class FileDigest {
+
+    private final MessageDigest sha = sha256();
+    private long size;
+    private long newlines;
+    private boolean endsWithNewline = true;
+
+    void update(byte[] data, int offset, int length) {
+        sha.update(data, offset, length);
+        for (int i = offset; i < offset + length; i++) {
+            if (data[i] == '\n') {
+                newlines++;
+            }
+        }
+        if (length > 0) {
+            endsWithNewline = data[offset + length - 1] == '\n';
+            size += length;
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    /** Number of lines, counting a last line without a line break. */
+    long rows() {
+        return endsWithNewline ? newlines : newlines + 1;
+    }
+
+    /** Hex SHA-256 of everything so far; call once, at the end. */
+    String sha256Hex() {
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    static FileDigest of(Path file) throws IOException {
+        FileDigest digest = new FileDigest();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return digest;
+    }
+
+    static int countNewlines(byte[] data, int length) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (data[i] == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,687 @@
+package com.tourism.utils;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Repository backed by an embedded SQL database (H2 by default).
+ * <p>
+ * One table per entity: the primary key, a sequence number that keeps insertion
+ * order the way the flat files do, one indexed column per secondary index of the
+ * entity, one numeric column per sum index, and the record itself as its usual pipe-delimited line. The entity's
+ * flat-file {@link EntityStore} supplies the definition (parser, formatter, indexes,
+ * updatable fields), and the table is seeded from that store's file the first time
+ * it is created.
+ */
+class JdbcRepository<T> implements Repository<T, String> {
+
+    private final ConnectionPool pool;
+    private final EntityStore<T> definition;
+    private final String table;
+    private final List<String> indexNames;
+    private final List<String> sumNames;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong version = new AtomicLong(); // bumped after every committed change
+    private final Map<String, TextIndex<T>> textIndexes = new HashMap<>(); // built on first search; guarded by itself
+
+    private final String selectAllSql;
+    private final String selectByIdSql;
+    private final String mergeSql;
+    private final String deleteSql;
+
+    private volatile boolean initialized;
+
+    JdbcRepository(ConnectionPool pool, EntityStore<T> definition) {
+        this.pool = pool;
+        this.definition = definition;
+        this.table = definition.getName();
+        this.indexNames = new ArrayList<>(definition.getIndexedAttributes().keySet());
+        this.sumNames = new ArrayList<>(definition.getSumGroups().keySet());
+
+        StringBuilder columns = new StringBuilder("id, seq");
+        // A row that is already there keeps its seq, and so its position
+        StringBuilder placeholders = new StringBuilder("?, COALESCE((SELECT seq FROM " + table + " WHERE id = ?), ?)");
+        for (String index : indexNames) {
+            columns.append(", ").append(column(index));
+            placeholders.append(", ?");
+        }
+        for (String sum : sumNames) {
+            columns.append(", ").append(sumColumn(sum));
+            placeholders.append(", ?");
+        }
+        columns.append(", payload");
+        placeholders.append(", ?");
+
+        this.selectAllSql = "SELECT payload FROM " + table + " ORDER BY seq";
+        this.selectByIdSql = "SELECT payload FROM " + table + " WHERE id = ?";
+        this.mergeSql = "MERGE INTO " + table + " (" + columns + ") KEY (id) VALUES (" + placeholders + ")";
+        this.deleteSql = "DELETE FROM " + table + " WHERE id = ?";
+    }
+
+    // ==================== READS ====================
+
+    @Override
+    public List<T> findAll() {
+        ensureInitialized();
+        try {
+            return pool.withConnection(connection -> query(connection, selectAllSql));
+        } catch (SQLException e) {
+            System.err.println("Error reading " + table + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public List<T> findAll(Predicate<T> predicate) {
+        List<T> result = new ArrayList<>();
+        for (T record : findAll()) {
+            if (predicate.test(record)) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public T findById(String id) {
+        ensureInitialized();
+        try {
+            List<T> found = pool.withConnection(connection -> query(connection, selectByIdSql, id));
+            return found.isEmpty() ? null : found.get(0);
+        } catch (SQLException e) {
+            System.err.println("Error reading " + table + " record " + id + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        ensureInitialized();
+        return count("SELECT COUNT(*) FROM " + table + " WHERE id = ?", id) > 0;
+    }
+
+    @Override
+    public T findByUnique(String indexName, String value) {
+        ensureInitialized();
+        // Like the in-memory unique index, the most recently saved record wins
+        String sql = "SELECT payload FROM " + table + " WHERE " + indexColumn(indexName) + " = ? ORDER BY seq DESC LIMIT 1";
+        try {
+            List<T> found = pool.withConnection(connection -> query(connection, sql, value));
+            return found.isEmpty() ? null : found.get(0);
+        } catch (SQLException e) {
+            System.err.println("Error looking up " + table + " by " + indexName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public List<T> findBy(String indexName, String value) {
+        ensureInitialized();
+        String sql = "SELECT payload FROM " + table + " WHERE " + indexColumn(indexName) + " = ? ORDER BY seq";
+        try {
+            return pool.withConnection(connection -> query(connection, sql, value));
+        } catch (SQLException e) {
+            System.err.println("Error looking up " + table + " by " + indexName + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Text search has no SQL counterpart here, so the entity's {@link TextIndex} is kept
+     * in memory: built from the table on first use and updated by this repository's own
+     * writes. Only the matching rows are read back.
+     */
+    @Override
+    public List<T> search(String indexName, String text) {
+        List<Function<T, String>> fields = definition.getTextFields().get(indexName);
+        if (fields == null) {
+            throw new IllegalArgumentException("No text index " + indexName + " on " + table);
+        }
+        List<String> keys;
+        synchronized (textIndexes) {
+            TextIndex<T> index = textIndexes.get(indexName);
+            if (index == null) {
+                index = new TextIndex<>(fields);
+                for (T record : findAll()) {
+                    index.put(definition.getKeyExtractor().apply(record), record);
+                }
+                textIndexes.put(indexName, index);
+            }
+            keys = index.search(text);
+        }
+        return findAllById(keys);
+    }
+
+    /** The records of the given keys, in that order, read in batches. */
+    private List<T> findAllById(List<String> keys) {
+        Map<String, T> byKey = new HashMap<>();
+        try {
+            for (int from = 0; from < keys.size(); from += 500) {
+                List<String> batch = keys.subList(from, Math.min(keys.size(), from + 500));
+                String sql = "SELECT payload FROM " + table + " WHERE id IN ("
+                        + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")";
+                for (T record : pool.withConnection(connection -> query(connection, sql, batch.toArray(new String[0])))) {
+                    byKey.put(definition.getKeyExtractor().apply(record), record);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading " + table + " search results: " + e.getMessage());
+            return new ArrayList<>();
+        }
+        List<T> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            T record = byKey.get(key);
+            if (record != null) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int countBy(String indexName, String value) {
+        ensureInitialized();
+        return count("SELECT COUNT(*) FROM " + table + " WHERE " + indexColumn(indexName) + " = ?", value);
+    }
+
+    /** SUM over the amount column in the database. */
+    @Override
+    public double sumBy(String indexName, String value) {
+        ensureInitialized();
+        if (!sumNames.contains(indexName)) {
+            throw new IllegalArgumentException("No sum index " + indexName + " on " + table);
+        }
+        String sql = "SELECT COALESCE(SUM(" + sumColumn(indexName) + "), 0) FROM " + table
+                + " WHERE " + column(definition.getSumGroups().get(indexName)) + " = ?";
+        try {
+            return pool.withConnection(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setString(1, value);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        return rs.next() ? rs.getDouble(1) : 0;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error summing " + table + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public int count() {
+        ensureInitialized();
+        return count("SELECT COUNT(*) FROM " + table);
+    }
+
+    /** LIMIT/OFFSET paging in the database: only the page's rows are read and parsed. */
+    @Override
+    public List<T> findPage(PageQuery query, int offset, int limit) {
+        ensureInitialized();
+        String direction = query.isDescending() ? " DESC NULLS LAST" : " ASC NULLS FIRST";
+        StringBuilder sql = new StringBuilder("SELECT payload FROM ").append(table).append(where(query)).append(" ORDER BY ");
+        if (query.getSortBy() != null) {
+            String sortColumn = PageQuery.BY_KEY.equals(query.getSortBy()) ? "id" : indexColumn(query.getSortBy());
+            sql.append(sortColumn).append(direction).append(", ");
+        }
+        sql.append("seq").append(query.isDescending() ? " DESC" : " ASC")
+                .append(" LIMIT ").append(Math.max(0, limit)).append(" OFFSET ").append(Math.max(0, offset));
+        try {
+            return pool.withConnection(connection -> query(connection, sql.toString(), filterParameters(query)));
+        } catch (SQLException e) {
+            System.err.println("Error reading " + table + " page: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public int count(PageQuery query) {
+        ensureInitialized();
+        return count("SELECT COUNT(*) FROM " + table + where(query), filterParameters(query));
+    }
+
+    private String where(PageQuery query) {
+        if (query.getFilterIndex() == null) {
+            return "";
+        }
+        String column = indexColumn(query.getFilterIndex());
+        return query.getFilterValue() == null ? " WHERE " + column + " IS NULL" : " WHERE " + column + " = ?";
+    }
+
+    private static String[] filterParameters(PageQuery query) {
+        return query.getFilterIndex() == null || query.getFilterValue() == null
+                ? new String[0] : new String[]{query.getFilterValue()};
+    }
+
+    // ==================== MUTATIONS ====================
+
+    @Override
+    public boolean save(T record) {
+        ensureInitialized();
+        try {
+            pool.withConnection(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(mergeSql)) {
+                    bind(statement, record, sequence.incrementAndGet());
+                    return statement.executeUpdate();
+                }
+            });
+            version.incrementAndGet();
+            textPut(List.of(record));
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error saving " + table + " record: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean saveAll(Collection<T> records) {
+        ensureInitialized();
+        try {
+            pool.inTransaction(connection -> {
+                insertAll(connection, records);
+                return null;
+            });
+            version.incrementAndGet();
+            textPut(records);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error saving " + table + " batch: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        ensureInitialized();
+        try {
+            boolean removed = pool.withConnection(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(deleteSql)) {
+                    statement.setString(1, id);
+                    return statement.executeUpdate() > 0;
+                }
+            });
+            if (removed) {
+                version.incrementAndGet();
+                textRemove(List.of(id));
+            }
+            return removed;
+        } catch (SQLException e) {
+            System.err.println("Error deleting " + table + " record " + id + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public List<String> deleteAllById(Collection<String> ids) {
+        ensureInitialized();
+        List<String> requested = new ArrayList<>(ids);
+        try {
+            List<String> removed = pool.inTransaction(connection -> {
+                List<String> deleted = new ArrayList<>();
+                try (PreparedStatement statement = connection.prepareStatement(deleteSql)) {
+                    for (String id : requested) {
+                        statement.setString(1, id);
+                        statement.addBatch();
+                    }
+                    int[] counts = statement.executeBatch(); // one count per id, in order
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] > 0) {
+                            deleted.add(requested.get(i));
+                        }
+                    }
+                }
+                return deleted;
+            });
+            if (!removed.isEmpty()) {
+                version.incrementAndGet();
+                textRemove(removed);
+            }
+            return removed;
+        } catch (SQLException e) {
+            System.err.println("Error deleting " + table + " batch: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    @Override
+    public boolean update(String id, String field, String value) {
+        BiConsumer<T, String> setter = definition.getFieldSetters().get(field);
+        if (setter == null) {
+            throw new IllegalArgumentException("Field not registered for " + table + ": " + field);
+        }
+        ensureInitialized();
+        String lockSql = "SELECT seq, payload FROM " + table + " WHERE id = ? FOR UPDATE";
+        try {
+            boolean updated = pool.inTransaction(connection -> {
+                long seq;
+                T record;
+                try (PreparedStatement statement = connection.prepareStatement(lockSql)) {
+                    statement.setString(1, id);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        seq = rs.getLong(1);
+                        record = definition.getParser().apply(rs.getString(2));
+                    }
+                }
+                if (record == null) {
+                    return false;
+                }
+                setter.accept(record, value);
+                try (PreparedStatement statement = connection.prepareStatement(mergeSql)) {
+                    bind(statement, record, seq); // an update keeps the record's position
+                    statement.executeUpdate();
+                }
+                return true;
+            });
+            if (updated) {
+                version.incrementAndGet();
+            }
+            if (updated && hasTextIndexes()) {
+                T record = findById(id);
+                if (record != null) {
+                    textPut(List.of(record));
+                }
+            }
+            return updated;
+        } catch (SQLException e) {
+            System.err.println("Error updating " + table + " record " + id + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean replaceAll(List<T> records) {
+        ensureInitialized();
+        try {
+            pool.inTransaction(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DELETE FROM " + table);
+                }
+                insertAll(connection, records);
+                return null;
+            });
+            version.incrementAndGet();
+            dropTextIndexes();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error saving " + table + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        dropTextIndexes(); // the only thing held in memory; rebuilt on the next search
+    }
+
+    @Override
+    public long version() {
+        return version.get(); // changes made outside this process are not seen
+    }
+
+    // ==================== TEXT INDEXES ====================
+
+    private boolean hasTextIndexes() {
+        synchronized (textIndexes) {
+            return !textIndexes.isEmpty();
+        }
+    }
+
+    private void textPut(Collection<T> records) {
+        synchronized (textIndexes) {
+            for (TextIndex<T> index : textIndexes.values()) {
+                for (T record : records) {
+                    index.put(definition.getKeyExtractor().apply(record), record);
+                }
+            }
+        }
+    }
+
+    private void textRemove(Collection<String> ids) {
+        synchronized (textIndexes) {
+            for (TextIndex<T> index : textIndexes.values()) {
+                for (String id : ids) {
+                    index.remove(id);
+                }
+            }
+        }
+    }
+
+    private void dropTextIndexes() {
+        synchronized (textIndexes) {
+            textIndexes.clear();
+        }
+    }
+
+    // ==================== SCHEMA ====================
+
+    private void ensureInitialized() {
+        if (initialized) {
+            return;
+        }
+        synchronized (this) {
+            if (initialized) {
+                return;
+            }
+            try {
+                pool.inTransaction(connection -> {
+                    boolean created = createSchema(connection);
+                    if (created) {
+                        // First use of this table: take over what the flat file holds today
+                        insertAll(connection, definition.findAll());
+                        System.out.println("Imported " + table + " from flat file into the database");
+                    }
+                    try (Statement statement = connection.createStatement();
+                         ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM " + table)) {
+                        rs.next();
+                        sequence.set(rs.getLong(1));
+                    }
+                    return null;
+                });
+                initialized = true;
+            } catch (SQLException e) {
+                System.err.println("Error preparing " + table + " table: " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean createSchema(Connection connection) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        boolean exists;
+        // Current schema only (H2 has an INFORMATION_SCHEMA.USERS of its own); any table type
+        try (ResultSet rs = meta.getTables(null, connection.getSchema(), table.toUpperCase(), null)) {
+            exists = rs.next();
+        }
+        if (exists) {
+            addMissingIndexColumns(connection, meta);
+            return false;
+        }
+        try (Statement statement = connection.createStatement()) {
+            StringBuilder ddl = new StringBuilder("CREATE TABLE " + table + " (id VARCHAR PRIMARY KEY, seq BIGINT NOT NULL");
+            for (String index : indexNames) {
+                ddl.append(", ").append(column(index)).append(" VARCHAR");
+            }
+            for (String sum : sumNames) {
+                ddl.append(", ").append(sumColumn(sum)).append(" DECFLOAT");
+            }
+            ddl.append(", payload VARCHAR NOT NULL)");
+            statement.execute(ddl.toString());
+            statement.execute("CREATE INDEX " + table + "_seq ON " + table + " (seq)");
+            for (String index : indexNames) {
+                statement.execute("CREATE INDEX " + table + "_" + column(index) + " ON " + table + " (" + column(index) + ")");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An index registered after the table was created gets its column here, filled
+     * from the stored payloads, so new indexes need no manual migration.
+     */
+    private void addMissingIndexColumns(Connection connection, DatabaseMetaData meta) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (ResultSet rs = meta.getColumns(null, connection.getSchema(), table.toUpperCase(), null)) {
+            while (rs.next()) {
+                columns.add(rs.getString("COLUMN_NAME").toLowerCase());
+            }
+        }
+        Map<String, Function<T, String>> attributes = definition.getIndexedAttributes();
+        for (String index : indexNames) {
+            String column = column(index);
+            if (!columns.contains(column.toLowerCase())) {
+                addColumn(connection, column, "VARCHAR", true,
+                        (update, record) -> update.setString(1, record != null ? attributes.get(index).apply(record) : null));
+            }
+        }
+        Map<String, ToDoubleFunction<T>> amounts = definition.getSumAmounts();
+        for (String sum : sumNames) {
+            String column = sumColumn(sum);
+            if (!columns.contains(column.toLowerCase())) {
+                addColumn(connection, column, "DECFLOAT", false, (update, record) -> update.setBigDecimal(1,
+                        record != null ? BigDecimal.valueOf(amounts.get(sum).applyAsDouble(record)) : null));
+            }
+        }
+    }
+
+    private void addColumn(Connection connection, String column, String type, boolean indexed,
+                           ColumnValue<T> value) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+            if (indexed) {
+                statement.execute("CREATE INDEX " + table + "_" + column + " ON " + table + " (" + column + ")");
+            }
+        }
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery("SELECT id, payload FROM " + table);
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE " + table + " SET " + column + " = ? WHERE id = ?")) {
+            int pending = 0;
+            while (rs.next()) {
+                value.bind(update, definition.getParser().apply(rs.getString(2)));
+                update.setString(2, rs.getString(1));
+                update.addBatch();
+                if (++pending == 1000) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+        System.out.println("Added column " + column + " to " + table);
+    }
+
+    /** Sets parameter 1 of the backfill statement from one stored record (null if unreadable). */
+    private interface ColumnValue<T> {
+        void bind(PreparedStatement update, T record) throws SQLException;
+    }
+
+    // ==================== HELPERS ====================
+
+    private void insertAll(Connection connection, Collection<T> records) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(mergeSql)) {
+            int pending = 0;
+            for (T record : records) {
+                bind(statement, record, sequence.incrementAndGet());
+                statement.addBatch();
+                if (++pending == 1000) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private void bind(PreparedStatement statement, T record, long seq) throws SQLException {
+        Map<String, Function<T, String>> attributes = definition.getIndexedAttributes();
+        int parameter = 1;
+        String key = definition.getKeyExtractor().apply(record);
+        statement.setString(parameter++, key);
+        statement.setString(parameter++, key);
+        statement.setLong(parameter++, seq);
+        for (String index : indexNames) {
+            statement.setString(parameter++, attributes.get(index).apply(record));
+        }
+        Map<String, ToDoubleFunction<T>> amounts = definition.getSumAmounts();
+        for (String sum : sumNames) {
+            statement.setBigDecimal(parameter++, BigDecimal.valueOf(amounts.get(sum).applyAsDouble(record)));
+        }
+        statement.setString(parameter, definition.getFormatter().apply(record));
+    }
+
+    private List<T> query(Connection connection, String sql, String... parameters) throws SQLException {
+        List<T> result = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    T record = definition.getParser().apply(rs.getString(1));
+                    if (record != null) {
+                        result.add(record);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private int count(String sql, String... parameters) {
+        try {
+            return pool.withConnection(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        statement.setString(i + 1, parameters[i]);
+                    }
+                    try (ResultSet rs = statement.executeQuery()) {
+                        return rs.next() ? rs.getInt(1) : 0;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error counting " + table + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private String indexColumn(String indexName) {
+        if (!indexNames.contains(indexName)) {
+            throw new IllegalArgumentException("No index " + indexName + " on " + table);
+        }
+        return column(indexName);
+    }
+
+    private static String column(String indexName) {
+        return "idx_" + indexName;
+    }
+
+    private static String sumColumn(String indexName) {
+        return "sum_" + indexName;
+    }
+}
@@ -0,0 +1,288 @@
+package com.tourism.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Closed segments of the activity log, kept gzip-compressed in one directory as
+ * activity-yyyyMMdd-NNN.log.gz. Names sort in the order the segments were written.
+ * Each segment is written as one gzip member per index block, with an
+ * {@link ActivityLogIndex} beside it (*.log.gz.idx), so a query can inflate just the
+ * blocks it needs. Any gzip reader still sees one ordinary file.
+ * <p>
+ * Only the newest {@code retainSegments} segments are kept. A marker file remembers
+ * the newest segment that has gone into a backup, so each backup only has to carry
+ * the segments closed since the previous one. Retention never deletes a segment no
+ * backup has taken yet; such segments stay beyond the limit until the next backup.
+ */
+class LogSegments {
+
+    private static final String PREFIX = "activity-";
+    private static final String SUFFIX = ".log.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String MARKER_FILE = "backup.marker";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Path directory;
+    private final int retainSegments;
+    private final Map<String, ActivityLogIndex> indexes = new HashMap<>(); // segment name -> loaded index
+
+    LogSegments(Path directory, int retainSegments) {
+        this.directory = directory;
+        this.retainSegments = Math.max(1, retainSegments);
+        recover();
+    }
+
+    /**
+     * Moves the (closed) active log into the directory as a segment of the given day,
+     * compresses it and applies retention. The active file no longer exists afterwards.
+     */
+    synchronized void rotate(Path activeFile, LocalDate day) throws IOException {
+        Files.createDirectories(directory);
+        String name = nextName(day);
+        Path plain = directory.resolve(name.substring(0, name.length() - 3)); // without ".gz"
+        Files.move(activeFile, plain, StandardCopyOption.ATOMIC_MOVE);
+        compress(plain);
+        applyRetention();
+    }
+
+    /** Closed segments, oldest first. */
+    synchronized List<Path> list() {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing activity log segments: " + e.getMessage());
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /** Closed segments that no backup has included yet, oldest first. */
+    synchronized List<Path> listNotBackedUp() {
+        String marker = readMarker();
+        List<Path> pending = new ArrayList<>();
+        for (Path segment : list()) {
+            if (marker == null || segment.getFileName().toString().compareTo(marker) > 0) {
+                pending.add(segment);
+            }
+        }
+        return pending;
+    }
+
+    /** Records that a backup now holds every segment up to and including these. */
+    synchronized void markBackedUp(List<Path> segments) {
+        if (segments.isEmpty()) {
+            return;
+        }
+        String newest = segments.get(segments.size() - 1).getFileName().toString();
+        try {
+            Files.writeString(directory.resolve(MARKER_FILE), newest, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Error updating activity log backup marker: " + e.getMessage());
+            return;
+        }
+        applyRetention(); // segments held back for this backup may go now
+    }
+
+    /**
+     * Hands the lines of one segment that match the user (null: any) and lie between
+     * the two times to the consumer. Only blocks the index allows are read; a segment
+     * without an index is scanned in full.
+     */
+    void query(Path segment, String user, long from, long to, Consumer<String> consumer) throws IOException {
+        ActivityLogIndex index = indexFor(segment);
+        if (index == null) {
+            forEachLine(segment, line -> {
+                if (ActivityLogIndex.matches(line, user, from, to)) {
+                    consumer.accept(line);
+                }
+            });
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            for (long[] range : index.ranges(user, from, to)) {
+                ByteBuffer bytes = ByteBuffer.allocate((int) range[1]);
+                while (bytes.hasRemaining() && channel.read(bytes, range[0] + bytes.position()) > 0) {
+                    // keep reading until the range is complete
+                }
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(new ByteArrayInputStream(bytes.array(), 0, bytes.position())),
+                        StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (ActivityLogIndex.matches(line, user, from, to)) {
+                            consumer.accept(line);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized ActivityLogIndex indexFor(Path segment) {
+        String name = segment.getFileName().toString();
+        ActivityLogIndex index = indexes.get(name);
+        if (index == null) {
+            index = ActivityLogIndex.read(indexFile(segment));
+            if (index != null) {
+                indexes.put(name, index);
+            }
+        }
+        return index;
+    }
+
+    private static Path indexFile(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + INDEX_SUFFIX);
+    }
+
+    /** Hands every line of one segment to the consumer. */
+    static void forEachLine(Path segment, Consumer<String> consumer) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(segment), 1 << 16);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                consumer.accept(line);
+            }
+        }
+    }
+
+    private String nextName(LocalDate day) {
+        String dayPrefix = PREFIX + day.format(DAY) + "-";
+        int sequence = 1;
+        for (Path segment : list()) {
+            String name = segment.getFileName().toString();
+            if (name.startsWith(dayPrefix)) {
+                try {
+                    int used = Integer.parseInt(name.substring(dayPrefix.length(), name.length() - SUFFIX.length()));
+                    sequence = Math.max(sequence, used + 1);
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return dayPrefix + String.format("%03d", sequence) + SUFFIX;
+    }
+
+    /** Compresses a plain segment block by block and writes its index; the index lands first. */
+    private void compress(Path plain) throws IOException {
+        Path target = plain.resolveSibling(plain.getFileName() + ".gz");
+        Path temp = plain.resolveSibling(plain.getFileName() + ".gz.tmp");
+        ActivityLogIndex index = new ActivityLogIndex();
+        try (BufferedReader reader = Files.newBufferedReader(plain, StandardCharsets.UTF_8);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+            List<String> block = new ArrayList<>(ActivityLogIndex.BLOCK_RECORDS);
+            ByteArrayOutputStream member = new ByteArrayOutputStream(1 << 16);
+            long position = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                block.add(line);
+                if (block.size() == ActivityLogIndex.BLOCK_RECORDS) {
+                    position += writeMember(block, member, out, index, position);
+                }
+            }
+            if (!block.isEmpty()) {
+                writeMember(block, member, out, index, position);
+            }
+        }
+        index.write(indexFile(target));
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(plain);
+        indexes.put(target.getFileName().toString(), index);
+    }
+
+    /** Writes the lines as one gzip member at {@code position}; returns its compressed size. */
+    private static long writeMember(List<String> block, ByteArrayOutputStream member, OutputStream out,
+                                    ActivityLogIndex index, long position) throws IOException {
+        member.reset();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(member, 1 << 14), StandardCharsets.UTF_8)) {
+            for (String line : block) {
+                writer.write(line);
+                writer.write(LINE_SEPARATOR);
+            }
+        }
+        member.writeTo(out);
+        index.addBlock(block, position, member.size());
+        block.clear();
+        return member.size();
+    }
+
+    private void applyRetention() {
+        List<Path> segments = list();
+        String marker = readMarker();
+        int held = 0;
+        for (int i = 0; i < segments.size() - retainSegments; i++) {
+            if (marker == null || segments.get(i).getFileName().toString().compareTo(marker) > 0) {
+                held++; // not in any backup yet
+                continue;
+            }
+            try {
+                Files.deleteIfExists(segments.get(i));
+                Files.deleteIfExists(indexFile(segments.get(i)));
+                indexes.remove(segments.get(i).getFileName().toString());
+            } catch (IOException e) {
+                System.err.println("Error deleting old activity log segment: " + e.getMessage());
+            }
+        }
+        if (held > 0) {
+            System.err.println("Keeping " + held + " activity log segment(s) beyond the retention limit of "
+                    + retainSegments + " until a backup has taken them");
+        }
+    }
+
+    /** Finishes compressing segments left uncompressed by an interrupted rotation. */
+    private void recover() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*.log")) {
+            for (Path plain : stream) {
+                compress(plain);
+            }
+        } catch (IOException e) {
+            System.err.println("Error recovering activity log segments: " + e.getMessage());
+        }
+    }
+
+    private String readMarker() {
+        Path marker = directory.resolve(MARKER_FILE);
+        try {
+            return Files.exists(marker) ? Files.readString(marker, StandardCharsets.UTF_8).trim() : null;
+        } catch (IOException e) {
+            System.err.println("Error reading activity log backup marker: " + e.getMessage());
+            return null;
+        }
+    }
+}
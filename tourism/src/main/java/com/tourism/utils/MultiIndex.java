@@ -0,0 +1,67 @@
+package com.tourism.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Secondary index for an attribute shared by many records (e.g. booking status).
+ * Maps each attribute value to the primary keys carrying it, in insertion order,
+ * so lookups and counts cost time proportional to the result rather than the store.
+ */
+class MultiIndex<T> implements RecordIndex<T> {
+
+    private final Function<T, String> extractor;
+    private final Map<String, LinkedHashSet<String>> keysByValue = new HashMap<>();
+    private final Map<String, String> valueByKey = new HashMap<>();
+
+    MultiIndex(Function<T, String> extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void put(String key, T record) {
+        String value = extractor.apply(record);
+        if (valueByKey.containsKey(key) && Objects.equals(value, valueByKey.get(key))) {
+            return; // unchanged: keep the record's position in its bucket
+        }
+        remove(key);
+        valueByKey.put(key, value);
+        keysByValue.computeIfAbsent(value, v -> new LinkedHashSet<>()).add(key);
+    }
+
+    @Override
+    public void remove(String key) {
+        if (!valueByKey.containsKey(key)) {
+            return;
+        }
+        String oldValue = valueByKey.remove(key);
+        Set<String> bucket = keysByValue.get(oldValue);
+        if (bucket != null) {
+            bucket.remove(key);
+            if (bucket.isEmpty()) {
+                keysByValue.remove(oldValue);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        keysByValue.clear();
+        valueByKey.clear();
+    }
+
+    Set<String> getKeys(String value) {
+        Set<String> bucket = keysByValue.get(value);
+        return bucket != null ? Collections.unmodifiableSet(bucket) : Collections.emptySet();
+    }
+
+    int count(String value) {
+        Set<String> bucket = keysByValue.get(value);
+        return bucket != null ? bucket.size() : 0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.tourism.utils;
+
+import java.util.Objects;
+
+/**
+ * Which records a page is cut from and in what order, for {@link Repository#findPage}.
+ * Filtering and sorting only go through the key and named indexes, so the SQL backend
+ * can do both in the database and the flat-file stores through their indexes.
+ */
+public final class PageQuery {
+
+    /** Sort by primary key instead of an index. */
+    public static final String BY_KEY = "id";
+
+    private final String filterIndex;
+    private final String filterValue;
+    private final String sortBy;
+    private final boolean descending;
+
+    /**
+     * @param filterIndex index to filter on, or null for all records
+     * @param sortBy      index name, {@link #BY_KEY}, or null for insertion order
+     */
+    public PageQuery(String filterIndex, String filterValue, String sortBy, boolean descending) {
+        this.filterIndex = filterIndex;
+        this.filterValue = filterValue;
+        this.sortBy = sortBy;
+        this.descending = descending;
+    }
+
+    /** All records in insertion order. */
+    public static PageQuery all() {
+        return new PageQuery(null, null, null, false);
+    }
+
+    public String getFilterIndex() {
+        return filterIndex;
+    }
+
+    public String getFilterValue() {
+        return filterValue;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageQuery)) {
+            return false;
+        }
+        PageQuery other = (PageQuery) o;
+        return descending == other.descending && Objects.equals(filterIndex, other.filterIndex)
+                && Objects.equals(filterValue, other.filterValue) && Objects.equals(sortBy, other.sortBy);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filterIndex, filterValue, sortBy, descending);
+    }
+}
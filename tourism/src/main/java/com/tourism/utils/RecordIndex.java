@@ -0,0 +1,16 @@
+package com.tourism.utils;
+
+/**
+ * A secondary index kept in step with an {@link EntityStore}.
+ * Indexes remember the value they last saw for each primary key, so records
+ * that were modified in place can still be moved to their new bucket.
+ */
+interface RecordIndex<T> {
+
+    /** Indexes (or re-indexes) the record stored under the given primary key. */
+    void put(String key, T record);
+
+    void remove(String key);
+
+    void clear();
+}
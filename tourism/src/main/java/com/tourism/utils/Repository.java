@@ -0,0 +1,84 @@
+package com.tourism.utils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Storage for one entity type. FileDataManager talks to its entities only through
+ * this interface, so the flat-file stores ({@link EntityStore}) and the embedded SQL
+ * backend ({@link JdbcRepository}) are interchangeable; tourism.storage picks one.
+ * <p>
+ * Secondary lookups go through named indexes (e.g. "status" on bookings) that the
+ * backend keeps up to date on every change.
+ *
+ * @param <T>  the entity type
+ * @param <ID> the primary key type
+ */
+public interface Repository<T, ID> {
+
+    /** All records, in insertion order. */
+    List<T> findAll();
+
+    List<T> findAll(Predicate<T> predicate);
+
+    /** The record with the given primary key, or null. */
+    T findById(ID id);
+
+    /** Whether a record with the given primary key exists, without reading it. */
+    boolean existsById(ID id);
+
+    /** The record whose value for a unique index matches, or null. */
+    T findByUnique(String indexName, String value);
+
+    /** Records whose value for the index matches, in insertion order. */
+    List<T> findBy(String indexName, String value);
+
+    /**
+     * Records whose text fields, as registered for a text index (e.g. "search" on
+     * packages), contain the given text, ignoring case.
+     */
+    List<T> search(String indexName, String text);
+
+    int countBy(String indexName, String value);
+
+    /** Total amount of the records whose value for the sum index's grouping index matches. */
+    double sumBy(String indexName, String value);
+
+    int count();
+
+    /**
+     * One page of the records the query selects: at most {@code limit} of them after
+     * skipping {@code offset}, so a view can show a few rows of a large store.
+     */
+    List<T> findPage(PageQuery query, int offset, int limit);
+
+    /** How many records the query selects. */
+    int count(PageQuery query);
+
+    /** Adds the record, replacing any record with the same key. */
+    boolean save(T record);
+
+    /** Adds or replaces all given records as one batch: one merge and one write. */
+    boolean saveAll(Collection<T> records);
+
+    boolean deleteById(ID id);
+
+    /** Deletes all given keys as one batch; returns the keys that were actually removed. */
+    List<ID> deleteAllById(Collection<ID> ids);
+
+    /** Changes one registered field of a stored record. */
+    boolean update(ID id, String field, String value);
+
+    /** Replaces the whole content of the repository. */
+    boolean replaceAll(List<T> records);
+
+    /** Drops anything cached in memory; the next read goes back to storage. */
+    void invalidate();
+
+    /**
+     * A number that changes whenever the records may have changed, so derived values
+     * (dashboard counters, say) can be cached until it moves.
+     */
+    long version();
+}
@@ -0,0 +1,59 @@
+package com.tourism.utils;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Running total of an amount per attribute value (e.g. booking amounts per payment
+ * status). Every put and remove adjusts the total it touches, so reading a total is
+ * one lookup however many records add up to it. Totals are decimals, so taking an
+ * amount back out leaves no rounding residue behind.
+ */
+class SumIndex<T> implements RecordIndex<T> {
+
+    private final Function<T, String> extractor;
+    private final ToDoubleFunction<T> amount;
+    private final Map<String, BigDecimal> totalByValue = new HashMap<>();
+    private final Map<String, String> valueByKey = new HashMap<>();
+    private final Map<String, BigDecimal> amountByKey = new HashMap<>();
+
+    SumIndex(Function<T, String> extractor, ToDoubleFunction<T> amount) {
+        this.extractor = extractor;
+        this.amount = amount;
+    }
+
+    @Override
+    public void put(String key, T record) {
+        remove(key);
+        String value = extractor.apply(record);
+        BigDecimal added = BigDecimal.valueOf(amount.applyAsDouble(record));
+        valueByKey.put(key, value);
+        amountByKey.put(key, added);
+        totalByValue.merge(value, added, BigDecimal::add);
+    }
+
+    @Override
+    public void remove(String key) {
+        if (!valueByKey.containsKey(key)) {
+            return;
+        }
+        String value = valueByKey.remove(key);
+        BigDecimal removed = amountByKey.remove(key);
+        totalByValue.merge(value, removed.negate(), BigDecimal::add);
+    }
+
+    @Override
+    public void clear() {
+        totalByValue.clear();
+        valueByKey.clear();
+        amountByKey.clear();
+    }
+
+    double sum(String value) {
+        BigDecimal total = totalByValue.get(value);
+        return total != null ? total.doubleValue() : 0;
+    }
+}
@@ -0,0 +1,206 @@
+package com.tourism.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Substring search over a few text fields of every record (e.g. a package's name,
+ * description and category), case-insensitive, kept up to date like the other indexes.
+ * <p>
+ * The fields are lower-cased once, when a record is indexed, and every two- and
+ * three-character sequence of them points to the records containing it. A search
+ * intersects the lists of the query's trigrams, rarest first, and confirms the few
+ * candidates left with {@code contains}, so its cost follows the matches rather than
+ * the store. A two-character query uses its bigram list; a single character scans
+ * the lower-cased text.
+ * <p>
+ * Each record gets an increasing number, so posting lists stay sorted by insertion
+ * order without sorting. A removed or re-indexed record leaves its old number behind
+ * as a dead entry; once dead entries outnumber live ones the postings are rebuilt.
+ */
+class TextIndex<T> implements RecordIndex<T> {
+
+    private static final char FIELD_SEPARATOR = '\u0001'; // never in a query, so matches stay within a field
+
+    private final Function<T, String> document;
+    private final Map<String, Integer> idByKey = new HashMap<>();
+    private final List<String> keyById = new ArrayList<>();
+    private final List<String> textById = new ArrayList<>(); // null once the id is dead
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private int dead;
+
+    TextIndex(List<Function<T, String>> fields) {
+        this.document = record -> {
+            StringBuilder text = new StringBuilder();
+            for (Function<T, String> field : fields) {
+                String value = field.apply(record);
+                if (value != null) {
+                    text.append(value).append(FIELD_SEPARATOR);
+                }
+            }
+            return normalize(text.toString());
+        };
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void put(String key, T record) {
+        String text = document.apply(record);
+        Integer old = idByKey.get(key);
+        if (old != null) {
+            if (text.equals(textById.get(old))) {
+                return; // unchanged
+            }
+            kill(old);
+        }
+        int id = keyById.size();
+        idByKey.put(key, id);
+        keyById.add(key);
+        textById.add(text);
+        addPostings(id, text);
+    }
+
+    @Override
+    public void remove(String key) {
+        Integer id = idByKey.remove(key);
+        if (id != null) {
+            kill(id);
+        }
+    }
+
+    @Override
+    public void clear() {
+        idByKey.clear();
+        keyById.clear();
+        textById.clear();
+        postings.clear();
+        dead = 0;
+    }
+
+    /** Keys of the records whose text contains the query, in the order they were indexed. */
+    List<String> search(String query) {
+        String needle = normalize(query);
+        List<String> keys = new ArrayList<>();
+        if (needle.length() < 2) {
+            for (int id = 0; id < textById.size(); id++) {
+                String text = textById.get(id);
+                if (text != null && text.contains(needle)) {
+                    keys.add(keyById.get(id));
+                }
+            }
+            return keys;
+        }
+
+        List<Postings> lists = new ArrayList<>();
+        int length = Math.min(3, needle.length());
+        for (int i = 0; i + length <= needle.length(); i++) {
+            Postings list = postings.get(length == 3 ? trigram(needle, i) : bigram(needle, i));
+            if (list == null) {
+                return keys; // some trigram occurs nowhere
+            }
+            if (!lists.contains(list)) {
+                lists.add(list);
+            }
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        int[] candidates = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(candidates, count, lists.get(i));
+        }
+        for (int i = 0; i < count; i++) {
+            String text = textById.get(candidates[i]);
+            if (text != null && text.contains(needle)) {
+                keys.add(keyById.get(candidates[i]));
+            }
+        }
+        return keys;
+    }
+
+    private void kill(int id) {
+        textById.set(id, null);
+        dead++;
+        if (dead > 1024 && dead > idByKey.size()) {
+            compact();
+        }
+    }
+
+    private void addPostings(int id, String text) {
+        for (int i = 0; i + 2 <= text.length(); i++) {
+            if (text.charAt(i) == FIELD_SEPARATOR || text.charAt(i + 1) == FIELD_SEPARATOR) {
+                continue;
+            }
+            postings.computeIfAbsent(bigram(text, i), t -> new Postings()).add(id);
+            if (i + 3 <= text.length() && text.charAt(i + 2) != FIELD_SEPARATOR) {
+                postings.computeIfAbsent(trigram(text, i), t -> new Postings()).add(id);
+            }
+        }
+    }
+
+    /** Renumbers the live records and rebuilds the postings without the dead entries. */
+    private void compact() {
+        List<String> keys = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        for (int id = 0; id < textById.size(); id++) {
+            if (textById.get(id) != null) {
+                keys.add(keyById.get(id));
+                texts.add(textById.get(id));
+            }
+        }
+        clear();
+        for (int id = 0; id < keys.size(); id++) {
+            idByKey.put(keys.get(id), id);
+            keyById.add(keys.get(id));
+            textById.add(texts.get(id));
+            addPostings(id, texts.get(id));
+        }
+    }
+
+    /** Keeps the ids in {@code ids[0..count)} that are also in the list; both are sorted. */
+    private static int intersect(int[] ids, int count, Postings list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; i++) {
+            while (j < list.size && list.ids[j] < ids[i]) {
+                j++;
+            }
+            if (j < list.size && list.ids[j] == ids[i]) {
+                ids[kept++] = ids[i];
+            }
+        }
+        return kept;
+    }
+
+    private static long trigram(String text, int at) {
+        return (long) text.charAt(at) << 32 | (long) text.charAt(at + 1) << 16 | text.charAt(at + 2);
+    }
+
+    private static long bigram(String text, int at) {
+        return 1L << 48 | (long) text.charAt(at) << 16 | text.charAt(at + 1); // bit 48 keeps it apart from trigrams
+    }
+
+    /** Ids of the records containing one bigram or trigram, ascending; an id appears once. */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return; // trigram repeated within the same record
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
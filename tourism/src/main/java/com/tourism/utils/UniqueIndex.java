@@ -0,0 +1,49 @@
+package com.tourism.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Secondary index for an attribute that identifies at most one record (e.g. username).
+ * Maps the attribute value to the primary key of the record.
+ */
+class UniqueIndex<T> implements RecordIndex<T> {
+
+    private final Function<T, String> extractor;
+    private final Map<String, String> keyByValue = new HashMap<>();
+    private final Map<String, String> valueByKey = new HashMap<>();
+
+    UniqueIndex(Function<T, String> extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void put(String key, T record) {
+        remove(key);
+        String value = extractor.apply(record);
+        if (value != null) {
+            keyByValue.put(value, key);
+            valueByKey.put(key, value);
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        String oldValue = valueByKey.remove(key);
+        if (oldValue != null && Objects.equals(key, keyByValue.get(oldValue))) {
+            keyByValue.remove(oldValue);
+        }
+    }
+
+    @Override
+    public void clear() {
+        keyByValue.clear();
+        valueByKey.clear();
+    }
+
+    String getKey(String value) {
+        return keyByValue.get(value);
+    }
+}
@@ -0,0 +1,334 @@
+package com.tourism.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a backup as one self-contained zip file (tourism.backup.mode=zip). A
+ * {@link BackupManifest} without chunk lines goes in as the last entry so a restore
+ * can verify every file.
+ * <p>
+ * Entries are compressed in parallel, the way pigz does it: each 1 MiB block is
+ * deflated on a worker thread, primed with the last 32 KiB of the block before it,
+ * and ends on a sync flush, so the blocks joined in order form one ordinary deflate
+ * stream. ZipOutputStream only writes what it deflated itself, so the zip structure
+ * (local headers, data descriptors, central directory) is written here. There is no
+ * Zip64 support; backups that large belong in the incremental store.
+ */
+class ZipBackupSink implements BackupSink {
+
+    private static final int BLOCK_BYTES = 1 << 20;
+    private static final int DICTIONARY_BYTES = 32 * 1024;
+    private static final long ZIP32_LIMIT = 0xFFFFFFFFL;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8 = 0x0800;
+
+    private final Path zipFile;
+    private final FileChannel out;
+    private final ExecutorService compressors;
+    private final int maxPendingBlocks;
+    private final BackupManifest manifest = new BackupManifest();
+    private final List<CentralEntry> entries = new ArrayList<>();
+    private final int dosTime = dosTime(LocalDateTime.now());
+    private long position;
+    private boolean committed;
+
+    ZipBackupSink(Path zipFile, int threads) throws IOException {
+        this.zipFile = zipFile;
+        this.out = FileChannel.open(zipFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        int workers = Math.max(1, threads);
+        this.compressors = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "backup-deflate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxPendingBlocks = workers * 2; // bounds memory to a few MiB per worker
+    }
+
+    @Override
+    public OutputStream openEntry(String entryName) throws IOException {
+        return new DeflatedEntry(entryName);
+    }
+
+    /**
+     * Already-compressed files go in STORED: deflating gzip data again only costs time.
+     * A STORED entry needs its size and CRC in the header, so the file is read once for
+     * those and then transferred into the zip as is.
+     */
+    @Override
+    public void addCompressedFile(String entryName, Path file, BackupProgress progress) throws IOException {
+        CRC32 crc = new CRC32();
+        FileDigest digest = new FileDigest();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+                digest.update(buffer, 0, n);
+            }
+        }
+        long size = digest.size();
+        checkZip32(size, entryName);
+        CentralEntry entry = new CentralEntry(entryName, false, FLAG_UTF8);
+        entry.crc = crc.getValue();
+        entry.compressedSize = size;
+        entry.size = size;
+        writeLocalHeader(entry);
+
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            long done = 0;
+            while (done < size) {
+                long n = source.transferTo(done, Math.min(size - done, BLOCK_BYTES), out);
+                done += n;
+                position += n;
+                progress.addBytes(n);
+            }
+        }
+        entries.add(entry);
+        manifest.addFile(entryName, digest);
+    }
+
+    @Override
+    public String commit() throws IOException {
+        StringWriter text = new StringWriter();
+        manifest.write(text);
+        try (OutputStream manifestEntry = openEntry(BackupManifest.ZIP_ENTRY)) {
+            manifestEntry.write(text.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        writeCentralDirectory();
+        out.force(false);
+        out.close();
+        compressors.shutdown();
+        committed = true;
+        return zipFile.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            compressors.shutdownNow();
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(zipFile);
+            }
+        }
+    }
+
+    /**
+     * One deflated entry: the input is cut into blocks that are compressed
+     * concurrently and written back in order. CRC and digest are taken on the
+     * caller's thread as the data comes in.
+     */
+    private final class DeflatedEntry extends OutputStream {
+
+        private final CentralEntry entry;
+        private final CRC32 crc = new CRC32();
+        private final FileDigest digest = new FileDigest();
+        private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        private byte[] block = new byte[BLOCK_BYTES];
+        private byte[] dictionary; // tail of the previous block
+        private int filled;
+        private boolean closed;
+
+        DeflatedEntry(String entryName) throws IOException {
+            entry = new CentralEntry(entryName, true, FLAG_UTF8 | FLAG_DATA_DESCRIPTOR);
+            writeLocalHeader(entry);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) throws IOException {
+            crc.update(data, offset, length);
+            digest.update(data, offset, length);
+            entry.size += length;
+            while (length > 0) {
+                int n = Math.min(length, block.length - filled);
+                System.arraycopy(data, offset, block, filled, n);
+                filled += n;
+                offset += n;
+                length -= n;
+                if (filled == block.length) {
+                    submit(false);
+                }
+            }
+        }
+
+        private void submit(boolean last) throws IOException {
+            byte[] input = block;
+            int length = filled;
+            byte[] preset = dictionary;
+            pending.add(compressors.submit(() -> deflateBlock(input, length, preset, last)));
+            dictionary = Arrays.copyOfRange(input, Math.max(0, length - DICTIONARY_BYTES), length);
+            block = new byte[BLOCK_BYTES];
+            filled = 0;
+            while (pending.size() > maxPendingBlocks) {
+                writeNext();
+            }
+        }
+
+        private void writeNext() throws IOException {
+            byte[] compressed;
+            try {
+                compressed = pending.poll().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Backup interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Compression failed: " + e.getCause().getMessage(), e.getCause());
+            }
+            writeFully(ByteBuffer.wrap(compressed));
+            entry.compressedSize += compressed.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            submit(true);
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+            checkZip32(Math.max(entry.size, entry.compressedSize), entry.name);
+            entry.crc = crc.getValue();
+            ByteBuffer descriptor = littleEndian(16);
+            descriptor.putInt(0x08074b50).putInt((int) entry.crc)
+                    .putInt((int) entry.compressedSize).putInt((int) entry.size);
+            writeFully(descriptor.flip());
+            entries.add(entry);
+            if (!entry.name.equals(BackupManifest.ZIP_ENTRY)) {
+                manifest.addFile(entry.name, digest);
+            }
+        }
+    }
+
+    /** Raw deflate of one block; every block but the last ends byte-aligned and unfinished. */
+    private static byte[] deflateBlock(byte[] input, int length, byte[] dictionary, boolean last) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            if (dictionary != null && dictionary.length > 0) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(input, 0, length);
+            if (last) {
+                deflater.finish();
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            while (true) {
+                int n = deflater.deflate(buffer, 0, buffer.length, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                compressed.write(buffer, 0, n);
+                if (last ? deflater.finished() : n < buffer.length) {
+                    return compressed.toByteArray();
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // ==================== ZIP STRUCTURE ====================
+
+    private static final class CentralEntry {
+        final String name;
+        final byte[] nameBytes;
+        final int method; // 8 deflated, 0 stored
+        final int flags;
+        long offset;
+        long crc;
+        long compressedSize;
+        long size;
+
+        CentralEntry(String name, boolean deflated, int flags) {
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.method = deflated ? 8 : 0;
+            this.flags = flags;
+        }
+    }
+
+    private void writeLocalHeader(CentralEntry entry) throws IOException {
+        checkZip32(position, entry.name);
+        entry.offset = position;
+        ByteBuffer header = littleEndian(30 + entry.nameBytes.length);
+        header.putInt(0x04034b50).putShort((short) 20).putShort((short) entry.flags)
+                .putShort((short) entry.method).putInt(dosTime)
+                .putInt((int) entry.crc).putInt((int) entry.compressedSize).putInt((int) entry.size)
+                .putShort((short) entry.nameBytes.length).putShort((short) 0)
+                .put(entry.nameBytes);
+        writeFully(header.flip());
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        if (entries.size() > 0xFFFF) {
+            throw new IOException("Too many files for a zip backup; use tourism.backup.mode=incremental");
+        }
+        long start = position;
+        for (CentralEntry entry : entries) {
+            ByteBuffer header = littleEndian(46 + entry.nameBytes.length);
+            header.putInt(0x02014b50).putShort((short) 20).putShort((short) 20)
+                    .putShort((short) entry.flags).putShort((short) entry.method).putInt(dosTime)
+                    .putInt((int) entry.crc).putInt((int) entry.compressedSize).putInt((int) entry.size)
+                    .putShort((short) entry.nameBytes.length).putShort((short) 0).putShort((short) 0)
+                    .putShort((short) 0).putShort((short) 0).putInt(0).putInt((int) entry.offset)
+                    .put(entry.nameBytes);
+            writeFully(header.flip());
+        }
+        checkZip32(position, "central directory");
+        ByteBuffer end = littleEndian(22);
+        end.putInt(0x06054b50).putShort((short) 0).putShort((short) 0)
+                .putShort((short) entries.size()).putShort((short) entries.size())
+                .putInt((int) (position - start)).putInt((int) start).putShort((short) 0);
+        writeFully(end.flip());
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            position += out.write(bytes);
+        }
+    }
+
+    private static void checkZip32(long value, String what) throws IOException {
+        if (value >= ZIP32_LIMIT) {
+            throw new IOException("Backup too large for zip at " + what + "; use tourism.backup.mode=incremental");
+        }
+    }
+
+    private static ByteBuffer littleEndian(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int dosTime(LocalDateTime time) {
+        return (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+}
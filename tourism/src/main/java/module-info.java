@@ -3,6 +3,8 @@ module com.tourism {
     requires javafx.fxml;
     requires javafx.graphics;
     requires javafx.base;
+    requires java.sql;
+    requires static com.h2database; // optional embedded SQL backend, only used with tourism.storage=sql
 
     // Open for FXML and PropertyValueFactory reflection
     opens com.tourism.controllers to javafx.fxml;
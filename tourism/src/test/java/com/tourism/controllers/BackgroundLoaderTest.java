@@ -0,0 +1,81 @@
+package com.tourism.controllers;
+
+import javafx.concurrent.Task;
+import javafx.concurrent.WorkerStateEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bookkeeping of BackgroundLoader. Tasks are never started, and cancelling one runs
+ * its onCancelled handler at once, as Task does on the FX thread.
+ */
+class BackgroundLoaderTest {
+
+    private final List<PendingTask<?>> created = new ArrayList<>();
+    private final BackgroundLoader loader = new BackgroundLoader(null, task -> { }, new BackgroundLoader.Tasks() {
+        @Override
+        public <T> Task<T> create(Callable<T> work) {
+            PendingTask<T> task = new PendingTask<>();
+            created.add(task);
+            return task;
+        }
+    });
+    private final List<Object> applied = new ArrayList<>();
+
+    @Test
+    void cancelAllCancelsEveryPendingLoad() {
+        for (String key : List.of("tourists", "packages", "guides", "bookings-page-0")) {
+            loader.load(key, () -> key, applied::add, applied::add);
+        }
+        assertTrue(loader.isLoading("guides"));
+
+        loader.cancelAll();
+
+        for (PendingTask<?> task : created) {
+            assertTrue(task.cancelled);
+        }
+        for (String key : List.of("tourists", "packages", "guides", "bookings-page-0")) {
+            assertFalse(loader.isLoading(key));
+        }
+        assertTrue(loader.wasCancelled());
+        assertFalse(loader.wasCancelled());
+        assertTrue(applied.isEmpty());
+    }
+
+    @Test
+    void newLoadUnderTheSameKeyCancelsTheOldOne() {
+        loader.load("bookings", () -> "old", applied::add, applied::add);
+        loader.load("bookings", () -> "new", applied::add, applied::add);
+
+        assertTrue(created.get(0).cancelled);
+        assertFalse(created.get(1).cancelled);
+        assertTrue(loader.isLoading("bookings"));
+        assertFalse(loader.wasCancelled()); // superseded, not cut short
+    }
+
+    /** A task that never runs; cancel() fires the onCancelled handler synchronously. */
+    private static final class PendingTask<T> extends Task<T> {
+        boolean cancelled;
+
+        @Override
+        protected T call() {
+            throw new IllegalStateException("not started in this test");
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            cancelled = true;
+            if (getOnCancelled() != null) {
+                getOnCancelled().handle(new WorkerStateEvent(this, WorkerStateEvent.WORKER_STATE_CANCELLED));
+            }
+            return true;
+        }
+    }
+}
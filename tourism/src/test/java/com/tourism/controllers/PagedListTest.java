@@ -0,0 +1,183 @@
+package com.tourism.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Paging logic of PagedList. Loads are queued and run by the test, which stands in
+ * for the background thread and the FX thread.
+ */
+class PagedListTest {
+
+    private final QueuedLoads loads = new QueuedLoads();
+    private final List<Throwable> failures = new ArrayList<>();
+    private final PagedList<String> list = new PagedList<>(loads, "rows", 10, 3, Function.identity(), failures::add);
+    private final RowSource source = new RowSource(250);
+
+    @Test
+    void readsPagesOnDemandAndPrefetchesTheNextOne() {
+        list.setSource(source);
+        assertEquals(0, list.size());
+        loads.runAll();
+        assertEquals(250, list.size());
+        assertEquals("R000", list.get(0));
+
+        assertNull(list.get(42)); // page 4 is requested, not read inline
+        loads.runAll();
+        assertEquals("R042", list.get(42));
+
+        list.get(47); // second half of page 4: page 5 is read ahead
+        loads.runAll();
+        int reads = source.reads;
+        assertEquals("R051", list.get(51));
+        assertEquals(reads, source.reads);
+        assertTrue(failures.isEmpty());
+    }
+
+    @Test
+    void keepsOnlyTheLastPagesRead() {
+        list.setSource(source);
+        loads.runAll();
+        for (int page = 1; page <= 3; page++) {
+            list.get(page * 10);
+            loads.runAll();
+        }
+        assertNull(list.get(0)); // page 0 was evicted and is read again
+        loads.runAll();
+        assertEquals("R000", list.get(0));
+    }
+
+    @Test
+    void sortKeyAndDirectionGoToTheSource() {
+        list.setSource(source);
+        loads.runAll();
+        list.sortBy("name", true);
+        loads.runAll();
+        assertEquals("name", source.lastSortBy);
+        assertEquals("R249", list.get(0));
+        list.get(30);
+        loads.runAll();
+        assertEquals("R219", list.get(30));
+        assertTrue(source.lastDescending);
+
+        int reads = source.reads;
+        list.sortBy("name", true); // unchanged: nothing is read again
+        loads.runAll();
+        assertEquals(reads, source.reads);
+    }
+
+    @Test
+    void rowsAtReadsPagesThatAreNotLoaded() {
+        list.setSource(source);
+        loads.runAll();
+        List<List<String>> results = new ArrayList<>();
+        list.rowsAt(List.of(3, 3, 120, 249, 250, -1), results::add);
+        assertTrue(results.isEmpty()); // pages 12 and 24 are read first
+        loads.runAll();
+        assertEquals(List.of(List.of("R003", "R003", "R120", "R249")), results);
+        assertEquals("R121", list.get(121)); // the pages read are kept
+
+        // Loaded rows are handed over straight away
+        list.rowsAt(List.of(0, 121), results::add);
+        assertEquals(List.of("R000", "R121"), results.get(1));
+    }
+
+    @Test
+    void rowsAtGivesNothingIfTheListWasReloadedMeanwhile() {
+        list.setSource(source);
+        loads.runAll();
+        List<List<String>> results = new ArrayList<>();
+        list.rowsAt(List.of(200), results::add);
+        list.sortBy("name", true);
+        loads.runAll();
+        assertEquals(List.of(List.of()), results);
+    }
+
+    @Test
+    void staleResultsAreDroppedAndRefreshFollowsTheCount() {
+        list.setSource(source);
+        loads.runAll();
+        list.get(55);
+        list.refresh(); // started after the page request: its result must win
+        source.remove(100);
+        loads.runAll();
+        assertEquals(150, list.size());
+        assertNull(list.get(55)); // the stale page 5 was dropped
+        loads.runAll();
+        assertEquals("R055", list.get(55));
+        assertTrue(failures.isEmpty());
+    }
+
+    /** Rows "R000".."R(n-1)"; any sort key orders them by name. */
+    private static final class RowSource implements PagedList.Source<String> {
+        private final List<String> rows = new ArrayList<>();
+        int reads;
+        String lastSortBy;
+        boolean lastDescending;
+
+        RowSource(int count) {
+            for (int i = 0; i < count; i++) {
+                rows.add(String.format("R%03d", i));
+            }
+        }
+
+        void remove(int count) {
+            rows.subList(rows.size() - count, rows.size()).clear();
+        }
+
+        @Override
+        public int count() {
+            return rows.size();
+        }
+
+        @Override
+        public List<String> page(int offset, int limit, String sortBy, boolean descending) {
+            reads++;
+            lastSortBy = sortBy;
+            lastDescending = descending;
+            List<String> sorted = new ArrayList<>(rows);
+            if (descending) {
+                Collections.reverse(sorted);
+            }
+            return new ArrayList<>(sorted.subList(Math.min(offset, sorted.size()), Math.min(offset + limit, sorted.size())));
+        }
+    }
+
+    /** Keeps loads until runAll(), which runs them in order. */
+    private static final class QueuedLoads implements PagedList.Loads {
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+
+        @Override
+        public <R> void load(String key, boolean showSpinner, Callable<R> work, Consumer<R> onLoaded,
+                             Consumer<Throwable> onFailed) {
+            queue.add(() -> {
+                R result;
+                try {
+                    result = work.call();
+                } catch (Exception e) {
+                    onFailed.accept(e);
+                    return;
+                }
+                onLoaded.accept(result);
+            });
+        }
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.poll().run();
+            }
+        }
+    }
+}
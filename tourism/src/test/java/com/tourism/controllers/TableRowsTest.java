@@ -0,0 +1,72 @@
+package com.tourism.controllers;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/** Row bookkeeping on a plain ObservableList; no table (and no FX toolkit) needed. */
+class TableRowsTest {
+
+    private final ObservableList<String[]> items = FXCollections.observableArrayList();
+    private final TableRows<String[], String> rows = new TableRows<>(null, items, row -> row[0]);
+
+    @Test
+    void putAppendsNewKeysAndReplacesKnownOnesInPlace() {
+        rows.put(row("A", "1"));
+        rows.put(row("B", "1"));
+        rows.put(row("C", "1"));
+        String[] updated = row("B", "2");
+        rows.put(updated);
+
+        assertEquals(List.of("A1", "B2", "C1"), shown());
+        assertSame(updated, items.get(1));
+    }
+
+    @Test
+    void lookupsFollowChangesMadeOutsideTableRows() {
+        rows.sync(List.of(row("A", "1"), row("B", "1"), row("C", "1")));
+        rows.remove(List.of("A"));
+        rows.put(row("C", "2"));
+        items.add(0, row("Z", "1"));
+        rows.put(row("B", "2"));
+        items.setAll(row("C", "3"), row("B", "3"));
+        rows.put(row("B", "4"));
+        rows.put(row("D", "1"));
+        items.sort((x, y) -> x[0].compareTo(y[0]));
+        rows.put(row("C", "5"));
+
+        assertEquals(List.of("B4", "C5", "D1"), shown());
+    }
+
+    @Test
+    void syncKeepsRowsWhoseOrderDidNotChange() {
+        rows.sync(List.of(row("A", "1"), row("B", "1"), row("C", "1")));
+        String[] kept = items.get(0);
+        rows.sync(List.of(kept, row("X", "1"), row("C", "2")));
+        assertSame(kept, items.get(0));
+        assertEquals(List.of("A1", "X1", "C2"), shown());
+
+        rows.sync(List.of(row("C", "2"), row("A", "1")));
+        assertEquals(List.of("C2", "A1"), shown());
+        rows.put(row("A", "3"));
+        assertEquals(List.of("C2", "A3"), shown());
+    }
+
+    private static String[] row(String key, String value) {
+        return new String[]{key, value};
+    }
+
+    private List<String> shown() {
+        List<String> shown = new ArrayList<>();
+        for (String[] row : items) {
+            shown.add(row[0] + row[1]);
+        }
+        return shown;
+    }
+}
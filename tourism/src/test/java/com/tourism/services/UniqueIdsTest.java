@@ -0,0 +1,25 @@
+package com.tourism.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UniqueIdsTest {
+
+    @Test
+    void skipsIdsTakenInStorageOrAlreadyIssued() {
+        Deque<String> candidates = new ArrayDeque<>(List.of("B1", "B2", "B1", "B2", "B3", "B4"));
+        Set<String> stored = new HashSet<>(Set.of("B2"));
+        UniqueIds ids = new UniqueIds(candidates::removeFirst, stored::contains);
+
+        assertEquals("B1", ids.next());
+        assertEquals("B3", ids.next()); // B2 is stored, B1 was handed out
+        assertEquals("B4", ids.next());
+    }
+}
@@ -0,0 +1,119 @@
+package com.tourism.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActivityLogIndexTest {
+
+    private static final long ANY_TIME_FROM = Long.MIN_VALUE;
+    private static final long ANY_TIME_TO = Long.MAX_VALUE;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void indexedQueriesMatchAFullScan() throws Exception {
+        List<String> lines = withRareUser(LogSegmentsTest.lines(0, 2000));
+        LogSegments segments = new LogSegments(dir.resolve("logs"), 10);
+        segments.rotate(Files.write(dir.resolve("activity.log"), lines), LocalDate.of(2026, 10, 18));
+        Path segment = segments.list().get(0);
+
+        long from = ActivityLogIndex.toMillis(LocalDateTime.of(2026, 10, 18, 10, 0));
+        long to = ActivityLogIndex.toMillis(LocalDateTime.of(2026, 10, 18, 12, 30));
+        String[][] queries = {{null, null}, {"user1", null}, {"auditor", null}, {"nobody", null}, {null, "window"},
+                {"user2", "window"}};
+        for (String[] query : queries) {
+            long queryFrom = query[1] == null ? ANY_TIME_FROM : from;
+            long queryTo = query[1] == null ? ANY_TIME_TO : to;
+            List<String> expected = new ArrayList<>();
+            for (String line : lines) {
+                if (ActivityLogIndex.matches(line, query[0], queryFrom, queryTo)) {
+                    expected.add(line);
+                }
+            }
+            List<String> found = new ArrayList<>();
+            segments.query(segment, query[0], queryFrom, queryTo, found::add);
+            assertEquals(expected, found, query[0] + " " + query[1]);
+        }
+
+        // The rare user's two blocks are read, not the whole segment
+        ActivityLogIndex index = ActivityLogIndex.read(segment.resolveSibling(segment.getFileName() + ".idx"));
+        List<long[]> ranges = index.ranges("auditor", ANY_TIME_FROM, ANY_TIME_TO);
+        assertEquals(2, ranges.size());
+        assertTrue(ranges.get(0)[1] + ranges.get(1)[1] < Files.size(segment) / 2);
+        assertEquals(1, index.ranges(null, ANY_TIME_FROM, ANY_TIME_TO).size()); // adjacent blocks merge
+
+        // Without its index the segment is scanned in full, with the same result
+        Files.delete(segment.resolveSibling(segment.getFileName() + ".idx"));
+        List<String> scanned = new ArrayList<>();
+        new LogSegments(dir.resolve("logs"), 10).query(segment, "auditor", ANY_TIME_FROM, ANY_TIME_TO, scanned::add);
+        assertEquals(List.of(lines.get(100), lines.get(1500)), scanned);
+    }
+
+    @Test
+    void plainFileIndexPointsAtTheMatchingLines() throws Exception {
+        List<String> lines = withRareUser(LogSegmentsTest.lines(0, 600));
+        Path file = Files.write(dir.resolve("activity.log"), lines);
+        ActivityLogIndex index = ActivityLogIndex.ofPlainFile(file);
+
+        byte[] content = Files.readAllBytes(file);
+        List<String> found = new ArrayList<>();
+        for (long[] range : index.ranges("auditor", ANY_TIME_FROM, ANY_TIME_TO)) {
+            String text = new String(content, (int) range[0], (int) range[1], StandardCharsets.UTF_8);
+            for (String line : text.split("\\R")) {
+                if (ActivityLogIndex.matches(line, "auditor", ANY_TIME_FROM, ANY_TIME_TO)) {
+                    found.add(line);
+                }
+            }
+        }
+        assertEquals(List.of(lines.get(100)), found);
+
+        // Written and read back, the index gives the same ranges
+        Path indexFile = dir.resolve("activity.log.idx");
+        index.write(indexFile);
+        ActivityLogIndex read = ActivityLogIndex.read(indexFile);
+        long from = ActivityLogIndex.toMillis(LocalDateTime.of(2026, 10, 18, 3, 0));
+        long to = ActivityLogIndex.toMillis(LocalDateTime.of(2026, 10, 18, 5, 0));
+        for (String user : new String[]{null, "user0", "auditor"}) {
+            assertEquals(flatten(index.ranges(user, from, to)), flatten(read.ranges(user, from, to)));
+        }
+    }
+
+    @Test
+    void foreignOrMissingIndexFilesAreNotRead() throws Exception {
+        assertNull(ActivityLogIndex.read(dir.resolve("missing.idx")));
+        assertNull(ActivityLogIndex.read(Files.writeString(dir.resolve("foreign.idx"), "not an index")));
+    }
+
+    /** Gives lines 100 and 1500 (where present) to a user that appears nowhere else. */
+    private static List<String> withRareUser(List<String> lines) {
+        List<String> result = new ArrayList<>(lines);
+        for (int i : new int[]{100, 1500}) {
+            if (i < result.size()) {
+                result.set(i, result.get(i).replaceFirst("\\| user\\d \\|", "| auditor |"));
+            }
+        }
+        return result;
+    }
+
+    private static List<Long> flatten(List<long[]> ranges) {
+        List<Long> values = new ArrayList<>();
+        for (long[] range : ranges) {
+            values.add(range[0]);
+            values.add(range[1]);
+        }
+        return values;
+    }
+}
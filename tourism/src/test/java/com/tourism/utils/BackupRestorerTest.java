@@ -0,0 +1,133 @@
+package com.tourism.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.tourism.utils.BackupStoreTest.backup;
+import static com.tourism.utils.BackupStoreTest.bookingLines;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Backs up a small data directory, changes it, and restores it from zip and chunk store backups. */
+class BackupRestorerTest {
+
+    @TempDir
+    Path dir;
+
+    private Path dataDir;
+    private Path bookings;
+    private Path tourists;
+    private Path journal;
+    private BackupRestorer restorer;
+
+    @BeforeEach
+    void createDataFiles() throws Exception {
+        dataDir = Files.createDirectories(dir.resolve("data"));
+        bookings = Files.write(dataDir.resolve("bookings.txt"), bookingLines(0, 5000));
+        tourists = Files.write(dataDir.resolve("tourists.txt"), List.of("T1|Ann", "T2|Ben"));
+        journal = dataDir.resolve("bookings.journal");
+        Map<String, Path> targets = new LinkedHashMap<>();
+        targets.put("bookings.txt", bookings);
+        targets.put("tourists.txt", tourists);
+        targets.put("bookings.journal", journal);
+        restorer = new BackupRestorer(dataDir, targets);
+    }
+
+    @Test
+    void chunkStoreBackupRestoresEveryFile() throws Exception {
+        BackupStore store = new BackupStore(dir.resolve("store"), 4096, 5);
+        backup(store, "backup-1", bookings, tourists);
+        List<String> bookingsBefore = Files.readAllLines(bookings);
+        changeDataFiles();
+
+        Path staging = restorer.stage(store.listManifests().get(0), store);
+        restorer.swap(staging);
+        restorer.discard(staging);
+
+        assertEquals(bookingsBefore, Files.readAllLines(bookings));
+        assertEquals(List.of("T1|Ann", "T2|Ben"), Files.readAllLines(tourists));
+        assertFalse(Files.exists(journal)); // not in the backup, so not replayed over it
+        assertTrue(leftovers().isEmpty(), leftovers().toString());
+    }
+
+    @Test
+    void zipBackupRestoresEveryFile() throws Exception {
+        Path zip = dir.resolve("backup.zip");
+        try (ZipBackupSink sink = new ZipBackupSink(zip, 2)) {
+            sink.addFile("bookings.txt", bookings, new BackupProgress());
+            sink.addFile("tourists.txt", tourists, new BackupProgress());
+            sink.addFile("activity.log", Files.write(dir.resolve("activity.log"), List.of("x")), new BackupProgress());
+            sink.commit();
+        }
+        List<String> bookingsBefore = Files.readAllLines(bookings);
+        changeDataFiles();
+
+        Path staging = restorer.stage(zip, null);
+        assertFalse(Files.exists(staging.resolve("activity.log"))); // not a restore target
+        restorer.swap(staging);
+        restorer.discard(staging);
+
+        assertEquals(bookingsBefore, Files.readAllLines(bookings));
+        assertEquals(List.of("T1|Ann", "T2|Ben"), Files.readAllLines(tourists));
+        assertFalse(Files.exists(journal));
+    }
+
+    @Test
+    void damagedBackupLeavesTheLiveFilesAlone() throws Exception {
+        BackupStore store = new BackupStore(dir.resolve("store"), 4096, 5);
+        backup(store, "backup-1", bookings, tourists);
+        BackupManifest manifest = BackupStore.readManifest(store.listManifests().get(0));
+        String hash = manifest.find("bookings.txt").chunks.get(3).hash;
+        Files.write(dir.resolve("store").resolve("chunks").resolve(hash.substring(0, 2)).resolve(hash), new byte[]{1});
+        changeDataFiles();
+        List<String> live = Files.readAllLines(bookings);
+
+        assertThrows(IOException.class, () -> restorer.stage(store.listManifests().get(0), store));
+        assertEquals(live, Files.readAllLines(bookings));
+        assertTrue(Files.exists(journal));
+        assertTrue(leftovers().isEmpty(), leftovers().toString());
+    }
+
+    @Test
+    void interruptedSwapIsRolledBackAtStartup() throws Exception {
+        changeDataFiles();
+        List<String> live = Files.readAllLines(bookings);
+
+        // A swap that moved the live files aside, put one staged file in and then died
+        Path old = Files.createDirectories(dataDir.resolve(".restore-old"));
+        Files.createFile(old.resolve(".in-progress"));
+        Files.move(bookings, old.resolve("bookings.txt"));
+        Files.move(journal, old.resolve("bookings.journal"));
+        Files.write(bookings, List.of("B9|half restored"));
+
+        restorer.recover();
+
+        assertEquals(live, Files.readAllLines(bookings));
+        assertEquals(List.of("B1|journal"), Files.readAllLines(journal));
+        assertFalse(Files.exists(tourists)); // was already gone before the swap
+        assertTrue(leftovers().isEmpty(), leftovers().toString());
+    }
+
+    private void changeDataFiles() throws IOException {
+        Files.write(bookings, bookingLines(9000, 10));
+        Files.delete(tourists);
+        Files.write(journal, List.of("B1|journal"));
+    }
+
+    /** Staging or old-file directories a restore left in the data directory. */
+    private List<String> leftovers() throws IOException {
+        try (var paths = Files.list(dataDir)) {
+            return paths.map(path -> path.getFileName().toString()).filter(name -> name.startsWith(".restore")).toList();
+        }
+    }
+}
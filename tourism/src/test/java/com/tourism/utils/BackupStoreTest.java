@@ -0,0 +1,149 @@
+package com.tourism.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackupStoreTest {
+
+    private static final int CHUNK_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void filesAreRebuiltFromTheirChunks() throws Exception {
+        BackupStore store = new BackupStore(dir.resolve("store"), CHUNK_BYTES, 5);
+        Path bookings = Files.write(dir.resolve("bookings.txt"), bookingLines(0, 3000));
+        Path empty = Files.write(dir.resolve("empty.txt"), new byte[0]);
+        Path exact = Files.write(dir.resolve("exact.txt"), new byte[CHUNK_BYTES * 2]);
+        backup(store, "backup-1", bookings, empty, exact);
+
+        BackupManifest manifest = BackupStore.readManifest(store.listManifests().get(0));
+        assertEquals(3, manifest.getFiles().size());
+        for (Path file : List.of(bookings, empty, exact)) {
+            BackupManifest.FileEntry entry = manifest.find(file.getFileName().toString());
+            FileDigest digest = FileDigest.of(file);
+            assertEquals(digest.size(), entry.size);
+            assertEquals(digest.rows(), entry.rows);
+            assertEquals(digest.sha256Hex(), entry.sha256);
+            assertArrayEquals(Files.readAllBytes(file), content(store, entry));
+        }
+        assertEquals(2, manifest.find("exact.txt").chunks.size());
+        assertEquals(0, manifest.find("empty.txt").chunks.size());
+    }
+
+    @Test
+    void unchangedChunksAreStoredOnce() throws Exception {
+        BackupStore store = new BackupStore(dir.resolve("store"), CHUNK_BYTES, 5);
+        Path bookings = Files.write(dir.resolve("bookings.txt"), bookingLines(0, 3000));
+        backup(store, "backup-1", bookings);
+        int chunksBefore = chunkFiles().size();
+
+        // Appending only adds the changed tail chunk and the new ones after it
+        Files.write(bookings, bookingLines(3000, 50), StandardOpenOption.APPEND);
+        backup(store, "backup-2", bookings);
+        BackupManifest second = BackupStore.readManifest(store.listManifests().get(1));
+        List<BackupManifest.Chunk> chunks = second.find("bookings.txt").chunks;
+        assertTrue(chunkFiles().size() - chunksBefore <= 3, "appended data stores only a few chunks");
+        assertArrayEquals(Files.readAllBytes(bookings), content(store, second.find("bookings.txt")));
+        assertEquals((Files.size(bookings) + CHUNK_BYTES - 1) / CHUNK_BYTES, chunks.size());
+    }
+
+    @Test
+    void oldManifestsArePrunedWithTheChunksOnlyTheyUsed() throws Exception {
+        BackupStore store = new BackupStore(dir.resolve("store"), CHUNK_BYTES, 2);
+        Path file = dir.resolve("bookings.txt");
+        for (int i = 1; i <= 4; i++) {
+            Files.write(file, bookingLines(i * 1000, 500)); // rewritten whole each time
+            backup(store, "backup-" + i, file);
+        }
+        List<Path> manifests = store.listManifests();
+        assertEquals(List.of("backup-3.manifest", "backup-4.manifest"),
+                List.of(manifests.get(0).getFileName().toString(), manifests.get(1).getFileName().toString()));
+
+        Set<String> referenced = new HashSet<>();
+        for (Path manifest : manifests) {
+            for (BackupManifest.Chunk chunk : BackupStore.readManifest(manifest).find("bookings.txt").chunks) {
+                referenced.add(chunk.hash);
+            }
+        }
+        Set<String> stored = new HashSet<>();
+        for (Path chunk : chunkFiles()) {
+            stored.add(chunk.getFileName().toString());
+        }
+        assertEquals(referenced, stored);
+    }
+
+    @Test
+    void damagedOrMissingChunksAreReported() throws Exception {
+        BackupStore store = new BackupStore(dir.resolve("store"), CHUNK_BYTES, 5);
+        backup(store, "backup-1", Files.write(dir.resolve("bookings.txt"), bookingLines(0, 500)));
+        BackupManifest.FileEntry entry = BackupStore.readManifest(store.listManifests().get(0)).find("bookings.txt");
+        List<Path> chunks = chunkFiles();
+
+        Path damaged = chunks.get(0);
+        byte[] bytes = Files.readAllBytes(damaged);
+        bytes[bytes.length / 2] ^= 0x55;
+        Files.write(damaged, bytes);
+        Path missing = chunks.get(1);
+        Files.delete(missing);
+        for (BackupManifest.Chunk chunk : entry.chunks) {
+            if (chunk.hash.equals(damaged.getFileName().toString())) {
+                IOException failure = assertThrows(IOException.class, () -> store.readChunk(chunk));
+                assertTrue(failure.getMessage().startsWith("Backup chunk damaged"), failure.getMessage());
+            } else if (chunk.hash.equals(missing.getFileName().toString())) {
+                IOException failure = assertThrows(IOException.class, () -> store.readChunk(chunk));
+                assertTrue(failure.getMessage().startsWith("Backup chunk missing"), failure.getMessage());
+            }
+        }
+        assertThrows(IOException.class, () -> content(store, entry));
+    }
+
+    /** "id|tourist|package|amount" lines, each a little different. */
+    static List<String> bookingLines(int from, int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            lines.add("B" + i + "|T" + (i % 97) + "|P" + (i % 13) + "|" + (i * 7 % 1000) + ".00|CONFIRMED");
+        }
+        return lines;
+    }
+
+    static void backup(BackupStore store, String name, Path... files) throws IOException {
+        try (BackupSink sink = store.begin(name)) {
+            for (Path file : files) {
+                sink.addFile(file.getFileName().toString(), file, new BackupProgress());
+            }
+            sink.commit();
+        }
+    }
+
+    private static byte[] content(BackupStore store, BackupManifest.FileEntry entry) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (BackupManifest.Chunk chunk : entry.chunks) {
+            out.write(store.readChunk(chunk));
+        }
+        return out.toByteArray();
+    }
+
+    private List<Path> chunkFiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir.resolve("store").resolve("chunks"))) {
+            return paths.filter(Files::isRegularFile).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.tourism.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChannelLineReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lineEndsMatchBufferedReader() throws Exception {
+        String[] contents = {
+                "", "\n", "\r", "\r\n", "a", "a\n", "a\r", "a\r\n", "a\n\nb", "a\r\rb\r\n\r\nc",
+                "mixed\nends\r\nand\rlone\rreturns\n\r", "trailing\r\n\r", "ünïcödé|€|\n日本\r\n",
+        };
+        for (String content : contents) {
+            assertEquals(bufferedReaderLines(content), read(content), () -> "lines of " + content.replace("\r", "\\r").replace("\n", "\\n"));
+        }
+    }
+
+    @Test
+    void linesCrossingBufferReadsMatch() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            content.append("B").append(i).append("|T").append(i % 977).append("|Ünïcode|").append(i * 1.5)
+                    .append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\n" : "\r");
+        }
+        content.append("x".repeat(3 * 1024 * 1024)).append("\r\nlast");
+        String text = content.toString();
+        assertEquals(bufferedReaderLines(text), read(text));
+    }
+
+    @Test
+    void rangesAddUpToTheWholeFile() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            content.append("line ").append(i).append(i % 10 == 0 ? "\r\n" : "\n");
+        }
+        Path file = write(content.toString());
+        List<String> whole = new ArrayList<>();
+        ChannelLineReader.forEachLine(file, whole::add);
+
+        for (int parts : new int[]{1, 2, 7, 64}) {
+            long[] bounds = ChannelLineReader.splitAtLines(file, parts);
+            List<String> joined = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                ChannelLineReader.forEachLine(file, bounds[i], bounds[i + 1], joined::add);
+            }
+            assertEquals(whole, joined, "split into " + parts);
+        }
+    }
+
+    @Test
+    void rangesSplitAtEveryKindOfLineEnd() throws Exception {
+        for (String end : new String[]{"\r", "\r\n"}) {
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < 20_000; i++) {
+                content.append("line ").append(i).append(end);
+            }
+            Path file = write(content.toString());
+            long[] bounds = ChannelLineReader.splitAtLines(file, 8);
+            assertEquals(9, bounds.length, "ranges for " + end.replace("\r", "\\r").replace("\n", "\\n"));
+            List<String> joined = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                ChannelLineReader.forEachLine(file, bounds[i], bounds[i + 1], joined::add);
+            }
+            assertEquals(bufferedReaderLines(content.toString()), joined);
+        }
+    }
+
+    @Test
+    void fileCanBeReplacedRightAfterReading() throws Exception {
+        Path file = write("a\nb\n");
+        ChannelLineReader.forEachLine(file, line -> { });
+        try (Stream<String> lines = ChannelLineReader.lines(file)) {
+            assertEquals(List.of("a", "b"), lines.collect(Collectors.toList()));
+        }
+        Files.write(file, List.of("c")); // truncates the file that was just read
+        Files.move(write("d\n"), file, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(List.of("d"), read(Files.readString(file)));
+    }
+
+    private List<String> read(String content) throws Exception {
+        Path file = write(content);
+        List<String> lines = new ArrayList<>();
+        ChannelLineReader.forEachLine(file, lines::add);
+        return lines;
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = Files.createTempFile(dir, "lines", ".txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<String> bufferedReaderLines(String content) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.tourism.utils;
+
+import com.tourism.utils.EntityStoreTest.Item;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sizeCountsEncodedBytes() throws Exception {
+        Path file = dir.resolve("items.journal");
+        String payload = "I1|Café über Straße|1"; // several two-byte characters
+        EntityJournal journal = new EntityJournal(file.toString(), Long.MAX_VALUE);
+        journal.append(EntityJournal.PUT, payload);
+        journal.closeWriter();
+        long written = Files.size(file);
+        assertTrue(written > (EntityJournal.PUT + "|" + payload).length() + System.lineSeparator().length());
+
+        EntityJournal atSize = new EntityJournal(dir.resolve("a.journal").toString(), written);
+        atSize.append(EntityJournal.PUT, payload);
+        assertTrue(atSize.needsCompaction());
+
+        EntityJournal aboveSize = new EntityJournal(dir.resolve("b.journal").toString(), written + 1);
+        aboveSize.append(EntityJournal.PUT, payload);
+        assertFalse(aboveSize.needsCompaction());
+    }
+
+    @Test
+    void replaysParkedJournalBeforeActiveOne() throws Exception {
+        Path file = dir.resolve("items.journal");
+        Files.write(dir.resolve("items.journal.compacting"), List.of("PUT|I1|old|1", "", "DEL|I2"));
+        Files.write(file, List.of("SET|I1|name|new"));
+
+        List<String> records = new ArrayList<>();
+        new EntityJournal(file.toString(), Long.MAX_VALUE).forEachRecord(records::add);
+        assertEquals(List.of("PUT|I1|old|1", "DEL|I2", "SET|I1|name|new"), records);
+    }
+
+    @Test
+    void storeReplaysJournalOverDataFile() throws Exception {
+        Path data = dir.resolve("items.txt");
+        Path journalFile = dir.resolve("items.journal");
+        Files.write(data, List.of("I1|tent|2", "I2|stove|1", "I3|lamp|4"));
+
+        EntityStore<Item> store = journaled(data, journalFile, Long.MAX_VALUE);
+        store.save(new Item("I4", "rope", 3));
+        store.update("I1", "name", "big tent");
+        store.deleteById("I2");
+        store.save(new Item("I3", "lamp", 5));
+        List<String> live = new ArrayList<>();
+        for (Item item : store.findAll()) {
+            live.add(Item.format(item));
+        }
+        store.invalidate();
+
+        // The data file is untouched; a fresh store gets the same state from the journal
+        assertEquals(List.of("I1|tent|2", "I2|stove|1", "I3|lamp|4"), Files.readAllLines(data));
+        EntityStore<Item> reloaded = journaled(data, journalFile, Long.MAX_VALUE);
+        List<String> lines = new ArrayList<>();
+        for (Item item : reloaded.findAll()) {
+            lines.add(Item.format(item));
+        }
+        // Re-saved I3 keeps its place, in memory and after replay
+        assertEquals(List.of("I1|big tent|2", "I3|lamp|5", "I4|rope|3"), live);
+        assertEquals(live, lines);
+    }
+
+    @Test
+    void compactionFoldsJournalIntoDataFile() throws Exception {
+        Path data = dir.resolve("items.txt");
+        Path journalFile = dir.resolve("items.journal");
+        Files.write(data, List.of("I1|tent|2"));
+
+        EntityStore<Item> store = journaled(data, journalFile, 64);
+        for (int i = 2; i <= 10; i++) {
+            store.save(new Item("I" + i, "item " + i, i));
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (Item item : store.findAll()) {
+            expected.add(Item.format(item));
+        }
+        // 16-byte records: the 4th save (I5) schedules the first compaction
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!(Files.readAllLines(data).contains("I5|item 5|5") && !Files.exists(dir.resolve("items.journal.compacting")))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.readAllLines(data).contains("I5|item 5|5"));
+
+        // Whatever the compactor folded in and whatever is still journaled add up to the store
+        store.invalidate();
+        List<String> reloaded = new ArrayList<>();
+        for (Item item : journaled(data, journalFile, Long.MAX_VALUE).findAll()) {
+            reloaded.add(Item.format(item));
+        }
+        assertEquals(expected, reloaded);
+    }
+
+    private static EntityStore<Item> journaled(Path data, Path journalFile, long threshold) {
+        EntityStore<Item> store = EntityStoreTest.store(data);
+        store.enableJournal(journalFile.toString(), threshold);
+        return store;
+    }
+}
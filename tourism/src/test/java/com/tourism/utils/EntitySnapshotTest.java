@@ -0,0 +1,147 @@
+package com.tourism.utils;
+
+import com.tourism.utils.EntityStoreTest.Item;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntitySnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    /** One field of every kind the codec knows. */
+    private static final class Row {
+        final String text;
+        final String symbol;
+        final int number;
+        final double amount;
+        final boolean flag;
+
+        Row(String text, String symbol, int number, double amount, boolean flag) {
+            this.text = text;
+            this.symbol = symbol;
+            this.number = number;
+            this.amount = amount;
+            this.flag = flag;
+        }
+
+        static void write(Row row, EntitySnapshot.Writer out) {
+            out.writeString(row.text);
+            out.writeSymbol(row.symbol);
+            out.writeInt(row.number);
+            out.writeDouble(row.amount);
+            out.writeBoolean(row.flag);
+        }
+
+        static Row read(EntitySnapshot.Reader in) {
+            return new Row(in.readString(), in.readSymbol(), in.readInt(), in.readDouble(), in.readBoolean());
+        }
+
+        @Override
+        public String toString() {
+            return text + "|" + symbol + "|" + number + "|" + amount + "|" + flag;
+        }
+    }
+
+    private static final EntitySnapshot.Stamp STAMP = new EntitySnapshot.Stamp(1234, 5678);
+
+    @Test
+    void recordsRoundTripAcrossBlocks() throws Exception {
+        String[] symbols = {"PENDING", "CONFIRMED", null, "", "Ünïcode €"};
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) { // several 4096-record blocks
+            rows.add(new Row(i % 97 == 0 ? null : "row " + i + " 日本", symbols[i % symbols.length],
+                    i % 2 == 0 ? i * 7919 : -i, i % 5 == 0 ? Double.NaN : i / 3.0, i % 3 == 0));
+        }
+        rows.add(new Row("", "PENDING", Integer.MIN_VALUE, -0.0, true));
+        rows.add(new Row("x".repeat(100_000), "new", Integer.MAX_VALUE, Double.MAX_VALUE, false));
+
+        Path file = dir.resolve("rows.snap");
+        EntitySnapshot.write(file, "rows", STAMP, rows, Row::write);
+        List<Row> read = new ArrayList<>();
+        assertTrue(EntitySnapshot.read(file, "rows", STAMP, Row::read, read::add));
+
+        assertEquals(rows.size(), read.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(rows.get(i).toString(), read.get(i).toString(), "row " + i);
+        }
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(read.get(10_000).amount));
+    }
+
+    @Test
+    void otherStampOrEntityIsNotRead() throws Exception {
+        Path file = dir.resolve("rows.snap");
+        EntitySnapshot.write(file, "rows", STAMP, List.of(new Row("a", "b", 1, 2, true)), Row::write);
+        List<Row> read = new ArrayList<>();
+
+        assertFalse(EntitySnapshot.read(file, "rows", new EntitySnapshot.Stamp(1234, 5679), Row::read, read::add));
+        assertFalse(EntitySnapshot.read(file, "rows", new EntitySnapshot.Stamp(1235, 5678), Row::read, read::add));
+        assertFalse(EntitySnapshot.read(file, "other", STAMP, Row::read, read::add));
+        assertTrue(read.isEmpty());
+    }
+
+    @Test
+    void damagedBlockIsDetected() throws Exception {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(new Row("row " + i, "S" + (i % 4), i, i, true));
+        }
+        Path file = dir.resolve("rows.snap");
+        EntitySnapshot.write(file, "rows", STAMP, rows, Row::write);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 40] ^= 0x10; // inside the block's string section
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class,
+                () -> EntitySnapshot.read(file, "rows", STAMP, Row::read, row -> { }));
+        assertTrue(e.getMessage().contains("Checksum"), e.getMessage());
+    }
+
+    @Test
+    void storeLoadsFromCurrentSnapshotAndFallsBackToText() throws Exception {
+        Path text = dir.resolve("items.txt");
+        Path snap = dir.resolve("items.snap");
+        Files.write(text, List.of("I1|tent|2", "I2|stove|1"));
+        EntityStore<Item> first = snapshotted(text, snap, new AtomicInteger());
+        assertEquals(2, first.count());
+        assertTrue(first.writeSnapshotFile());
+
+        AtomicInteger parsed = new AtomicInteger();
+        EntityStore<Item> fromSnapshot = snapshotted(text, snap, parsed);
+        assertEquals("stove", fromSnapshot.findById("I2").name);
+        assertEquals(0, parsed.get()); // no text line was parsed
+
+        // A text file changed behind the snapshot's back wins
+        Files.write(text, List.of("I1|tent|2", "I2|big stove|1", "I3|lamp|4"));
+        Files.setLastModifiedTime(text, FileTime.fromMillis(Files.getLastModifiedTime(text).toMillis() + 2000));
+        EntityStore<Item> fromText = snapshotted(text, snap, new AtomicInteger());
+        assertEquals(3, fromText.count());
+        assertEquals("big stove", fromText.findById("I2").name);
+    }
+
+    private static EntityStore<Item> snapshotted(Path text, Path snap, AtomicInteger parsed) {
+        EntityStore<Item> store = new EntityStore<>("items", text.toString(), line -> {
+            parsed.incrementAndGet();
+            return Item.parse(line);
+        }, Item::format, Item::new, item -> item.id, true, null);
+        store.enableSnapshot(snap.toString(), (item, out) -> {
+            out.writeString(item.id);
+            out.writeString(item.name);
+            out.writeInt(item.count);
+        }, in -> new Item(in.readString(), in.readString(), in.readInt()));
+        return store;
+    }
+}
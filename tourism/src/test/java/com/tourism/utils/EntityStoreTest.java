@@ -0,0 +1,182 @@
+package com.tourism.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityStoreTest {
+
+    @TempDir
+    Path dir;
+
+    /** A minimal record: {@code id|name|count}. */
+    static final class Item {
+        String id;
+        String name;
+        int count;
+
+        Item(String id, String name, int count) {
+            this.id = id;
+            this.name = name;
+            this.count = count;
+        }
+
+        Item(Item other) {
+            this(other.id, other.name, other.count);
+        }
+
+        static Item parse(String line) {
+            String[] parts = line.split("\\|", -1);
+            return parts.length == 3 ? new Item(parts[0], parts[1], Integer.parseInt(parts[2])) : null;
+        }
+
+        static String format(Item item) {
+            return item.id + "|" + item.name + "|" + item.count;
+        }
+    }
+
+    static EntityStore<Item> store(Path file) {
+        EntityStore<Item> store = new EntityStore<>("items", file.toString(), Item::parse, Item::format, Item::new,
+                item -> item.id, true, null);
+        store.registerField("name", (item, value) -> item.name = value);
+        return store;
+    }
+
+    @Test
+    void readsHandOutCopies() {
+        EntityStore<Item> store = store(dir.resolve("items.txt"));
+        Item item = new Item("I1", "tent", 2);
+        store.save(item);
+
+        item.name = "changed after save";
+        Item found = store.findById("I1");
+        assertEquals("tent", found.name);
+
+        found.name = "changed after read";
+        assertEquals("tent", store.findById("I1").name);
+        assertEquals("tent", store.findAll().get(0).name);
+        assertNotSame(store.findById("I1"), store.findById("I1"));
+    }
+
+    @Test
+    void copiesAreMadeWithoutReparsing() throws Exception {
+        Path file = Files.write(dir.resolve("items.txt"), List.of("I1|tent|2", "I2|stove|1"));
+        AtomicInteger parsed = new AtomicInteger();
+        EntityStore<Item> store = new EntityStore<>("items", file.toString(), line -> {
+            parsed.incrementAndGet();
+            return Item.parse(line);
+        }, Item::format, Item::new, item -> item.id, true, null);
+        store.addIndex("name", item -> item.name);
+
+        assertEquals(2, store.findAll().size());
+        assertEquals(2, parsed.get()); // the file, once
+        store.save(new Item("I3", "lamp", 4));
+        store.saveAll(List.of(new Item("I1", "big tent", 2)));
+        store.findById("I1");
+        store.findBy("name", "lamp");
+        store.findPage(PageQuery.all(), 0, 10);
+        assertEquals(2, parsed.get());
+    }
+
+    @Test
+    void writesThroughToTheFile() throws Exception {
+        Path file = dir.resolve("items.txt");
+        EntityStore<Item> store = store(file);
+        store.save(new Item("I1", "tent", 2));
+        store.save(new Item("I2", "stove", 1));
+        store.update("I1", "name", "big tent");
+        store.deleteById("I2");
+
+        assertEquals(List.of("I1|big tent|2"), Files.readAllLines(file));
+        assertEquals("big tent", store(file).findById("I1").name);
+    }
+
+    @Test
+    void resavedRecordsKeepTheirPosition() throws Exception {
+        Path file = dir.resolve("items.txt");
+        Files.write(file, List.of("I1|tent|2", "I2|stove|1", "I3|lamp|4"));
+        EntityStore<Item> store = store(file);
+        store.save(new Item("I1", "big tent", 2));
+        store.saveAll(List.of(new Item("I2", "stove", 3), new Item("I4", "rope", 1)));
+
+        assertEquals(List.of("I1|big tent|2", "I2|stove|3", "I3|lamp|4", "I4|rope|1"), Files.readAllLines(file));
+        assertEquals("I1", store.findAll().get(0).id);
+    }
+
+    @Test
+    void batchDeleteReturnsOnlyTheKeysItRemoved() throws Exception {
+        Path file = dir.resolve("items.txt");
+        Files.write(file, List.of("I1|tent|2", "I2|stove|1", "I3|lamp|4"));
+        EntityStore<Item> store = store(file);
+        long version = store.version();
+
+        assertEquals(List.of(), store.deleteAllById(List.of("missing")));
+        assertEquals(version, store.version());
+        assertEquals(List.of("I3", "I1"), store.deleteAllById(List.of("I3", "missing", "I1", "I3")));
+        assertFalse(store.existsById("I1"));
+        assertTrue(store.existsById("I2"));
+        assertEquals(List.of("I2|stove|1"), Files.readAllLines(file));
+    }
+
+    @Test
+    void parallelLoadMatchesSequentialLoad() throws Exception {
+        Path file = dir.resolve("items.txt");
+        StringBuilder content = new StringBuilder();
+        String[] ends = {"\n", "\r\n", "\r"};
+        for (int i = 0; i < 400_000; i++) {
+            // Every 10th line re-saves an earlier key, as a replayed file would
+            String key = i % 10 == 9 ? "I" + (i / 2) : "I" + i;
+            content.append(key).append("|item number ").append(i).append('|').append(i % 1000).append(ends[i % 3]);
+            if (i % 50_000 == 0) {
+                content.append(ends[i % 3]); // blank lines are skipped
+            }
+        }
+        Files.writeString(file, content);
+        assertTrue(Files.size(file) >= 8L * 1024 * 1024, "file must be large enough to load in parallel");
+
+        EntityStore<Item> parallel = store(file);
+        parallel.enableParallelLoad();
+        List<Item> loaded = parallel.findAll();
+        List<Item> expected = store(file).findAll();
+        assertEquals(expected.size(), loaded.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(Item.format(expected.get(i)), Item.format(loaded.get(i)));
+        }
+    }
+
+    @Test
+    void sumsFollowEveryChange() throws Exception {
+        Path file = Files.write(dir.resolve("items.txt"), List.of("I1|tent|2", "I2|stove|1", "I3|tent|4"));
+        EntityStore<Item> store = store(file);
+        store.addIndex("name", item -> item.name);
+        store.addSumIndex("countByName", "name", item -> item.count);
+        assertEquals(6, store.sumBy("countByName", "tent"));
+
+        store.save(new Item("I1", "tent", 5)); // replaced, not added twice
+        store.update("I2", "name", "tent");
+        store.deleteAllById(List.of("I3"));
+        assertEquals(6, store.sumBy("countByName", "tent"));
+        assertEquals(0, store.sumBy("countByName", "stove"));
+
+        store.replaceAll(List.of(new Item("I9", "stove", 7)));
+        assertEquals(0, store.sumBy("countByName", "tent"));
+        assertEquals(7, store.sumBy("countByName", "stove"));
+    }
+
+    @Test
+    void updateOfUnknownKeyChangesNothing() {
+        EntityStore<Item> store = store(dir.resolve("items.txt"));
+        long version = store.version();
+        assertFalse(store.update("missing", "name", "x"));
+        assertEquals(version, store.version());
+    }
+}
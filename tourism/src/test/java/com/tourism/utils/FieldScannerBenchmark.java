@@ -0,0 +1,81 @@
+package com.tourism.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking lines parsed the old way (regex split plus Integer/Double.parse*) against
+ * {@link FieldScanner}. Not part of the test run; start {@link #main} from the IDE or
+ * with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldScannerBenchmark {
+
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "CANCELLED", "COMPLETED"};
+
+    private String[] lines;
+    private int next;
+
+    @Setup
+    public void createLines() {
+        Random random = new Random(7);
+        lines = new String[1024];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "BK" + (100000 + i) + "|T" + random.nextInt(50000) + "|PKG00" + random.nextInt(9)
+                    + "|G00" + random.nextInt(9) + "|" + STATUSES[random.nextInt(STATUSES.length)]
+                    + "|" + (random.nextInt(500000) / 100.0) + "|" + (1 + random.nextInt(12))
+                    + "|window seat please|" + (random.nextBoolean() ? "PAID" : "PENDING");
+        }
+    }
+
+    private String nextLine() {
+        next = (next + 1) & (lines.length - 1);
+        return lines[next];
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        String[] parts = nextLine().split("\\|");
+        blackhole.consume(parts[0]);
+        blackhole.consume(parts[1]);
+        blackhole.consume(parts[4]);
+        blackhole.consume(Double.parseDouble(parts[5]));
+        blackhole.consume(Integer.parseInt(parts[6]));
+        blackhole.consume(parts[8]);
+    }
+
+    @Benchmark
+    public void fieldScanner(Blackhole blackhole) {
+        FieldScanner fields = FieldScanner.scan(nextLine());
+        blackhole.consume(fields.text(0));
+        blackhole.consume(fields.text(1));
+        blackhole.consume(fields.token(4, FieldScanner.BOOKING_STATUSES));
+        blackhole.consume(fields.parseDouble(5, 0.0));
+        blackhole.consume(fields.parseInt(6, 1));
+        blackhole.consume(fields.token(8, FieldScanner.PAYMENT_STATUSES));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FieldScannerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
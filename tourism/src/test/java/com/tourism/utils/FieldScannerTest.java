@@ -0,0 +1,102 @@
+package com.tourism.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/** Checks FieldScanner against what the parsers did before: split("\\|") plus Integer/Double.parse*. */
+class FieldScannerTest {
+
+    private static final String[] LINES = {
+            "",
+            "|",
+            "||",
+            "single",
+            "B1|T1|P1||PENDING|1250.0|2||PAID",
+            "B1|T1|P1||PENDING|1250.0|2||",
+            "B1|T1|P1||PENDING|||",
+            "|leading|empty",
+            "a||b|||c||",
+            "x|-0.0|+7|-2147483648|2147483648|2147483647|-|+|.|5.|.5|1e|1e5|1.0E7|1.5f|0x1p3",
+            "x| 12 |1_000|12a|NaN|Infinity|-Infinity|1e400|1e-400|0.000000000000000000000001",
+            "x|12345678901234567890|1234567890123456.5|9007199254740993|3.141592653589793238|007|-0012",
+            "x|TRUE|true|True|false|yes|truex",
+    };
+
+    @Test
+    void fieldsMatchSplit() {
+        for (String line : LINES) {
+            assertMatchesSplit(line);
+        }
+    }
+
+    @Test
+    void numbersMatchJdkParsing() {
+        for (String line : LINES) {
+            assertNumbersMatch(line);
+        }
+    }
+
+    @Test
+    void randomLinesMatch() {
+        Random random = new Random(42);
+        char[] alphabet = "0123456789.-+eE|| x".toCharArray();
+        for (int n = 0; n < 20_000; n++) {
+            char[] chars = new char[random.nextInt(24)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String line = new String(chars);
+            assertMatchesSplit(line);
+            assertNumbersMatch(line);
+        }
+    }
+
+    @Test
+    void tokensShareTheVocabularyString() {
+        FieldScanner fields = FieldScanner.scan("B1|" + new String("CONFIRMED".toCharArray()) + "|UNKNOWN");
+        assertSame(FieldScanner.BOOKING_STATUSES[1], fields.token(1, FieldScanner.BOOKING_STATUSES));
+        assertEquals("UNKNOWN", fields.token(2, FieldScanner.BOOKING_STATUSES));
+    }
+
+    private static void assertMatchesSplit(String line) {
+        FieldScanner fields = FieldScanner.scan(line);
+        assertEquals(line.split("\\|").length, fields.fieldCount(), () -> "field count of '" + line + "'");
+        String[] all = line.split("\\|", -1);
+        for (int i = 0; i < Math.min(all.length, fields.fieldCount()); i++) {
+            assertEquals(all[i], fields.text(i), "field " + i + " of '" + line + "'");
+            assertEquals(all[i].isEmpty(), fields.isEmpty(i));
+            assertEquals(Boolean.parseBoolean(all[i]), fields.parseBoolean(i), "boolean " + i + " of '" + line + "'");
+        }
+    }
+
+    private static void assertNumbersMatch(String line) {
+        FieldScanner fields = FieldScanner.scan(line);
+        String[] all = line.split("\\|", -1);
+        for (int i = 0; i < fields.fieldCount(); i++) {
+            String text = all[i];
+            assertEquals(jdkInt(text, -99), fields.parseInt(i, -99), "int '" + text + "'");
+            // assertEquals(double, double) compares bits, so -0.0, NaN and rounding must all match
+            assertEquals(jdkDouble(text, -99.5), fields.parseDouble(i, -99.5), "double '" + text + "'");
+        }
+    }
+
+    private static int jdkInt(String text, int fallback) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static double jdkDouble(String text, double fallback) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.tourism.utils;
+
+import com.tourism.utils.EntityStoreTest.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Runs the SQL backend against an in-memory H2 database. */
+class JdbcRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+    private JdbcRepository<Item> repository;
+
+    @BeforeEach
+    void openDatabase() throws Exception {
+        Path file = dir.resolve("items.txt");
+        Files.write(file, List.of("I1|tent|2", "I2|stove|1", "I3|lamp|4"));
+        EntityStore<Item> definition = EntityStoreTest.store(file);
+        definition.addIndex("name", item -> item.name);
+        definition.addIndex("count", item -> String.valueOf(item.count));
+        definition.addTextIndex("search", List.of(item -> item.name));
+        definition.addSumIndex("countByName", "name", item -> item.count);
+
+        pool = new ConnectionPool("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "", 2);
+        repository = new JdbcRepository<>(pool, definition);
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        pool.withConnection(connection -> connection.createStatement().execute("SHUTDOWN"));
+        pool.close();
+    }
+
+    @Test
+    void createsSchemaAndSeedsFromFlatFile() throws Exception {
+        assertEquals(List.of("I1|tent|2", "I2|stove|1", "I3|lamp|4"), lines(repository.findAll()));
+
+        Set<String> columns = new HashSet<>();
+        Set<String> indexes = new HashSet<>();
+        pool.withConnection(connection -> {
+            try (ResultSet rs = connection.getMetaData().getColumns(null, connection.getSchema(), "ITEMS", null)) {
+                while (rs.next()) {
+                    columns.add(rs.getString("COLUMN_NAME"));
+                }
+            }
+            try (ResultSet rs = connection.getMetaData().getIndexInfo(null, connection.getSchema(), "ITEMS", false, false)) {
+                while (rs.next()) {
+                    indexes.add(rs.getString("INDEX_NAME"));
+                }
+            }
+            return null;
+        });
+        assertEquals(Set.of("ID", "SEQ", "IDX_NAME", "IDX_COUNT", "SUM_COUNTBYNAME", "PAYLOAD"), columns);
+        assertTrue(indexes.containsAll(Set.of("ITEMS_SEQ", "ITEMS_IDX_NAME", "ITEMS_IDX_COUNT")), indexes.toString());
+
+        // A second repository on the same database finds the table and does not seed again
+        Path other = Files.write(dir.resolve("other.txt"), List.of("I9|not imported|1"));
+        JdbcRepository<Item> again = new JdbcRepository<>(pool, EntityStoreTest.store(other));
+        assertEquals(3, again.count());
+    }
+
+    @Test
+    void indexAddedLaterGetsAFilledColumn() throws Exception {
+        repository.count(); // creates the table with the name and count columns
+        EntityStore<Item> definition = EntityStoreTest.store(dir.resolve("items.txt"));
+        definition.addIndex("name", item -> item.name);
+        definition.addIndex("count", item -> String.valueOf(item.count));
+        definition.addIndex("initial", item -> item.name.substring(0, 1));
+        definition.addSumIndex("countByInitial", "initial", item -> item.count);
+        JdbcRepository<Item> upgraded = new JdbcRepository<>(pool, definition);
+
+        assertEquals(List.of("I1"), keys(upgraded.findBy("initial", "t")));
+        assertEquals(2, upgraded.countBy("initial", "t") + upgraded.countBy("initial", "l"));
+        assertEquals(2, upgraded.sumBy("countByInitial", "t"));
+        assertTrue(upgraded.save(new Item("I4", "tarp", 1)));
+        assertEquals(List.of("I1", "I4"), keys(upgraded.findBy("initial", "t")));
+        assertEquals(3, upgraded.sumBy("countByInitial", "t"));
+    }
+
+    @Test
+    void mergeAddsNewRecordsAfterExistingOnesAndReplacesInPlace() {
+        assertTrue(repository.save(new Item("I4", "rope", 3)));
+        assertTrue(repository.saveAll(List.of(new Item("I5", "map", 1), new Item("I0", "torch", 2))));
+
+        assertEquals(List.of("I1", "I2", "I3", "I4", "I5", "I0"), keys(repository.findAll()));
+
+        // Saving an existing key replaces the row in place
+        assertTrue(repository.save(new Item("I2", "big stove", 1)));
+        assertTrue(repository.saveAll(List.of(new Item("I1", "tent", 9), new Item("I6", "pole", 1))));
+        assertEquals(List.of("I1", "I2", "I3", "I4", "I5", "I0", "I6"), keys(repository.findAll()));
+        assertEquals("big stove", repository.findById("I2").name);
+        assertEquals("rope", repository.findById("I4").name);
+        assertEquals(List.of("I2", "I5", "I6"), keys(repository.findBy("count", "1")));
+        assertEquals(1, repository.countBy("count", "2"));
+    }
+
+    @Test
+    void updateChangesFieldUnderRowLockAndKeepsPosition() {
+        long version = repository.version();
+        assertTrue(repository.update("I1", "name", "big tent"));
+        assertEquals(version + 1, repository.version());
+
+        assertEquals("big tent", repository.findById("I1").name);
+        assertEquals(List.of("I1"), keys(repository.findBy("name", "big tent")));
+        assertEquals(List.of("I1", "I2", "I3"), keys(repository.findAll()));
+        assertEquals(List.of("I1"), keys(repository.search("search", "BIG")));
+
+        assertFalse(repository.update("missing", "name", "x"));
+        assertEquals(version + 1, repository.version());
+    }
+
+    @Test
+    void sumsAreTakenInTheDatabase() {
+        assertTrue(repository.saveAll(List.of(new Item("I4", "lamp", 3), new Item("I5", "lamp", 0))));
+        assertEquals(7, repository.sumBy("countByName", "lamp"));
+
+        assertTrue(repository.update("I3", "name", "torch"));
+        repository.deleteById("I5");
+        assertEquals(3, repository.sumBy("countByName", "lamp"));
+        assertEquals(4, repository.sumBy("countByName", "torch"));
+        assertEquals(0, repository.sumBy("countByName", "missing"));
+    }
+
+    @Test
+    void deleteOnlyBumpsVersionWhenSomethingWasRemoved() {
+        long version = repository.version();
+        assertFalse(repository.deleteById("missing"));
+        assertEquals(List.of(), repository.deleteAllById(List.of("missing", "gone")));
+        assertEquals(version, repository.version());
+
+        assertTrue(repository.existsById("I2"));
+        assertTrue(repository.deleteById("I2"));
+        assertEquals(version + 1, repository.version());
+        assertNull(repository.findById("I2"));
+        assertFalse(repository.existsById("I2"));
+        assertEquals(List.of("I3"), repository.deleteAllById(List.of("missing", "I3", "I2")));
+        assertEquals(List.of("I1"), keys(repository.findAll()));
+    }
+
+    @Test
+    void pagesAreFilteredSortedAndCutInTheDatabase() {
+        List<Item> more = new ArrayList<>();
+        for (int i = 4; i <= 25; i++) {
+            more.add(new Item("I" + i, "item" + (char) ('a' + i % 5), i % 3));
+        }
+        repository.saveAll(more);
+
+        assertEquals(List.of("I1", "I2", "I3", "I4", "I5"), keys(repository.findPage(PageQuery.all(), 0, 5)));
+        assertEquals(List.of("I24", "I25"), keys(repository.findPage(PageQuery.all(), 23, 5)));
+        assertEquals(25, repository.count(PageQuery.all()));
+
+        PageQuery byKeyDescending = new PageQuery(null, null, PageQuery.BY_KEY, true);
+        assertEquals(List.of("I9", "I8", "I7"), keys(repository.findPage(byKeyDescending, 0, 3)));
+
+        // Filter on count = 1, sort by name; equal names keep insertion order
+        PageQuery filtered = new PageQuery("count", "1", "name", false);
+        List<Item> all = repository.findPage(filtered, 0, 100);
+        assertEquals(repository.countBy("count", "1"), repository.count(filtered));
+        assertEquals(all.size(), repository.count(filtered));
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).name.compareTo(all.get(i).name) <= 0);
+        }
+        assertEquals(keys(all.subList(2, 4)), keys(repository.findPage(filtered, 2, 2)));
+    }
+
+    private static List<String> keys(List<Item> items) {
+        List<String> keys = new ArrayList<>();
+        for (Item item : items) {
+            keys.add(item.id);
+        }
+        return keys;
+    }
+
+    private static List<String> lines(List<Item> items) {
+        List<String> lines = new ArrayList<>();
+        for (Item item : items) {
+            lines.add(Item.format(item));
+        }
+        return lines;
+    }
+}
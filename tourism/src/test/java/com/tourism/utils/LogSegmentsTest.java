@@ -0,0 +1,133 @@
+package com.tourism.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSegmentsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 18);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rotatedSegmentsAreNumberedPerDayAndReadAsOneGzipFile() throws Exception {
+        Path segmentsDir = dir.resolve("logs");
+        LogSegments segments = new LogSegments(segmentsDir, 10);
+        List<String> lines = lines(0, 1000); // several index blocks, so several gzip members
+        segments.rotate(active(lines), DAY);
+        segments.rotate(active(lines(1000, 10)), DAY);
+        segments.rotate(active(lines(1010, 10)), DAY.plusDays(1));
+
+        assertEquals(List.of("activity-20261018-001.log.gz", "activity-20261018-002.log.gz",
+                "activity-20261019-001.log.gz"), names(segments.list()));
+        assertFalse(Files.exists(dir.resolve("activity.log")));
+
+        Path first = segments.list().get(0);
+        assertTrue(Files.exists(first.resolveSibling(first.getFileName() + ".idx")));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(first))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(String.join(System.lineSeparator(), lines) + System.lineSeparator(), text);
+        }
+        List<String> read = new ArrayList<>();
+        LogSegments.forEachLine(first, read::add);
+        assertEquals(lines, read);
+    }
+
+    @Test
+    void onlyTheNewestSegmentsAreKept() throws Exception {
+        LogSegments segments = new LogSegments(dir.resolve("logs"), 2);
+        for (int i = 0; i < 4; i++) {
+            segments.rotate(active(lines(i * 10, 10)), DAY);
+            segments.markBackedUp(segments.listNotBackedUp());
+        }
+        List<Path> kept = segments.list();
+        assertEquals(List.of("activity-20261018-003.log.gz", "activity-20261018-004.log.gz"), names(kept));
+        try (var files = Files.list(dir.resolve("logs"))) {
+            assertEquals(5, files.count()); // two segments, their indexes and the backup marker
+        }
+    }
+
+    @Test
+    void segmentsNoBackupHasTakenAreNotDeleted() throws Exception {
+        LogSegments segments = new LogSegments(dir.resolve("logs"), 2);
+        segments.rotate(active(lines(0, 10)), DAY);
+        segments.markBackedUp(segments.listNotBackedUp());
+        for (int i = 1; i < 5; i++) {
+            segments.rotate(active(lines(i * 10, 10)), DAY);
+        }
+        // 001 was backed up and is beyond the limit; 002 and 003 were not backed up yet
+        assertEquals(List.of("activity-20261018-002.log.gz", "activity-20261018-003.log.gz",
+                "activity-20261018-004.log.gz", "activity-20261018-005.log.gz"), names(segments.list()));
+        assertEquals(4, segments.listNotBackedUp().size());
+
+        segments.markBackedUp(segments.listNotBackedUp());
+        assertEquals(List.of("activity-20261018-004.log.gz", "activity-20261018-005.log.gz"), names(segments.list()));
+    }
+
+    @Test
+    void backupMarkerSelectsSegmentsClosedSinceTheLastBackup() throws Exception {
+        LogSegments segments = new LogSegments(dir.resolve("logs"), 10);
+        segments.rotate(active(lines(0, 5)), DAY);
+        segments.rotate(active(lines(5, 5)), DAY);
+        assertEquals(2, segments.listNotBackedUp().size());
+
+        segments.markBackedUp(segments.listNotBackedUp());
+        assertTrue(segments.listNotBackedUp().isEmpty());
+        segments.rotate(active(lines(10, 5)), DAY);
+        assertEquals(List.of("activity-20261018-003.log.gz"), names(segments.listNotBackedUp()));
+
+        // The marker survives a restart
+        assertEquals(1, new LogSegments(dir.resolve("logs"), 10).listNotBackedUp().size());
+    }
+
+    @Test
+    void interruptedRotationIsFinishedOnStartup() throws Exception {
+        Path segmentsDir = Files.createDirectories(dir.resolve("logs"));
+        List<String> lines = lines(0, 300);
+        Files.write(segmentsDir.resolve("activity-20261018-001.log"), lines); // moved, not yet compressed
+
+        LogSegments segments = new LogSegments(segmentsDir, 10);
+        assertEquals(List.of("activity-20261018-001.log.gz"), names(segments.list()));
+        assertFalse(Files.exists(segmentsDir.resolve("activity-20261018-001.log")));
+        List<String> read = new ArrayList<>();
+        LogSegments.forEachLine(segments.list().get(0), read::add);
+        assertEquals(lines, read);
+    }
+
+    /** "timestamp | user | activity" lines, one minute apart, for three users. */
+    static List<String> lines(int from, int count) {
+        List<String> lines = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2026, 10, 18, 0, 0);
+        for (int i = from; i < from + count; i++) {
+            lines.add(start.plusMinutes(i) + ":00 | user" + (i % 3) + " | activity " + i);
+        }
+        return lines;
+    }
+
+    private Path active(List<String> lines) throws Exception {
+        return Files.write(dir.resolve("activity.log"), lines);
+    }
+
+    private static List<String> names(List<Path> paths) {
+        List<String> names = new ArrayList<>();
+        for (Path path : paths) {
+            names.add(path.getFileName().toString());
+        }
+        return names;
+    }
+}
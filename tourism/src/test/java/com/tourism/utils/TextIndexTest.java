@@ -0,0 +1,123 @@
+package com.tourism.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Checks the n-gram search against a plain {@code contains} over the same records. */
+class TextIndexTest {
+
+    private static final String[] WORDS = {"Beach", "Mountain", "safari", "Tour", "city", "ÉTÉ", "lake", "ski",
+            "Rome", "trek", "a", "aa"};
+
+    /** The indexed text of each live key, in the order the index numbered them. */
+    private final Map<String, String[]> expected = new LinkedHashMap<>();
+    private final TextIndex<String[]> index = new TextIndex<>(List.of(fields -> fields[0], fields -> fields[1]));
+
+    @Test
+    void searchFindsWhatContainsFinds() {
+        Random random = new Random(42);
+        for (int i = 0; i < 3000; i++) {
+            put("P" + i, randomFields(random));
+        }
+        assertSearchesMatch(random);
+
+        // Re-index some records, re-save others unchanged and remove a few
+        for (int i = 0; i < 3000; i += 3) {
+            put("P" + i, randomFields(random));
+        }
+        for (int i = 1; i < 3000; i += 7) {
+            put("P" + i, expected.get("P" + i).clone());
+        }
+        for (int i = 2; i < 3000; i += 5) {
+            index.remove("P" + i);
+            expected.remove("P" + i);
+        }
+        assertSearchesMatch(random);
+
+        // Enough dead entries to rebuild the postings
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 3000; i++) {
+                put("P" + i, randomFields(random));
+            }
+        }
+        assertSearchesMatch(random);
+
+        index.clear();
+        expected.clear();
+        assertEquals(List.of(), index.search("be"));
+    }
+
+    @Test
+    void matchesStayWithinOneFieldAndIgnoreCase() {
+        put("P1", new String[]{"Lake Como", "Italy"});
+        put("P2", new String[]{"Beach", null});
+
+        assertEquals(List.of("P1"), index.search("KE C"));
+        assertEquals(List.of(), index.search("comoitaly")); // no match across the two fields
+        assertEquals(List.of("P1"), index.search("ITALY"));
+        assertEquals(List.of("P2"), index.search("bea"));
+        assertEquals(List.of("P1", "P2"), index.search("a"));
+        assertEquals(List.of(), index.search("zz"));
+    }
+
+    private void put(String key, String[] fields) {
+        String[] old = expected.get(key);
+        if (old == null || !text(old).equals(text(fields))) {
+            expected.remove(key); // a changed record is numbered again, after the others
+        }
+        expected.put(key, fields);
+        index.put(key, fields);
+    }
+
+    private void assertSearchesMatch(Random random) {
+        List<String> queries = new ArrayList<>(List.of("a", "É", "aa", "te", "ea", "Tour", "CITY", "h m", "skil", "xyz",
+                "beach mountain", "ÉTÉ"));
+        for (int i = 0; i < 200; i++) {
+            String text = text(randomFields(random));
+            int from = random.nextInt(text.length());
+            int to = Math.min(text.length(), from + 1 + random.nextInt(12));
+            queries.add(text.substring(from, to).replace("\u0001", ""));
+        }
+        for (String query : queries) {
+            assertEquals(bruteForce(query), index.search(query), query);
+        }
+    }
+
+    private List<String> bruteForce(String query) {
+        String needle = TextIndex.normalize(query);
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, String[]> entry : expected.entrySet()) {
+            String[] fields = entry.getValue();
+            for (String field : fields) {
+                if (field != null && TextIndex.normalize(field).contains(needle)) {
+                    keys.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String text(String[] fields) {
+        return TextIndex.normalize(fields[0] + "\u0001" + (fields[1] == null ? "" : fields[1]));
+    }
+
+    private static String[] randomFields(Random random) {
+        return new String[]{words(random, 1 + random.nextInt(3)), random.nextInt(10) == 0 ? null : words(random, 2)};
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
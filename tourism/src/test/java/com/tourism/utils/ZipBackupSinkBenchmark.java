@@ -0,0 +1,99 @@
+package com.tourism.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Time to zip 32 MiB of booking lines with ZipOutputStream against ZipBackupSink at
+ * 1 to 8 compression threads, to see how the block deflater scales with cores. Not
+ * part of the test run; start {@link #main} from the IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZipBackupSinkBenchmark {
+
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "CANCELLED", "COMPLETED"};
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private byte[] data;
+    private Path dir;
+
+    @Setup
+    public void createData() throws IOException {
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 32 * 1024 * 1024) {
+            text.append("BK").append(100000 + random.nextInt(900000)).append("|T").append(random.nextInt(50000))
+                    .append("|PKG00").append(random.nextInt(9)).append("|G00").append(random.nextInt(9))
+                    .append('|').append(STATUSES[random.nextInt(STATUSES.length)])
+                    .append('|').append(random.nextInt(500000) / 100.0).append('|').append(1 + random.nextInt(12))
+                    .append("|window seat please|").append(random.nextBoolean() ? "PAID" : "PENDING").append('\n');
+        }
+        data = text.toString().getBytes(StandardCharsets.UTF_8);
+        dir = Files.createTempDirectory("zip-bench");
+    }
+
+    @TearDown
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(dir.resolve("sink.zip"));
+        Files.deleteIfExists(dir.resolve("jdk.zip"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public long zipBackupSink() throws IOException {
+        Path zip = dir.resolve("sink.zip");
+        try (ZipBackupSink sink = new ZipBackupSink(zip, threads)) {
+            try (OutputStream out = sink.openEntry("bookings.txt")) {
+                out.write(data);
+            }
+            sink.commit();
+        }
+        return Files.size(zip);
+    }
+
+    /** The single-threaded baseline; it does not depend on {@link #threads}. */
+    @Benchmark
+    public long zipOutputStream() throws IOException {
+        Path zip = dir.resolve("jdk.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("bookings.txt"));
+            out.write(data);
+            out.closeEntry();
+        }
+        return Files.size(zip);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ZipBackupSinkBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,164 @@
+package com.tourism.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Writes zip backups with the parallel deflater and reads them back with java.util.zip. */
+class ZipBackupSinkTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void entriesAcrossSeveralBlocksReadBackWithZipFile() throws Exception {
+        Map<String, byte[]> deflated = new LinkedHashMap<>();
+        deflated.put("bookings.txt", bookingLines(120_000));          // several 1 MiB blocks, compresses well
+        deflated.put("random.bin", randomBytes(2_500_000 + 17, 11)); // blocks that do not compress
+        deflated.put("block.bin", randomBytes(1 << 20, 12));          // exactly one block
+        deflated.put("empty.txt", new byte[0]);
+        deflated.put("ünïcode name.txt", "T1|Ünïcode|€\n".getBytes(StandardCharsets.UTF_8));
+        byte[] segment = gzip(bookingLines(40_000));
+        Path segmentFile = Files.write(dir.resolve("activity-1.log.gz"), segment);
+
+        Path zip = dir.resolve("backup.zip");
+        try (ZipBackupSink sink = new ZipBackupSink(zip, 3)) {
+            for (Map.Entry<String, byte[]> entry : deflated.entrySet()) {
+                try (OutputStream out = sink.openEntry(entry.getKey())) {
+                    writeInPieces(out, entry.getValue());
+                }
+            }
+            sink.addCompressedFile("logs/activity-1.log.gz", segmentFile, new BackupProgress());
+            assertEquals(zip.toString(), sink.commit());
+        }
+
+        try (ZipFile file = new ZipFile(zip.toFile())) {
+            List<String> names = new ArrayList<>();
+            for (ZipEntry entry : Collections.list(file.entries())) {
+                names.add(entry.getName());
+            }
+            List<String> expected = new ArrayList<>(deflated.keySet());
+            expected.add("logs/activity-1.log.gz");
+            expected.add(BackupManifest.ZIP_ENTRY);
+            assertEquals(expected, names);
+
+            for (Map.Entry<String, byte[]> expectedEntry : deflated.entrySet()) {
+                ZipEntry entry = file.getEntry(expectedEntry.getKey());
+                assertEquals(ZipEntry.DEFLATED, entry.getMethod(), entry.getName());
+                assertEntry(file, entry, expectedEntry.getValue());
+            }
+            ZipEntry stored = file.getEntry("logs/activity-1.log.gz");
+            assertEquals(ZipEntry.STORED, stored.getMethod());
+            assertEquals(segment.length, stored.getCompressedSize());
+            assertEntry(file, stored, segment);
+            assertTrue(file.getEntry("bookings.txt").getCompressedSize() < deflated.get("bookings.txt").length / 3);
+
+            BackupManifest manifest;
+            try (InputStream in = file.getInputStream(file.getEntry(BackupManifest.ZIP_ENTRY))) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                manifest = BackupManifest.read(new BufferedReader(new StringReader(text)));
+            }
+            assertEquals(expected.subList(0, expected.size() - 1), manifestNames(manifest));
+            BackupManifest.FileEntry bookings = manifest.find("bookings.txt");
+            assertEquals(120_000, bookings.rows);
+            assertEquals(sha256(deflated.get("bookings.txt")), bookings.sha256);
+            assertEquals(sha256(segment), manifest.find("logs/activity-1.log.gz").sha256);
+        }
+    }
+
+    @Test
+    void closingWithoutCommitDeletesThePartialZip() throws Exception {
+        Path zip = dir.resolve("partial.zip");
+        try (ZipBackupSink sink = new ZipBackupSink(zip, 2)) {
+            try (OutputStream out = sink.openEntry("bookings.txt")) {
+                out.write(bookingLines(1000));
+            }
+            assertTrue(Files.exists(zip));
+        }
+        assertFalse(Files.exists(zip));
+    }
+
+    private static void assertEntry(ZipFile file, ZipEntry entry, byte[] expected) throws Exception {
+        CRC32 crc = new CRC32();
+        crc.update(expected);
+        assertEquals(crc.getValue(), entry.getCrc(), "CRC of " + entry.getName());
+        assertEquals(expected.length, entry.getSize(), "size of " + entry.getName());
+        byte[] actual;
+        try (InputStream in = file.getInputStream(entry)) {
+            actual = in.readAllBytes(); // ZipFile checks the CRC of what it inflated
+        }
+        assertArrayEquals(expected, actual, "contents of " + entry.getName());
+    }
+
+    /** Writes in uneven pieces so block boundaries fall inside writes. */
+    private static void writeInPieces(OutputStream out, byte[] data) throws Exception {
+        Random random = new Random(data.length);
+        int offset = 0;
+        while (offset < data.length) {
+            int n = Math.min(data.length - offset, 1 + random.nextInt(300_000));
+            out.write(data, offset, n);
+            offset += n;
+        }
+    }
+
+    private static byte[] bookingLines(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append("BK").append(100000 + i).append("|T").append(i % 977).append("|PKG00").append(i % 9)
+                    .append("|G00").append(i % 7).append("|CONFIRMED|").append(i * 12.5).append('|')
+                    .append(1 + i % 12).append("|window seat|PAID\n");
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] gzip(byte[] data) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String sha256(byte[] data) {
+        FileDigest digest = new FileDigest();
+        digest.update(data, 0, data.length);
+        return digest.sha256Hex();
+    }
+
+    private static List<String> manifestNames(BackupManifest manifest) {
+        List<String> names = new ArrayList<>();
+        for (BackupManifest.FileEntry file : manifest.getFiles()) {
+            names.add(file.name);
+        }
+        return names;
+    }
+}